@@ -0,0 +1,61 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.devsuperior.dscommerce.dto.PageDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dados usados nos benchmarks, iguais aos dos testes RA e da carga inicial do servidor.
+ */
+final class ProductPayloads {
+
+    static final String NAME = "Meu produto";
+    static final String DESCRIPTION = "Lorem ipsum, dolor sit amet consectetur adipisicing elit. Qui ad, adipisci illum ipsam velit et odit eaque reprehenderit ex maxime delectus dolore labore, quisquam quae tempora natus esse aliquam veniam doloremque quam minima culpa alias maiores commodi. Perferendis enim";
+    static final String IMG_URL = "https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/1-big.jpg";
+    static final double PRICE = 50.0;
+
+    private ProductPayloads() {
+    }
+
+    /** Mesmo mapa montado em {@code ProductControllerRA.setUp}. */
+    static Map<String, Object> postProductInstance() {
+        Map<String, Object> postProductInstance = new HashMap<>();
+        postProductInstance.put("name", NAME);
+        postProductInstance.put("description", DESCRIPTION);
+        postProductInstance.put("imgUrl", IMG_URL);
+        postProductInstance.put("price", PRICE);
+
+        List<Map<String, Object>> categories = new ArrayList<>();
+        Map<String, Object> category1 = new HashMap<>();
+        category1.put("id", 2);
+        Map<String, Object> category2 = new HashMap<>();
+        category2.put("id", 3);
+        categories.add(category1);
+        categories.add(category2);
+
+        postProductInstance.put("categories", categories);
+        return postProductInstance;
+    }
+
+    static ProductDTO smartTv() {
+        return new ProductDTO(2L, "Smart TV", DESCRIPTION, 2190.0,
+                "https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/2-big.jpg",
+                List.of(new CategoryDTO(2L, "Eletrônicos"), new CategoryDTO(3L, "Computadores")));
+    }
+
+    /** Página como a de {@code GET /products?size=25}. */
+    static PageDTO<ProductMinDTO> page(int size) {
+        List<ProductMinDTO> content = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            content.add(new ProductMinDTO(id, "PC Gamer " + id, 1000.0 + 50 * id,
+                    "https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/" + id + "-big.jpg"));
+        }
+        return PageDTO.of(content, size, 0, size);
+    }
+}
@@ -0,0 +1,80 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.entities.Category;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.load.CatalogFixture;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca por nome do {@code ProductRepository} com o índice de trigramas comparada com a varredura que ele fazia
+ * antes, em catálogos com os produtos sintéticos do {@code CatalogFixture} e um Macbook Pro.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    @Param({"Macbook", "Raro", "Fixture Acme", "inexistente"})
+    public String term;
+
+    private ProductRepository repository;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        List<Category> categories = List.of(new Category(3L, "Computadores"));
+        repository = new ProductRepository();
+        products = new ArrayList<>(catalogSize + 1);
+        products.add(new Product(1L, "Macbook Pro", ProductPayloads.DESCRIPTION, 1250.0, ProductPayloads.IMG_URL,
+                categories));
+        for (int i = 0; i < catalogSize; i++) {
+            products.add(new Product(i + 2L, CatalogFixture.name(i), ProductPayloads.DESCRIPTION, 10.0 + i,
+                    ProductPayloads.IMG_URL, categories));
+        }
+        products.forEach(repository::save);
+    }
+
+    @Benchmark
+    public ProductRepository.SearchResult trigramIndex() {
+        return repository.searchByName(term, 0, 20);
+    }
+
+    /** Varredura anterior ao índice: {@code toUpperCase} e {@code contains} em todo o catálogo. */
+    @Benchmark
+    public ProductRepository.SearchResult linearScan() {
+        String upper = term.toUpperCase(Locale.ROOT);
+        List<Product> content = new ArrayList<>(20);
+        long total = 0;
+        for (Product product : products) {
+            if (product.getName().toUpperCase(Locale.ROOT).contains(upper)) {
+                if (content.size() < 20) {
+                    content.add(product);
+                }
+                total++;
+            }
+        }
+        return new ProductRepository.SearchResult(content, total);
+    }
+}
@@ -0,0 +1,111 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.tests.PayloadTemplate;
+import com.devsuperior.dscommerce.tests.Payloads;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.json.simple.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de montar o corpo JSON do {@code POST /products} dos testes de inserção.
+ * <p>
+ * Rode com {@code -prof gc} (padrão do perfil benchmark) para ver a taxa de alocação de cada caminho.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestEncodingBenchmark {
+
+    private ObjectMapper mapper;
+    private byte[] preSerialized;
+    private PayloadTemplate.Instance template;
+    private int nameSlot;
+    private int priceSlot;
+    private long price;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        mapper = JsonMapper.builder().serializationInclusion(JsonInclude.Include.NON_NULL).build();
+        preSerialized = mapper.writeValueAsBytes(productDto());
+        template = Payloads.NEW_PRODUCT.newInstance();
+        nameSlot = Payloads.NEW_PRODUCT.slot("name");
+        priceSlot = Payloads.NEW_PRODUCT.slot("price");
+        buffer = new ByteArrayOutputStream(1024);
+    }
+
+    /** Caminho atual dos testes: HashMap aninhado convertido por json-simple. */
+    @Benchmark
+    public byte[] jsonSimpleFromMap() {
+        JSONObject newProduct = new JSONObject(ProductPayloads.postProductInstance());
+        return newProduct.toJSONString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] jacksonTree() throws JsonProcessingException {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("name", ProductPayloads.NAME);
+        node.put("description", ProductPayloads.DESCRIPTION);
+        node.put("imgUrl", ProductPayloads.IMG_URL);
+        node.put("price", ProductPayloads.PRICE);
+        ArrayNode categories = node.putArray("categories");
+        categories.addObject().put("id", 2);
+        categories.addObject().put("id", 3);
+        return mapper.writeValueAsBytes(node);
+    }
+
+    @Benchmark
+    public byte[] jacksonDatabind() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(productDto());
+    }
+
+    /** Referência: o corpo já serializado, só copiado. */
+    @Benchmark
+    public byte[] preSerializedBytes() {
+        return Arrays.copyOf(preSerialized, preSerialized.length);
+    }
+
+    /** Template pré-codificado com o nome reescrito, como nos testes de validação. */
+    @Benchmark
+    public byte[] payloadTemplateToBytes() {
+        return template.set(nameSlot, ProductPayloads.NAME).toBytes();
+    }
+
+    /** Template com um preço diferente a cada corpo, escrito num buffer reaproveitado. */
+    @Benchmark
+    public int payloadTemplateWriteTo() {
+        buffer.reset();
+        template.set(priceSlot, ++price).writeTo(buffer);
+        return buffer.size();
+    }
+
+    private static ProductDTO productDto() {
+        return new ProductDTO(null, ProductPayloads.NAME, ProductPayloads.DESCRIPTION, ProductPayloads.PRICE,
+                ProductPayloads.IMG_URL, List.of(new CategoryDTO(2L, null), new CategoryDTO(3L, null)));
+    }
+}
@@ -0,0 +1,112 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.dto.PageDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.restassured.path.json.JsonPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de ler as respostas de {@code GET /products/{id}} e {@code GET /products?size=25} como os testes RA fazem
+ * (GPath do RestAssured) comparado com Jackson em árvore e com databind.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseDecodingBenchmark {
+
+    private static final TypeReference<PageDTO<ProductMinDTO>> PAGE_TYPE = new TypeReference<>() {
+    };
+
+    private ObjectMapper mapper;
+    private byte[] productBytes;
+    private String productJson;
+    private byte[] pageBytes;
+    private String pageJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = JsonMapper.builder().build();
+        productBytes = mapper.writeValueAsBytes(ProductPayloads.smartTv());
+        productJson = new String(productBytes, StandardCharsets.UTF_8);
+        pageBytes = mapper.writeValueAsBytes(ProductPayloads.page(25));
+        pageJson = new String(pageBytes, StandardCharsets.UTF_8);
+    }
+
+    /** Como {@code findByIdShouldReturnProductWhenIdExists}. */
+    @Benchmark
+    public void productRestAssuredJsonPath(Blackhole bh) {
+        JsonPath path = JsonPath.from(productJson);
+        bh.consume(path.getInt("id"));
+        bh.consume(path.getString("name"));
+        bh.consume(path.getFloat("price"));
+        bh.consume(path.getList("categories.id"));
+    }
+
+    @Benchmark
+    public void productJacksonTree(Blackhole bh) throws IOException {
+        JsonNode node = mapper.readTree(productBytes);
+        bh.consume(node.get("id").asInt());
+        bh.consume(node.get("name").asText());
+        bh.consume(node.get("price").asDouble());
+        for (JsonNode category : node.get("categories")) {
+            bh.consume(category.get("id").asLong());
+        }
+    }
+
+    @Benchmark
+    public ProductDTO productJacksonDatabind() throws IOException {
+        return mapper.readValue(productBytes, ProductDTO.class);
+    }
+
+    /** Como {@code findAllShouldReturnPagedProductsWithPriceGreaterThan2000}. */
+    @Benchmark
+    public List<Object> pageRestAssuredGPathFindAll() {
+        return JsonPath.from(pageJson).getList("content.findAll {it.price > 2000}.name");
+    }
+
+    @Benchmark
+    public List<String> pageJacksonTree() throws IOException {
+        List<String> names = new ArrayList<>();
+        for (JsonNode item : mapper.readTree(pageBytes).get("content")) {
+            if (item.get("price").asDouble() > 2000) {
+                names.add(item.get("name").asText());
+            }
+        }
+        return names;
+    }
+
+    @Benchmark
+    public List<String> pageJacksonDatabind() throws IOException {
+        List<String> names = new ArrayList<>();
+        for (ProductMinDTO item : mapper.readValue(pageBytes, PAGE_TYPE).content()) {
+            if (item.price() > 2000) {
+                names.add(item.name());
+            }
+        }
+        return names;
+    }
+}
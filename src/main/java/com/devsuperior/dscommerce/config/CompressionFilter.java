@@ -0,0 +1,211 @@
+package com.devsuperior.dscommerce.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressão das respostas negociada pelo {@code Accept-Encoding}: gzip ou deflate, a partir de
+ * {@code compression.min-size} bytes de corpo. Abaixo disso a resposta cabe em poucos pacotes e a CPU de comprimir
+ * não se paga.
+ * <p>
+ * O corpo é montado em memória para que o tamanho seja conhecido antes de escolher a codificação. Respostas que
+ * poderiam ser comprimidas levam {@code Vary: Accept-Encoding}; as comprimidas têm a ETag rebaixada a fraca, já que
+ * os bytes não são mais os da representação original, e o {@code If-None-Match} continua valendo pela comparação
+ * fraca.
+ * <p>
+ * Toda resposta informa em {@code Server-Timing} o tempo de CPU da thread que a atendeu: {@code cpu} do
+ * processamento inteiro e {@code compress} da parte gasta comprimindo.
+ */
+@Component
+public class CompressionFilter extends OncePerRequestFilter {
+
+	public static final String SERVER_TIMING = "Server-Timing";
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	enum Encoding {
+		GZIP("gzip"), DEFLATE("deflate");
+
+		private final String token;
+
+		Encoding(String token) {
+			this.token = token;
+		}
+
+		String token() {
+			return token;
+		}
+
+		byte[] compress(byte[] body, int level) throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4 + 64);
+			try (OutputStream out = this == GZIP ? gzip(bytes, level) : deflate(bytes, level)) {
+				out.write(body);
+			}
+			return bytes.toByteArray();
+		}
+
+		private static OutputStream gzip(OutputStream out, int level) throws IOException {
+			return new GZIPOutputStream(out, 8192) {
+				{
+					def.setLevel(level);
+				}
+			};
+		}
+
+		private static OutputStream deflate(OutputStream out, int level) {
+			// "deflate" no HTTP é o formato zlib (RFC 1950), o padrão do Deflater
+			Deflater deflater = new Deflater(level);
+			return new DeflaterOutputStream(out, deflater, 8192) {
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						deflater.end();
+					}
+				}
+			};
+		}
+	}
+
+	private final int minSize;
+	private final int level;
+
+	public CompressionFilter(
+			@Value("${compression.min-size}") int minSize,
+			@Value("${compression.level}") int level) {
+		if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException("Nível de compressão inválido: " + level);
+		}
+		this.minSize = minSize;
+		this.level = level;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		long start = cpuTime();
+		ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+		chain.doFilter(request, buffered);
+		if (response.isCommitted()) {
+			buffered.copyBodyToResponse();
+			return;
+		}
+
+		byte[] body = buffered.getContentAsByteArray();
+		if (!compressible(response, body)) {
+			serverTiming(response, start, 0);
+			buffered.copyBodyToResponse();
+			return;
+		}
+		response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		Encoding encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+		if (encoding == null) {
+			serverTiming(response, start, 0);
+			buffered.copyBodyToResponse();
+			return;
+		}
+
+		long compressStart = cpuTime();
+		byte[] compressed = encoding.compress(body, level);
+		long compressNanos = cpuTime() - compressStart;
+		String etag = response.getHeader(HttpHeaders.ETAG);
+		if (etag != null && !etag.startsWith("W/")) {
+			response.setHeader(HttpHeaders.ETAG, "W/" + etag);
+		}
+		response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.token());
+		response.setContentLength(compressed.length);
+		serverTiming(response, start, compressNanos);
+		response.getOutputStream().write(compressed);
+	}
+
+	private boolean compressible(HttpServletResponse response, byte[] body) {
+		if (body.length < minSize || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null
+				|| response.getStatus() == HttpServletResponse.SC_PARTIAL_CONTENT) {
+			return false;
+		}
+		String contentType = response.getContentType();
+		if (contentType == null) {
+			return false;
+		}
+		String type = contentType.toLowerCase(Locale.ROOT);
+		return type.startsWith("text/") || type.startsWith("application/json") || type.contains("+json");
+	}
+
+	/**
+	 * Codificação preferida pelo cliente entre gzip e deflate, pelos pesos {@code q}; gzip no empate. {@code null}
+	 * quando o cliente não aceita nenhuma das duas.
+	 */
+	static Encoding negotiate(String acceptEncoding) {
+		if (acceptEncoding == null || acceptEncoding.isBlank()) {
+			return null;
+		}
+		double gzip = -1;
+		double deflate = -1;
+		double any = -1;
+		for (String part : acceptEncoding.split(",")) {
+			int semicolon = part.indexOf(';');
+			String coding = (semicolon < 0 ? part : part.substring(0, semicolon)).trim().toLowerCase(Locale.ROOT);
+			double q = semicolon < 0 ? 1.0 : quality(part.substring(semicolon + 1));
+			switch (coding) {
+				case "gzip", "x-gzip" -> gzip = q;
+				case "deflate" -> deflate = q;
+				case "*" -> any = q;
+				default -> {
+				}
+			}
+		}
+		// "*" vale para as codificações não citadas
+		gzip = gzip < 0 ? any : gzip;
+		deflate = deflate < 0 ? any : deflate;
+		if (gzip > 0 && gzip >= deflate) {
+			return Encoding.GZIP;
+		}
+		return deflate > 0 ? Encoding.DEFLATE : null;
+	}
+
+	private static double quality(String params) {
+		for (String param : params.split(";")) {
+			String p = param.trim();
+			if (p.length() > 2 && (p.charAt(0) == 'q' || p.charAt(0) == 'Q') && p.charAt(1) == '=') {
+				try {
+					return Double.parseDouble(p.substring(2).trim());
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1.0;
+	}
+
+	private static void serverTiming(HttpServletResponse response, long start, long compressNanos) {
+		if (start < 0) {
+			// medição de CPU por thread indisponível (threads virtuais, por exemplo)
+			return;
+		}
+		long cpuNanos = cpuTime() - start;
+		response.addHeader(SERVER_TIMING, String.format(Locale.ROOT, "cpu;dur=%.3f, compress;dur=%.3f",
+				cpuNanos / 1e6, compressNanos / 1e6));
+	}
+
+	private static long cpuTime() {
+		return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+	}
+}
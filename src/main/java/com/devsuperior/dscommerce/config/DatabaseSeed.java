@@ -0,0 +1,107 @@
+package com.devsuperior.dscommerce.config;
+
+import com.devsuperior.dscommerce.entities.Category;
+import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.entities.OrderItem;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.entities.Payment;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.entities.User;
+import com.devsuperior.dscommerce.repositories.CategoryRepository;
+import com.devsuperior.dscommerce.repositories.OrderRepository;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Carga inicial equivalente ao import.sql do projeto dscommerce.
+ * <p>
+ * Nenhum bean depende deste, então ele fica fora da inicialização preguiçosa do perfil {@code fast}: a carga tem que
+ * estar pronta antes da primeira requisição.
+ */
+@Component
+@Lazy(false)
+public class DatabaseSeed {
+
+	private static final String DESCRIPTION = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do "
+			+ "eiusmod tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud "
+			+ "exercitation ullamco laboris nisi ut aliquip ex ea commodo consequat.";
+	private static final String IMG_URL =
+			"https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/%d-big.jpg";
+
+	private final CategoryRepository categoryRepository;
+	private final ProductRepository productRepository;
+	private final UserRepository userRepository;
+	private final OrderRepository orderRepository;
+
+	public DatabaseSeed(CategoryRepository categoryRepository, ProductRepository productRepository,
+			UserRepository userRepository, OrderRepository orderRepository) {
+		this.categoryRepository = categoryRepository;
+		this.productRepository = productRepository;
+		this.userRepository = userRepository;
+		this.orderRepository = orderRepository;
+	}
+
+	@PostConstruct
+	public void seed() {
+		Category livros = categoryRepository.save(new Category(1L, "Livros"));
+		Category eletronicos = categoryRepository.save(new Category(2L, "Eletrônicos"));
+		Category computadores = categoryRepository.save(new Category(3L, "Computadores"));
+
+		product(1, "The Lord of the Rings", 90.5, livros);
+		product(2, "Smart TV", 2190.0, eletronicos, computadores);
+		product(3, "Macbook Pro", 1250.0, computadores);
+		product(4, "PC Gamer", 1200.0, computadores);
+		product(5, "Rails for Dummies", 100.99, livros);
+		product(6, "PC Gamer Ex", 1350.0, computadores);
+		product(7, "PC Gamer X", 1350.0, computadores);
+		product(8, "PC Gamer Alfa", 1850.0, computadores);
+		product(9, "PC Gamer Tera", 1950.0, computadores);
+		product(10, "PC Gamer Y", 1700.0, computadores);
+		product(11, "PC Gamer Nitro", 1450.0, computadores);
+		product(12, "PC Gamer Card", 1850.0, computadores);
+		product(13, "PC Gamer Plus", 1350.0, computadores);
+		product(14, "PC Gamer Hera", 2250.0, computadores);
+		product(15, "PC Gamer Weed", 2200.0, computadores);
+		product(16, "PC Gamer Max", 2340.0, computadores);
+		product(17, "PC Gamer Turbo", 1280.0, computadores);
+		product(18, "PC Gamer Hot", 1450.0, computadores);
+		product(19, "PC Gamer Ez", 1750.0, computadores);
+		product(20, "PC Gamer Tr", 1650.0, computadores);
+		product(21, "PC Gamer Tx", 1680.0, computadores);
+		product(22, "PC Gamer Er", 1850.0, computadores);
+		product(23, "PC Gamer Min", 2250.0, computadores);
+		product(24, "PC Gamer Boo", 2350.0, computadores);
+		product(25, "PC Gamer Foo", 4170.0, computadores);
+
+		User maria = userRepository.save(
+				new User(1L, "Maria Brown", "maria@gmail.com", "123456", Set.of("ROLE_CLIENT")));
+		User alex = userRepository.save(
+				new User(2L, "Alex Green", "alex@gmail.com", "123456", Set.of("ROLE_CLIENT", "ROLE_ADMIN")));
+
+		orderRepository.save(new Order(1L, Instant.parse("2022-07-25T13:00:00Z"), OrderStatus.PAID, maria,
+				new Payment(1L, Instant.parse("2022-07-25T15:00:00Z")),
+				List.of(item(1, 2), item(3, 1))));
+		orderRepository.save(new Order(2L, Instant.parse("2022-07-29T15:50:00Z"), OrderStatus.DELIVERED, alex,
+				new Payment(2L, Instant.parse("2022-07-30T11:00:00Z")),
+				List.of(item(3, 1))));
+		orderRepository.save(new Order(3L, Instant.parse("2022-08-03T14:20:00Z"), OrderStatus.WAITING_PAYMENT, maria,
+				null, List.of(item(1, 1))));
+	}
+
+	private void product(long id, String name, double price, Category... categories) {
+		productRepository.save(new Product(id, name, DESCRIPTION, price, String.format(IMG_URL, id),
+				List.of(categories)));
+	}
+
+	private OrderItem item(long productId, int quantity) {
+		Product product = productRepository.findById(productId).orElseThrow();
+		return new OrderItem(product, quantity, product.getPrice());
+	}
+}
@@ -0,0 +1,17 @@
+package com.devsuperior.dscommerce.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Exige um token Bearer válido com pelo menos um dos papéis informados, como o
+ * {@code @PreAuthorize("hasAnyRole(...)")} da API original.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface HasAnyRole {
+
+	String[] value();
+}
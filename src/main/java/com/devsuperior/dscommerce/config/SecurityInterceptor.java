@@ -0,0 +1,46 @@
+package com.devsuperior.dscommerce.config;
+
+import com.devsuperior.dscommerce.services.AuthService;
+import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
+import com.devsuperior.dscommerce.services.exceptions.UnauthorizedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+@Component
+public class SecurityInterceptor implements HandlerInterceptor {
+
+	private static final String BEARER = "Bearer ";
+
+	private final AuthService authService;
+
+	public SecurityInterceptor(AuthService authService) {
+		this.authService = authService;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (!(handler instanceof HandlerMethod method)) {
+			return true;
+		}
+		HasAnyRole required = method.getMethodAnnotation(HasAnyRole.class);
+		if (required == null) {
+			return true;
+		}
+		String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (header == null || !header.startsWith(BEARER)) {
+			throw new UnauthorizedException("Token ausente");
+		}
+		AuthService.Principal principal = authService.authenticate(header.substring(BEARER.length()).trim());
+		request.setAttribute(AuthService.PRINCIPAL_ATTRIBUTE, principal);
+		for (String role : required.value()) {
+			if (principal.hasRole(role)) {
+				return true;
+			}
+		}
+		throw new ForbiddenException("Access denied");
+	}
+}
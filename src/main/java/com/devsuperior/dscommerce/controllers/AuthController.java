@@ -0,0 +1,61 @@
+package com.devsuperior.dscommerce.controllers;
+
+import com.devsuperior.dscommerce.config.HasAnyRole;
+import com.devsuperior.dscommerce.dto.TokenCacheStatsDTO;
+import com.devsuperior.dscommerce.dto.TokenDTO;
+import com.devsuperior.dscommerce.services.AuthService;
+import com.devsuperior.dscommerce.services.exceptions.UnauthorizedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@RestController
+@RequestMapping(value = "/oauth2/token")
+public class AuthController {
+
+	private final AuthService service;
+
+	public AuthController(AuthService service) {
+		this.service = service;
+	}
+
+	@PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+	public ResponseEntity<TokenDTO> token(
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+			@RequestParam(value = "grant_type", required = false) String grantType,
+			@RequestParam(required = false) String username,
+			@RequestParam(required = false) String password) {
+		if (authorization == null || !authorization.startsWith("Basic ")) {
+			throw new UnauthorizedException("Client não autenticado");
+		}
+		String credentials;
+		try {
+			credentials = new String(Base64.getDecoder().decode(authorization.substring(6).trim()),
+					StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new UnauthorizedException("Client não autenticado");
+		}
+		int colon = credentials.indexOf(':');
+		if (colon < 0) {
+			throw new UnauthorizedException("Client não autenticado");
+		}
+		TokenDTO dto = service.issueToken(credentials.substring(0, colon), credentials.substring(colon + 1),
+				grantType, username, password);
+		return ResponseEntity.ok(dto);
+	}
+
+	@HasAnyRole("ROLE_ADMIN")
+	@GetMapping(value = "/cache")
+	public ResponseEntity<TokenCacheStatsDTO> tokenCache() {
+		return ResponseEntity.ok(new TokenCacheStatsDTO(service.tokenCacheStats()));
+	}
+}
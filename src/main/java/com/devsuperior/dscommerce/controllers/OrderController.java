@@ -0,0 +1,42 @@
+package com.devsuperior.dscommerce.controllers;
+
+import com.devsuperior.dscommerce.config.HasAnyRole;
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.services.OrderService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping(value = "/orders")
+public class OrderController {
+
+	private final OrderService service;
+
+	public OrderController(OrderService service) {
+		this.service = service;
+	}
+
+	@HasAnyRole({"ROLE_ADMIN", "ROLE_CLIENT"})
+	@GetMapping(value = "/{id}")
+	public ResponseEntity<OrderDTO> findById(@PathVariable Long id) {
+		OrderDTO dto = service.findById(id);
+		return ResponseEntity.ok(dto);
+	}
+
+	@HasAnyRole("ROLE_CLIENT")
+	@PostMapping
+	public ResponseEntity<OrderDTO> insert(@Valid @RequestBody OrderDTO dto) {
+		dto = service.insert(dto);
+		URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(dto.id()).toUri();
+		return ResponseEntity.created(uri).body(dto);
+	}
+}
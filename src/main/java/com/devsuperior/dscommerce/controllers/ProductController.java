@@ -0,0 +1,69 @@
+package com.devsuperior.dscommerce.controllers;
+
+import com.devsuperior.dscommerce.config.HasAnyRole;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.services.ProductResponseCache;
+import com.devsuperior.dscommerce.services.ProductService;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping(value = "/products")
+public class ProductController {
+
+	private final ProductService service;
+	private final ProductResponseCache responseCache;
+
+	public ProductController(ProductService service, ProductResponseCache responseCache) {
+		this.service = service;
+		this.responseCache = responseCache;
+	}
+
+	// leituras com ETag: o Spring responde 304 sem corpo quando o If-None-Match confere
+	@GetMapping(value = "/{id}")
+	public ResponseEntity<byte[]> findById(@PathVariable Long id) {
+		return cached(responseCache.findById(id));
+	}
+
+	@GetMapping
+	public ResponseEntity<byte[]> findAll(
+			@RequestParam(name = "name", defaultValue = "") String name,
+			@RequestParam(name = "page", defaultValue = "0") int page,
+			@RequestParam(name = "size", defaultValue = "20") int size) {
+		return cached(responseCache.findAll(name, Math.max(page, 0), Math.max(size, 1)));
+	}
+
+	@HasAnyRole("ROLE_ADMIN")
+	@PostMapping
+	public ResponseEntity<ProductDTO> insert(@Valid @RequestBody ProductDTO dto) {
+		dto = service.insert(dto);
+		URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(dto.id()).toUri();
+		return ResponseEntity.created(uri).body(dto);
+	}
+
+	@HasAnyRole("ROLE_ADMIN")
+	@DeleteMapping(value = "/{id}")
+	public ResponseEntity<Void> delete(@PathVariable Long id) {
+		service.delete(id);
+		return ResponseEntity.noContent().build();
+	}
+
+	private static ResponseEntity<byte[]> cached(ProductResponseCache.CachedResponse response) {
+		return ResponseEntity.ok()
+				.eTag(response.etag())
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(response.body());
+	}
+}
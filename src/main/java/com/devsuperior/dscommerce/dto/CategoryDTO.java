@@ -0,0 +1,15 @@
+package com.devsuperior.dscommerce.dto;
+
+import com.devsuperior.dscommerce.entities.Category;
+import jakarta.validation.constraints.NotNull;
+
+public record CategoryDTO(
+		@NotNull(message = "Campo requerido")
+		Long id,
+
+		String name) {
+
+	public CategoryDTO(Category entity) {
+		this(entity.getId(), entity.getName());
+	}
+}
@@ -0,0 +1,10 @@
+package com.devsuperior.dscommerce.dto;
+
+import com.devsuperior.dscommerce.entities.User;
+
+public record ClientDTO(Long id, String name) {
+
+	public ClientDTO(User entity) {
+		this(entity.getId(), entity.getName());
+	}
+}
@@ -0,0 +1,4 @@
+package com.devsuperior.dscommerce.dto;
+
+public record FieldMessage(String fieldName, String message) {
+}
@@ -0,0 +1,24 @@
+package com.devsuperior.dscommerce.dto;
+
+import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+import java.util.List;
+
+public record OrderDTO(Long id, Instant moment, OrderStatus status, ClientDTO client, PaymentDTO payment,
+
+		@NotEmpty(message = "Deve ter pelo menos um item")
+		List<@NotNull(message = "Campo requerido") @Valid OrderItemDTO> items,
+
+		Double total) {
+
+	public OrderDTO(Order entity) {
+		this(entity.getId(), entity.getMoment(), entity.getStatus(), new ClientDTO(entity.getClient()),
+				entity.getPayment() == null ? null : new PaymentDTO(entity.getPayment()),
+				entity.getItems().stream().map(OrderItemDTO::new).toList(), entity.getTotal());
+	}
+}
@@ -0,0 +1,27 @@
+package com.devsuperior.dscommerce.dto;
+
+import com.devsuperior.dscommerce.entities.OrderItem;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record OrderItemDTO(
+		@NotNull(message = "Campo requerido")
+		Long productId,
+
+		String name,
+
+		Double price,
+
+		@NotNull(message = "Campo requerido")
+		@Positive(message = "A quantidade deve ser positiva")
+		Integer quantity,
+
+		String imgUrl,
+
+		Double subTotal) {
+
+	public OrderItemDTO(OrderItem entity) {
+		this(entity.getProduct().getId(), entity.getProduct().getName(), entity.getPrice(), entity.getQuantity(),
+				entity.getProduct().getImgUrl(), entity.getSubTotal());
+	}
+}
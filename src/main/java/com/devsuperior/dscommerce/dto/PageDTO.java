@@ -0,0 +1,16 @@
+package com.devsuperior.dscommerce.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados no mesmo formato JSON do {@code Page} do Spring Data usado pela API original.
+ */
+public record PageDTO<T>(List<T> content, long totalElements, int totalPages, int size, int number,
+		int numberOfElements, boolean first, boolean last, boolean empty) {
+
+	public static <T> PageDTO<T> of(List<T> content, long totalElements, int page, int size) {
+		int totalPages = size == 0 ? 1 : (int) Math.ceil((double) totalElements / size);
+		return new PageDTO<>(content, totalElements, totalPages, size, page, content.size(), page == 0,
+				page + 1 >= totalPages, content.isEmpty());
+	}
+}
@@ -0,0 +1,12 @@
+package com.devsuperior.dscommerce.dto;
+
+import com.devsuperior.dscommerce.entities.Payment;
+
+import java.time.Instant;
+
+public record PaymentDTO(Long id, Instant moment) {
+
+	public PaymentDTO(Payment entity) {
+		this(entity.getId(), entity.getMoment());
+	}
+}
@@ -0,0 +1,37 @@
+package com.devsuperior.dscommerce.dto;
+
+import com.devsuperior.dscommerce.entities.Product;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ProductDTO(
+		Long id,
+
+		@Size(min = 3, max = 80, message = "Nome precisar ter de 3 a 80 caracteres")
+		@NotBlank(message = "Campo requerido")
+		String name,
+
+		@Size(min = 10, message = "Descrição precisa ter no mínimo 10 caracteres")
+		@NotBlank(message = "Campo requerido")
+		String description,
+
+		@NotNull(message = "Campo requerido")
+		@Positive(message = "O preço deve ser positivo")
+		Double price,
+
+		String imgUrl,
+
+		@NotEmpty(message = "Deve ter pelo menos uma categoria")
+		List<@NotNull(message = "Campo requerido") @Valid CategoryDTO> categories) {
+
+	public ProductDTO(Product entity) {
+		this(entity.getId(), entity.getName(), entity.getDescription(), entity.getPrice(), entity.getImgUrl(),
+				entity.getCategories().stream().map(CategoryDTO::new).toList());
+	}
+}
@@ -0,0 +1,10 @@
+package com.devsuperior.dscommerce.dto;
+
+import com.devsuperior.dscommerce.entities.Product;
+
+public record ProductMinDTO(Long id, String name, Double price, String imgUrl) {
+
+	public ProductMinDTO(Product entity) {
+		this(entity.getId(), entity.getName(), entity.getPrice(), entity.getImgUrl());
+	}
+}
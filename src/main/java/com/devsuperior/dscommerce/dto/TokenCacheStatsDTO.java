@@ -0,0 +1,12 @@
+package com.devsuperior.dscommerce.dto;
+
+import com.devsuperior.dscommerce.services.VerifiedTokenCache;
+
+public record TokenCacheStatsDTO(long hits, long negativeHits, long misses, int size, int negativeSize,
+		double hitRatio) {
+
+	public TokenCacheStatsDTO(VerifiedTokenCache.Stats stats) {
+		this(stats.hits(), stats.negativeHits(), stats.misses(), stats.size(), stats.negativeSize(),
+				stats.hitRatio());
+	}
+}
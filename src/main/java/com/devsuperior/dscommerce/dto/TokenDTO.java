@@ -0,0 +1,9 @@
+package com.devsuperior.dscommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record TokenDTO(
+		@JsonProperty("access_token") String accessToken,
+		@JsonProperty("token_type") String tokenType,
+		@JsonProperty("expires_in") long expiresIn) {
+}
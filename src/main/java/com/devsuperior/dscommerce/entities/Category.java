@@ -0,0 +1,20 @@
+package com.devsuperior.dscommerce.entities;
+
+public class Category {
+
+	private final Long id;
+	private final String name;
+
+	public Category(Long id, String name) {
+		this.id = id;
+		this.name = name;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+}
@@ -0,0 +1,58 @@
+package com.devsuperior.dscommerce.entities;
+
+import java.time.Instant;
+import java.util.List;
+
+public class Order {
+
+	private final Long id;
+	private final Instant moment;
+	private final OrderStatus status;
+	private final User client;
+	private final Payment payment;
+	private final List<OrderItem> items;
+	// itens imutáveis: o total é calculado uma vez, e não a cada serialização
+	private final double total;
+
+	public Order(Long id, Instant moment, OrderStatus status, User client, Payment payment, List<OrderItem> items) {
+		this.id = id;
+		this.moment = moment;
+		this.status = status;
+		this.client = client;
+		this.payment = payment;
+		this.items = List.copyOf(items);
+		double sum = 0.0;
+		for (OrderItem item : this.items) {
+			sum += item.getSubTotal();
+		}
+		this.total = sum;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+
+	public OrderStatus getStatus() {
+		return status;
+	}
+
+	public User getClient() {
+		return client;
+	}
+
+	public Payment getPayment() {
+		return payment;
+	}
+
+	public List<OrderItem> getItems() {
+		return items;
+	}
+
+	public double getTotal() {
+		return total;
+	}
+}
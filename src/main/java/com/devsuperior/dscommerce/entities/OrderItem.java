@@ -0,0 +1,30 @@
+package com.devsuperior.dscommerce.entities;
+
+public class OrderItem {
+
+	private final Product product;
+	private final Integer quantity;
+	private final Double price;
+
+	public OrderItem(Product product, Integer quantity, Double price) {
+		this.product = product;
+		this.quantity = quantity;
+		this.price = price;
+	}
+
+	public Product getProduct() {
+		return product;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	public Double getPrice() {
+		return price;
+	}
+
+	public double getSubTotal() {
+		return price * quantity;
+	}
+}
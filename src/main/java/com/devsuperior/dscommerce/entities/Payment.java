@@ -0,0 +1,22 @@
+package com.devsuperior.dscommerce.entities;
+
+import java.time.Instant;
+
+public class Payment {
+
+	private final Long id;
+	private final Instant moment;
+
+	public Payment(Long id, Instant moment) {
+		this.id = id;
+		this.moment = moment;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+}
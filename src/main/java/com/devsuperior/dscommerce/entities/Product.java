@@ -0,0 +1,46 @@
+package com.devsuperior.dscommerce.entities;
+
+import java.util.List;
+
+public class Product {
+
+	private final Long id;
+	private final String name;
+	private final String description;
+	private final Double price;
+	private final String imgUrl;
+	private final List<Category> categories;
+
+	public Product(Long id, String name, String description, Double price, String imgUrl, List<Category> categories) {
+		this.id = id;
+		this.name = name;
+		this.description = description;
+		this.price = price;
+		this.imgUrl = imgUrl;
+		this.categories = List.copyOf(categories);
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public Double getPrice() {
+		return price;
+	}
+
+	public String getImgUrl() {
+		return imgUrl;
+	}
+
+	public List<Category> getCategories() {
+		return categories;
+	}
+}
@@ -0,0 +1,44 @@
+package com.devsuperior.dscommerce.entities;
+
+import java.util.Set;
+
+public class User {
+
+	private final Long id;
+	private final String name;
+	private final String email;
+	private final String password;
+	private final Set<String> roles;
+
+	public User(Long id, String name, String email, String password, Set<String> roles) {
+		this.id = id;
+		this.name = name;
+		this.email = email;
+		this.password = password;
+		this.roles = Set.copyOf(roles);
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public Set<String> getRoles() {
+		return roles;
+	}
+
+	public boolean hasRole(String roleName) {
+		return roles.contains(roleName);
+	}
+}
@@ -0,0 +1,22 @@
+package com.devsuperior.dscommerce.repositories;
+
+import com.devsuperior.dscommerce.entities.Category;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+public class CategoryRepository {
+
+	private final ConcurrentHashMap<Long, Category> byId = new ConcurrentHashMap<>();
+
+	public Category save(Category category) {
+		byId.put(category.getId(), category);
+		return category;
+	}
+
+	public Optional<Category> findById(Long id) {
+		return Optional.ofNullable(byId.get(id));
+	}
+}
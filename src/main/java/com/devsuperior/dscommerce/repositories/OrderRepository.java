@@ -0,0 +1,111 @@
+package com.devsuperior.dscommerce.repositories;
+
+import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.entities.OrderItem;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pedidos em memória, com inserções concorrentes sem trava global.
+ * <p>
+ * O estado de cada produto é um contador próprio de itens de pedido, atualizado por CAS: pedidos de produtos
+ * diferentes não disputam nada além do mapa, e a exclusão do produto só vence se o contador estiver em zero, quando
+ * o marca como {@link #RETIRED}. Assim um pedido nunca referencia produto excluído, mesmo com a exclusão correndo em
+ * paralelo.
+ */
+@Repository
+public class OrderRepository {
+
+	// produto excluído: não aceita mais itens
+	private static final long RETIRED = -1;
+
+	/** Resultado de {@link #retireProduct}. */
+	public enum Retirement {
+		/** Produto marcado como excluído agora. */
+		RETIRED,
+		/** Outra exclusão já tinha marcado o produto. */
+		ALREADY_RETIRED,
+		/** Há pedidos com o produto: não pode ser excluído. */
+		REFERENCED
+	}
+
+	private final ConcurrentHashMap<Long, Order> byId = new ConcurrentHashMap<>();
+	private final AtomicLong sequence = new AtomicLong();
+
+	// quantidade de itens de pedido por produto, para a checagem de integridade referencial na deleção
+	private final ConcurrentHashMap<Long, AtomicLong> itemsByProduct = new ConcurrentHashMap<>();
+
+	public Long nextId() {
+		return sequence.incrementAndGet();
+	}
+
+	/**
+	 * Grava o pedido se todos os produtos dele ainda aceitam itens; senão não grava nada e devolve {@code false}.
+	 */
+	public boolean insert(Order order) {
+		List<OrderItem> items = order.getItems();
+		for (int i = 0; i < items.size(); i++) {
+			if (!acquire(items.get(i).getProduct().getId())) {
+				for (int j = 0; j < i; j++) {
+					counter(items.get(j).getProduct().getId()).decrementAndGet();
+				}
+				return false;
+			}
+		}
+		byId.put(order.getId(), order);
+		sequence.accumulateAndGet(order.getId(), Math::max);
+		return true;
+	}
+
+	public Order save(Order order) {
+		if (!insert(order)) {
+			throw new IllegalStateException("Pedido " + order.getId() + " com produto excluído");
+		}
+		return order;
+	}
+
+	public Optional<Order> findById(Long id) {
+		return Optional.ofNullable(byId.get(id));
+	}
+
+	/**
+	 * Marca o produto como excluído se nenhum pedido o referencia. Depois disso, pedidos com ele são recusados.
+	 */
+	public Retirement retireProduct(Long productId) {
+		AtomicLong count = counter(productId);
+		while (true) {
+			if (count.compareAndSet(0, RETIRED)) {
+				return Retirement.RETIRED;
+			}
+			long current = count.get();
+			if (current == RETIRED) {
+				return Retirement.ALREADY_RETIRED;
+			}
+			// contador em zero de novo: um pedido recusado desfez o item entre o CAS e a leitura
+			if (current > 0) {
+				return Retirement.REFERENCED;
+			}
+		}
+	}
+
+	private boolean acquire(Long productId) {
+		AtomicLong count = counter(productId);
+		long current;
+		do {
+			current = count.get();
+			if (current == RETIRED) {
+				return false;
+			}
+		} while (!count.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	private AtomicLong counter(Long productId) {
+		AtomicLong count = itemsByProduct.get(productId);
+		return count != null ? count : itemsByProduct.computeIfAbsent(productId, k -> new AtomicLong());
+	}
+}
@@ -0,0 +1,157 @@
+package com.devsuperior.dscommerce.repositories;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Índice de trigramas dos nomes de produto, para a busca por trecho do nome sem percorrer o catálogo inteiro.
+ * <p>
+ * Cada trigrama do nome em maiúsculas aponta para a lista ordenada dos ids que o contêm. Uma busca pega a menor
+ * lista entre os trigramas do termo e confere cada candidato com {@code contains} no nome já normalizado, então o
+ * resultado e a ordem (id crescente) são os mesmos da varredura completa. Termos com menos de 3 caracteres não usam
+ * as listas, só os nomes normalizados.
+ * <p>
+ * Inserções com id maior que o último da lista (o caso normal) são um append. Remoções só contam entradas velhas;
+ * a lista é compactada quando metade dela está velha, e até lá a conferência do nome descarta essas entradas.
+ */
+public class ProductNameIndex {
+
+	static final int GRAM = 3;
+
+	private final ConcurrentHashMap<Long, String> keys = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Postings> postings = new ConcurrentHashMap<>();
+
+	public static String normalize(String text) {
+		return text.toUpperCase(Locale.ROOT);
+	}
+
+	public void add(long id, String name) {
+		String key = normalize(name);
+		String old = keys.put(id, key);
+		if (key.equals(old)) {
+			return;
+		}
+		Set<String> grams = grams(key);
+		for (String gram : grams) {
+			postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+		}
+		if (old != null) {
+			for (String gram : grams(old)) {
+				if (!grams.contains(gram)) {
+					markStale(gram);
+				}
+			}
+		}
+	}
+
+	public void remove(long id) {
+		String old = keys.remove(id);
+		if (old != null) {
+			for (String gram : grams(old)) {
+				markStale(gram);
+			}
+		}
+	}
+
+	/** Nome normalizado de {@code id} contém o termo já normalizado. */
+	public boolean matches(long id, String normalizedTerm) {
+		String key = keys.get(id);
+		return key != null && key.contains(normalizedTerm);
+	}
+
+	/**
+	 * Ids que podem conter o termo normalizado, em ordem crescente; podem sobrar falsos positivos, a conferir com
+	 * {@link #matches}. Devolve {@code null} se o termo é curto demais para o índice.
+	 */
+	public long[] candidates(String normalizedTerm) {
+		if (normalizedTerm.length() < GRAM) {
+			return null;
+		}
+		Postings smallest = null;
+		for (String gram : grams(normalizedTerm)) {
+			Postings list = postings.get(gram);
+			if (list == null) {
+				return new long[0];
+			}
+			if (smallest == null || list.size() < smallest.size()) {
+				smallest = list;
+			}
+		}
+		return smallest.snapshot();
+	}
+
+	private void markStale(String gram) {
+		Postings list = postings.get(gram);
+		if (list != null) {
+			list.markStale(id -> matches(id, gram));
+		}
+	}
+
+	static Set<String> grams(String key) {
+		Set<String> grams = new LinkedHashSet<>();
+		for (int i = 0; i + GRAM <= key.length(); i++) {
+			grams.add(key.substring(i, i + GRAM));
+		}
+		return grams;
+	}
+
+	/** Lista de ids ordenada, com append rápido e remoção preguiçosa. */
+	private static final class Postings {
+
+		private long[] ids = new long[4];
+		private int size;
+		private int stale;
+
+		synchronized int size() {
+			return size;
+		}
+
+		synchronized void add(long id) {
+			if (size == 0 || id > ids[size - 1]) {
+				ensureCapacity();
+				ids[size++] = id;
+				return;
+			}
+			int pos = Arrays.binarySearch(ids, 0, size, id);
+			if (pos >= 0) {
+				return;
+			}
+			int insertAt = -pos - 1;
+			ensureCapacity();
+			System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+			ids[insertAt] = id;
+			size++;
+		}
+
+		synchronized void markStale(LongPredicate live) {
+			stale++;
+			if (stale * 2 > size) {
+				int kept = 0;
+				for (int i = 0; i < size; i++) {
+					if (live.test(ids[i])) {
+						ids[kept++] = ids[i];
+					}
+				}
+				size = kept;
+				stale = 0;
+				if (ids.length > 16 && size < ids.length / 4) {
+					ids = Arrays.copyOf(ids, Math.max(size * 2, 4));
+				}
+			}
+		}
+
+		synchronized long[] snapshot() {
+			return Arrays.copyOf(ids, size);
+		}
+
+		private void ensureCapacity() {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.devsuperior.dscommerce.repositories;
+
+import com.devsuperior.dscommerce.entities.Product;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catálogo em memória ordenado por id, que é a ordem de paginação da API original.
+ */
+@Repository
+public class ProductRepository {
+
+	private final ConcurrentSkipListMap<Long, Product> byId = new ConcurrentSkipListMap<>();
+	private final AtomicLong sequence = new AtomicLong();
+	private final ProductNameIndex nameIndex = new ProductNameIndex();
+	// muda a cada inserção ou exclusão, para invalidar o que foi calculado sobre o catálogo
+	private final AtomicLong version = new AtomicLong();
+
+	public Long nextId() {
+		return sequence.incrementAndGet();
+	}
+
+	public Product save(Product product) {
+		byId.put(product.getId(), product);
+		nameIndex.add(product.getId(), product.getName());
+		sequence.accumulateAndGet(product.getId(), Math::max);
+		version.incrementAndGet();
+		return product;
+	}
+
+	public Optional<Product> findById(Long id) {
+		return Optional.ofNullable(byId.get(id));
+	}
+
+	public boolean existsById(Long id) {
+		return byId.containsKey(id);
+	}
+
+	public void deleteById(Long id) {
+		nameIndex.remove(id);
+		if (byId.remove(id) != null) {
+			version.incrementAndGet();
+		}
+	}
+
+	public long version() {
+		return version.get();
+	}
+
+	public long count() {
+		return byId.size();
+	}
+
+	/**
+	 * Busca produtos cujo nome contém {@code name}, sem diferenciar maiúsculas, como o
+	 * {@code UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%'))} da API original, em ordem de id. Usa o
+	 * {@link ProductNameIndex} em vez de percorrer o catálogo.
+	 */
+	public SearchResult searchByName(String name, int page, int size) {
+		String term = ProductNameIndex.normalize(name);
+		long first = (long) page * size;
+		List<Product> content = new ArrayList<>(Math.min(size, 64));
+		if (term.isEmpty()) {
+			byId.values().stream().skip(first).limit(size).forEach(content::add);
+			return new SearchResult(content, byId.size());
+		}
+		long total = 0;
+		long[] candidates = nameIndex.candidates(term);
+		if (candidates != null) {
+			for (long id : candidates) {
+				if (nameIndex.matches(id, term)) {
+					// o produto só é buscado se entra na página; para o total basta o nome indexado
+					if (total >= first && content.size() < size) {
+						Product product = byId.get(id);
+						if (product == null) {
+							continue;
+						}
+						content.add(product);
+					}
+					total++;
+				}
+			}
+		} else {
+			for (Product product : byId.values()) {
+				if (nameIndex.matches(product.getId(), term)) {
+					if (total >= first && content.size() < size) {
+						content.add(product);
+					}
+					total++;
+				}
+			}
+		}
+		return new SearchResult(content, total);
+	}
+
+	public record SearchResult(List<Product> content, long totalElements) {
+	}
+}
@@ -0,0 +1,28 @@
+package com.devsuperior.dscommerce.repositories;
+
+import com.devsuperior.dscommerce.entities.User;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+public class UserRepository {
+
+	private final ConcurrentHashMap<Long, User> byId = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, User> byEmail = new ConcurrentHashMap<>();
+
+	public User save(User user) {
+		byId.put(user.getId(), user);
+		byEmail.put(user.getEmail(), user);
+		return user;
+	}
+
+	public Optional<User> findById(Long id) {
+		return Optional.ofNullable(byId.get(id));
+	}
+
+	public Optional<User> findByEmail(String email) {
+		return Optional.ofNullable(byEmail.get(email));
+	}
+}
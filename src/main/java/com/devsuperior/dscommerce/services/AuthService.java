@@ -0,0 +1,217 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.TokenDTO;
+import com.devsuperior.dscommerce.entities.User;
+import com.devsuperior.dscommerce.repositories.UserRepository;
+import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
+import com.devsuperior.dscommerce.services.exceptions.UnauthorizedException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Signature;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Emissão e validação de tokens JWT assinados com RS256, no papel do authorization server da API original.
+ */
+@Service
+public class AuthService {
+
+	public static final String PRINCIPAL_ATTRIBUTE = AuthService.class.getName() + ".principal";
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+	private static final String HEADER = ENCODER.encodeToString(
+			"{\"alg\":\"RS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+	private static final int KEY_SIZE = 2048;
+	private static final int SIGNATURE_LENGTH = ENCODER.encodeToString(new byte[KEY_SIZE / 8]).length();
+	private static final int MAX_TOKEN_LENGTH = 8192;
+
+	public record Principal(Long userId, String username, Set<String> roles) {
+
+		public boolean hasRole(String role) {
+			return roles.contains(role);
+		}
+	}
+
+	private final UserRepository userRepository;
+	private final ObjectMapper objectMapper;
+	private final Clock clock;
+	private final KeyPair keyPair;
+	private final String clientId;
+	private final String clientSecret;
+	private final long jwtDuration;
+	private final VerifiedTokenCache tokenCache;
+
+	public AuthService(UserRepository userRepository, ObjectMapper objectMapper,
+			@Value("${security.client-id}") String clientId,
+			@Value("${security.client-secret}") String clientSecret,
+			@Value("${security.jwt.duration}") long jwtDuration,
+			@Value("${security.token-cache.max-entries}") int tokenCacheMaxEntries,
+			@Value("${security.token-cache.max-rejections}") int tokenCacheMaxRejections,
+			@Value("${security.token-cache.rejection-ttl}") Duration tokenCacheRejectionTtl)
+			throws NoSuchAlgorithmException {
+		this.userRepository = userRepository;
+		this.objectMapper = objectMapper;
+		this.clock = Clock.systemUTC();
+		this.clientId = clientId;
+		this.clientSecret = clientSecret;
+		this.jwtDuration = jwtDuration;
+		this.tokenCache = new VerifiedTokenCache(tokenCacheMaxEntries, tokenCacheMaxRejections,
+				tokenCacheRejectionTtl, clock);
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(KEY_SIZE);
+		this.keyPair = generator.generateKeyPair();
+	}
+
+	public TokenDTO issueToken(String clientId, String clientSecret, String grantType, String username,
+			String password) {
+		if (!matches(this.clientId, clientId) || !matches(this.clientSecret, clientSecret)) {
+			throw new UnauthorizedException("Client inválido");
+		}
+		if (!"password".equals(grantType)) {
+			throw new UnauthorizedException("Grant type não suportado");
+		}
+		User user = userRepository.findByEmail(username == null ? "" : username)
+				.filter(u -> matches(u.getPassword(), password))
+				.orElseThrow(() -> new UnauthorizedException("Usuário ou senha inválidos"));
+
+		Instant now = clock.instant();
+		Map<String, Object> claims = new LinkedHashMap<>();
+		claims.put("iss", "dscommerce");
+		claims.put("sub", user.getEmail());
+		claims.put("uid", user.getId());
+		claims.put("iat", now.getEpochSecond());
+		claims.put("exp", now.plusSeconds(jwtDuration).getEpochSecond());
+		claims.put("authorities", new TreeSet<>(user.getRoles()));
+		try {
+			String payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+			String signingInput = HEADER + "." + payload;
+			return new TokenDTO(signingInput + "." + ENCODER.encodeToString(sign(signingInput)), "Bearer",
+					jwtDuration);
+		} catch (JsonProcessingException | GeneralSecurityException e) {
+			throw new IllegalStateException("Falha ao emitir token", e);
+		}
+	}
+
+	/**
+	 * Valida assinatura e expiração do token e devolve o usuário autenticado. Tokens fora do formato dos emitidos
+	 * aqui são recusados antes do cache e da verificação RSA; os demais, já verificados, válidos ou não, vêm do
+	 * {@link VerifiedTokenCache}.
+	 */
+	public Principal authenticate(String token) {
+		if (!wellFormed(token)) {
+			throw new UnauthorizedException("Token inválido");
+		}
+		return tokenCache.authenticate(token, this::verifyToken);
+	}
+
+	public VerifiedTokenCache.Stats tokenCacheStats() {
+		return tokenCache.stats();
+	}
+
+	/**
+	 * Formato dos tokens emitidos por {@link #issueToken}: o cabeçalho RS256 fixo, claims não vazias e uma
+	 * assinatura do tamanho da chave, tudo em Base64 URL sem padding. Custa só uma passada pelos caracteres.
+	 */
+	private boolean wellFormed(String token) {
+		int firstDot = HEADER.length();
+		int lastDot = token.lastIndexOf('.');
+		if (token.length() > MAX_TOKEN_LENGTH || !token.startsWith(HEADER) || token.length() <= firstDot
+				|| token.charAt(firstDot) != '.' || lastDot <= firstDot + 1
+				|| token.length() - lastDot - 1 != SIGNATURE_LENGTH) {
+			return false;
+		}
+		for (int i = firstDot + 1; i < token.length(); i++) {
+			if (i != lastDot && !isBase64Url(token.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isBase64Url(char c) {
+		return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+	}
+
+	private VerifiedTokenCache.Verification verifyToken(String token) {
+		int firstDot = token.indexOf('.');
+		int lastDot = token.lastIndexOf('.');
+		if (firstDot <= 0 || lastDot <= firstDot) {
+			throw new UnauthorizedException("Token inválido");
+		}
+		try {
+			String signingInput = token.substring(0, lastDot);
+			byte[] signature = DECODER.decode(token.substring(lastDot + 1));
+			if (!verify(signingInput, signature)) {
+				throw new UnauthorizedException("Token inválido");
+			}
+			JsonNode claims = objectMapper.readTree(DECODER.decode(token.substring(firstDot + 1, lastDot)));
+			if (claims.path("exp").asLong() <= clock.instant().getEpochSecond()) {
+				throw new UnauthorizedException("Token expirado");
+			}
+			Set<String> roles = new TreeSet<>();
+			claims.path("authorities").forEach(node -> roles.add(node.asText()));
+			Principal principal = new Principal(claims.path("uid").asLong(), claims.path("sub").asText(),
+					Set.copyOf(roles));
+			return new VerifiedTokenCache.Verification(principal, claims.path("exp").asLong());
+		} catch (IllegalArgumentException | IOException | GeneralSecurityException e) {
+			throw new UnauthorizedException("Token inválido");
+		}
+	}
+
+	public Principal authenticated() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		Object principal = attributes == null ? null
+				: attributes.getAttribute(PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		if (principal == null) {
+			throw new UnauthorizedException("Usuário não autenticado");
+		}
+		return (Principal) principal;
+	}
+
+	public void validateSelfOrAdmin(Long userId) {
+		Principal me = authenticated();
+		if (!me.hasRole("ROLE_ADMIN") && !me.userId().equals(userId)) {
+			throw new ForbiddenException("Access denied");
+		}
+	}
+
+	private byte[] sign(String signingInput) throws GeneralSecurityException {
+		Signature signer = Signature.getInstance("SHA256withRSA");
+		signer.initSign(keyPair.getPrivate());
+		signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+		return signer.sign();
+	}
+
+	private boolean verify(String signingInput, byte[] signature) throws GeneralSecurityException {
+		Signature verifier = Signature.getInstance("SHA256withRSA");
+		verifier.initVerify(keyPair.getPublic());
+		verifier.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+		return verifier.verify(signature);
+	}
+
+	private static boolean matches(String expected, String actual) {
+		return actual != null && MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+				actual.getBytes(StandardCharsets.UTF_8));
+	}
+}
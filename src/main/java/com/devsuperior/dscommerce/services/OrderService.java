@@ -0,0 +1,64 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.OrderItemDTO;
+import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.entities.OrderItem;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.entities.User;
+import com.devsuperior.dscommerce.repositories.OrderRepository;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.repositories.UserRepository;
+import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscommerce.services.exceptions.UnauthorizedException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class OrderService {
+
+	private final OrderRepository repository;
+	private final ProductRepository productRepository;
+	private final UserRepository userRepository;
+	private final AuthService authService;
+
+	public OrderService(OrderRepository repository, ProductRepository productRepository,
+			UserRepository userRepository, AuthService authService) {
+		this.repository = repository;
+		this.productRepository = productRepository;
+		this.userRepository = userRepository;
+		this.authService = authService;
+	}
+
+	public OrderDTO findById(Long id) {
+		Order order = repository.findById(id).orElseThrow(
+				() -> new ResourceNotFoundException("Recurso não encontrado"));
+		authService.validateSelfOrAdmin(order.getClient().getId());
+		return new OrderDTO(order);
+	}
+
+	/**
+	 * Novo pedido do usuário autenticado, aguardando pagamento, com o preço atual de cada produto. Sem trava: o
+	 * {@link OrderRepository} recusa o pedido se um dos produtos for excluído no meio do caminho.
+	 */
+	public OrderDTO insert(OrderDTO dto) {
+		User client = userRepository.findById(authService.authenticated().userId()).orElseThrow(
+				() -> new UnauthorizedException("Usuário não encontrado"));
+		List<OrderItem> items = new ArrayList<>(dto.items().size());
+		for (OrderItemDTO itemDto : dto.items()) {
+			Product product = productRepository.findById(itemDto.productId()).orElseThrow(
+					() -> new ResourceNotFoundException("Recurso não encontrado"));
+			items.add(new OrderItem(product, itemDto.quantity(), product.getPrice()));
+		}
+		Order order = new Order(repository.nextId(), Instant.now(), OrderStatus.WAITING_PAYMENT, client, null,
+				items);
+		if (!repository.insert(order)) {
+			throw new ResourceNotFoundException("Recurso não encontrado");
+		}
+		return new OrderDTO(order);
+	}
+}
@@ -0,0 +1,109 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.PageDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Respostas JSON das leituras de produto já serializadas, com ETag forte calculada uma vez a partir do conteúdo.
+ * <p>
+ * Produtos não mudam depois de inseridos, então a resposta de {@code GET /products/{id}} vale enquanto o repositório
+ * devolver a mesma instância. As páginas de {@code GET /products} valem enquanto a versão do catálogo não mudar;
+ * quando muda, a página é recalculada, mas a ETag só muda se os bytes mudarem.
+ */
+@Service
+public class ProductResponseCache {
+
+	/** Limite de entradas de cada cache; ao passar dele o cache é esvaziado. */
+	private static final int MAX_ENTRIES = 10_000;
+
+	public record CachedResponse(byte[] body, String etag) {
+	}
+
+	private record ProductEntry(Product product, CachedResponse response) {
+	}
+
+	private record PageKey(String name, int page, int size) {
+	}
+
+	private record PageEntry(long version, CachedResponse response) {
+	}
+
+	private final ProductRepository repository;
+	private final ProductService service;
+	private final ObjectMapper objectMapper;
+	private final ConcurrentHashMap<Long, ProductEntry> products = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<PageKey, PageEntry> pages = new ConcurrentHashMap<>();
+
+	public ProductResponseCache(ProductRepository repository, ProductService service, ObjectMapper objectMapper) {
+		this.repository = repository;
+		this.service = service;
+		this.objectMapper = objectMapper;
+	}
+
+	public CachedResponse findById(Long id) {
+		Product product = repository.findById(id).orElseThrow(
+				() -> new ResourceNotFoundException("Recurso não encontrado"));
+		ProductEntry entry = products.get(id);
+		if (entry != null && entry.product() == product) {
+			return entry.response();
+		}
+		CachedResponse response = serialize(new ProductDTO(product));
+		put(products, id, new ProductEntry(product, response));
+		return response;
+	}
+
+	public CachedResponse findAll(String name, int page, int size) {
+		PageKey key = new PageKey(name, page, size);
+		// versão lida antes da consulta: se o catálogo mudar no meio, a entrada já nasce velha
+		long version = repository.version();
+		PageEntry entry = pages.get(key);
+		if (entry != null && entry.version() == version) {
+			return entry.response();
+		}
+		PageDTO<ProductMinDTO> dto = service.findAll(name, page, size);
+		CachedResponse response = serialize(dto);
+		if (entry != null && Arrays.equals(entry.response().body(), response.body())) {
+			response = entry.response();
+		}
+		put(pages, key, new PageEntry(version, response));
+		return response;
+	}
+
+	private CachedResponse serialize(Object dto) {
+		try {
+			byte[] body = objectMapper.writeValueAsBytes(dto);
+			return new CachedResponse(body, etag(body));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String etag(byte[] body) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+			return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static <K, V> void put(ConcurrentHashMap<K, V> cache, K key, V value) {
+		if (cache.size() >= MAX_ENTRIES) {
+			cache.clear();
+		}
+		cache.put(key, value);
+	}
+}
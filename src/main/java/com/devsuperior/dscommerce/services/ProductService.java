@@ -0,0 +1,71 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.devsuperior.dscommerce.dto.PageDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.entities.Category;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.repositories.CategoryRepository;
+import com.devsuperior.dscommerce.repositories.OrderRepository;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.exceptions.DatabaseException;
+import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class ProductService {
+
+	private final ProductRepository repository;
+	private final CategoryRepository categoryRepository;
+	private final OrderRepository orderRepository;
+
+	public ProductService(ProductRepository repository, CategoryRepository categoryRepository,
+			OrderRepository orderRepository) {
+		this.repository = repository;
+		this.categoryRepository = categoryRepository;
+		this.orderRepository = orderRepository;
+	}
+
+	public ProductDTO findById(Long id) {
+		Product product = repository.findById(id).orElseThrow(
+				() -> new ResourceNotFoundException("Recurso não encontrado"));
+		return new ProductDTO(product);
+	}
+
+	public PageDTO<ProductMinDTO> findAll(String name, int page, int size) {
+		ProductRepository.SearchResult result = repository.searchByName(name, page, size);
+		List<ProductMinDTO> content = result.content().stream().map(ProductMinDTO::new).toList();
+		return PageDTO.of(content, result.totalElements(), page, size);
+	}
+
+	public ProductDTO insert(ProductDTO dto) {
+		List<Category> categories = new ArrayList<>();
+		for (CategoryDTO catDto : dto.categories()) {
+			categories.add(categoryRepository.findById(catDto.id()).orElseThrow(
+					() -> new ResourceNotFoundException("Recurso não encontrado")));
+		}
+		Product entity = new Product(repository.nextId(), dto.name(), dto.description(), dto.price(), dto.imgUrl(),
+				categories);
+		return new ProductDTO(repository.save(entity));
+	}
+
+	public void delete(Long id) {
+		if (!repository.existsById(id)) {
+			throw new ResourceNotFoundException("Recurso não encontrado");
+		}
+		// atômico com a inserção de pedidos: ou o produto sai antes, ou o pedido entra e a exclusão falha
+		OrderRepository.Retirement retirement = orderRepository.retireProduct(id);
+		if (retirement == OrderRepository.Retirement.ALREADY_RETIRED) {
+			// outra exclusão simultânea também passou pelo existsById e venceu
+			throw new ResourceNotFoundException("Recurso não encontrado");
+		}
+		if (retirement == OrderRepository.Retirement.REFERENCED) {
+			throw new DatabaseException("Falha de integridade referencial");
+		}
+		repository.deleteById(id);
+	}
+}
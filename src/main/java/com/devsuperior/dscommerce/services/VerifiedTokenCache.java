@@ -0,0 +1,156 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.services.exceptions.UnauthorizedException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Resultados da verificação de tokens Bearer, para não validar a assinatura RSA a cada requisição.
+ * <p>
+ * A chave é o SHA-256 do token, não o token. Verificações bem-sucedidas valem até o {@code exp} do próprio token;
+ * rejeições ficam num cache menor por {@code rejectionTtl}, com a mesma mensagem, para que o mesmo token inválido
+ * repetido não custe uma verificação a cada vez. Os dois caches são LRU limitados: quando um chega ao limite, só a
+ * entrada usada há mais tempo sai, então uma enxurrada de tokens distintos custa uma remoção por token, sem varrer
+ * nem esvaziar o cache e sem derrubar os tokens válidos em uso.
+ */
+public class VerifiedTokenCache {
+
+	public record Verification(AuthService.Principal principal, long expiresAtEpochSecond) {
+	}
+
+	/**
+	 * @param hits         tokens válidos encontrados no cache
+	 * @param negativeHits tokens inválidos encontrados no cache de rejeições
+	 * @param misses       tokens verificados de fato
+	 */
+	public record Stats(long hits, long negativeHits, long misses, int size, int negativeSize) {
+
+		public double hitRatio() {
+			long total = hits + negativeHits + misses;
+			return total == 0 ? 0.0 : (double) (hits + negativeHits) / total;
+		}
+	}
+
+	private record Digest(long a, long b, long c, long d) {
+	}
+
+	private record Rejection(String message, long expiresAtMillis) {
+	}
+
+	/** Mapa em ordem de acesso que descarta a entrada usada há mais tempo ao passar do limite. */
+	private static final class Lru<V> extends LinkedHashMap<Digest, V> {
+
+		private final int capacity;
+
+		Lru(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Digest, V> eldest) {
+			return size() > capacity;
+		}
+	}
+
+	// LinkedHashMap em ordem de acesso altera a lista até no get: todo acesso passa pelo monitor do mapa
+	private final Lru<Verification> verified;
+	private final Lru<Rejection> rejected;
+	private final long rejectionTtlMillis;
+	private final Clock clock;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder negativeHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	public VerifiedTokenCache(int maxEntries, int maxRejections, Duration rejectionTtl, Clock clock) {
+		this.verified = new Lru<>(maxEntries);
+		this.rejected = new Lru<>(maxRejections);
+		this.rejectionTtlMillis = rejectionTtl.toMillis();
+		this.clock = clock;
+	}
+
+	/**
+	 * Devolve o usuário do token, do cache ou de {@code verifier}, que lança {@link UnauthorizedException} para
+	 * tokens inválidos.
+	 */
+	public AuthService.Principal authenticate(String token, Function<String, Verification> verifier) {
+		Digest digest = digest(token);
+		long now = clock.millis();
+
+		Verification cached = get(verified, digest);
+		if (cached != null) {
+			if (now < cached.expiresAtEpochSecond() * 1000) {
+				hits.increment();
+				return cached.principal();
+			}
+			remove(verified, digest, cached);
+		}
+		Rejection rejection = get(rejected, digest);
+		if (rejection != null) {
+			if (now < rejection.expiresAtMillis()) {
+				negativeHits.increment();
+				throw new UnauthorizedException(rejection.message());
+			}
+			remove(rejected, digest, rejection);
+		}
+
+		misses.increment();
+		Verification verification;
+		try {
+			verification = verifier.apply(token);
+		} catch (UnauthorizedException e) {
+			put(rejected, digest, new Rejection(e.getMessage(), now + rejectionTtlMillis));
+			throw e;
+		}
+		put(verified, digest, verification);
+		return verification.principal();
+	}
+
+	public Stats stats() {
+		return new Stats(hits.sum(), negativeHits.sum(), misses.sum(), size(verified), size(rejected));
+	}
+
+	private static <V> V get(Lru<V> cache, Digest digest) {
+		synchronized (cache) {
+			return cache.get(digest);
+		}
+	}
+
+	private static <V> void put(Lru<V> cache, Digest digest, V value) {
+		synchronized (cache) {
+			cache.put(digest, value);
+		}
+	}
+
+	private static <V> void remove(Lru<V> cache, Digest digest, V value) {
+		synchronized (cache) {
+			cache.remove(digest, value);
+		}
+	}
+
+	private static int size(Lru<?> cache) {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	private static Digest digest(String token) {
+		try {
+			ByteBuffer hash = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+					.digest(token.getBytes(StandardCharsets.UTF_8)));
+			return new Digest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
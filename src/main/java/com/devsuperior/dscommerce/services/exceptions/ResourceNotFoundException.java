@@ -0,0 +1,8 @@
+package com.devsuperior.dscommerce.services.exceptions;
+
+public class ResourceNotFoundException extends RuntimeException {
+
+	public ResourceNotFoundException(String msg) {
+		super(msg);
+	}
+}
@@ -0,0 +1,110 @@
+package com.devsuperior.dscommerce.config;
+
+import com.devsuperior.dscommerce.load.CompressionReport;
+import com.devsuperior.dscommerce.tests.AcceptEncoding;
+import com.devsuperior.dscommerce.tests.ApiServer;
+import com.devsuperior.dscommerce.tests.RequestSpecs;
+import com.devsuperior.dscommerce.tests.Resources;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.*;
+import static org.hamcrest.Matchers.*;
+
+// detalhes do CompressionFilter do servidor em memória, fora do contrato da API: pulados com -Ddscommerce.baseURI
+public class CompressionFilterRA {
+
+    // padrão de compression.min-size: abaixo disso o servidor não comprime
+    private static final int MIN_SIZE = 1024;
+
+    private RequestSpecification spec;
+
+    @BeforeAll
+    public static void requireEmbeddedServer() {
+        Assumptions.assumeTrue(ApiServer.embedded(), "CompressionFilter só no servidor em memória");
+    }
+
+    @BeforeEach
+    public void setUp() {
+        spec = RequestSpecs.api();
+    }
+
+    @Test
+    public void findByIdShouldNotCompressResponseBelowMinSize() {
+        given(spec)
+                .header("Accept-Encoding", AcceptEncoding.GZIP.header())
+                .get("/products/{id}", 2L)
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", nullValue())
+                .header("Server-Timing", containsString("cpu;dur="))
+                .body("id", is(2))
+                .body("name", equalTo("Smart TV"));
+    }
+
+    @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
+    public void findAllShouldCompressInRequestedEncodingWithVary() {
+        for (AcceptEncoding encoding : List.of(AcceptEncoding.GZIP, AcceptEncoding.DEFLATE)) {
+            given(spec)
+                    .header("Accept-Encoding", encoding.header())
+                    .get("/products?size=25")
+                    .then()
+                    .statusCode(200)
+                    .header("Content-Encoding", equalTo(encoding.contentEncoding()))
+                    .header("Vary", containsString("Accept-Encoding"));
+        }
+    }
+
+    @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
+    public void findAllShouldReturnNotModifiedWhenCompressedETagMatches() {
+        String etag = given(spec)
+                .header("Accept-Encoding", AcceptEncoding.GZIP.header())
+                .get("/products?size=25")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", equalTo("gzip"))
+                .header("ETag", startsWith("W/"))
+                .extract()
+                .header("ETag");
+
+        // ETag fraca: vale para a página comprimida e para a original
+        for (AcceptEncoding encoding : AcceptEncoding.values()) {
+            given(spec)
+                    .header("Accept-Encoding", encoding.header())
+                    .header("If-None-Match", etag)
+                    .get("/products?size=25")
+                    .then()
+                    .statusCode(304)
+                    .body(emptyString());
+        }
+    }
+
+    @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
+    public void compressionShouldStartAtMinSizeAndReportServerCpu() {
+        List<CompressionReport.Row> rows = new CompressionReport(2, 5).run(new int[]{1, 5, 25});
+
+        for (CompressionReport.Row row : rows) {
+            String expected = row.bodyBytes() >= MIN_SIZE ? row.encoding().contentEncoding() : null;
+            Assertions.assertEquals(expected, row.contentEncoding(), row.pageSize() + " " + row.encoding());
+            if (expected == null) {
+                Assertions.assertEquals(0.0, row.compressMicros());
+            } else {
+                // JSON repetitivo: a página comprimida fica bem menor
+                Assertions.assertTrue(row.ratio() < 0.5, "razão " + row.ratio());
+                Assertions.assertTrue(row.compressMicros() > 0);
+            }
+            Assertions.assertTrue(row.cpuMicros() >= row.compressMicros());
+        }
+    }
+}
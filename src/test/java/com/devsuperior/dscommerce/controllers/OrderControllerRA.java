@@ -1,10 +1,22 @@
 package com.devsuperior.dscommerce.controllers;
 
 
+import com.devsuperior.dscommerce.tests.ApiServer;
+import com.devsuperior.dscommerce.tests.LatencyBudget;
+import com.devsuperior.dscommerce.tests.RequestSpecs;
+import com.devsuperior.dscommerce.tests.Resources;
 import com.devsuperior.dscommerce.tests.TokenUtil;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.time.Duration;
 
 import static io.restassured.RestAssured.*;
 import static io.restassured.matcher.RestAssuredMatchers.*;
@@ -15,13 +27,16 @@ public class OrderControllerRA {
     private String clientUsername, clientPassword, adminUsername, adminPassword;
     private String clientToken, adminToken, invalidToken;
 
+    private RequestSpecification spec;
+
     private Long existingOrderId, nonExistingOrderId;
 
     @BeforeEach
     public void setUp() {
         //definição do endereço do endpoint da API que será testada
-        //a api deve estar sendo executada, projeto rodando
-        baseURI = "http://localhost:8080";
+        //sobe a api em memória, ou usa a informada em -Ddscommerce.baseURI
+        //especificação própria do teste, sem alterar o baseURI estático, para rodar em paralelo
+        spec = RequestSpecs.api();
 
         clientUsername = "maria@gmail.com";
         clientPassword="123456";
@@ -41,7 +56,7 @@ public class OrderControllerRA {
     public void findByIdShouldReturnOrderWhenIdExistisAndAdminLogged(){
         //1.	Busca de pedido por id retorna pedido existente quando logado como admin
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + adminToken)
                 .accept(ContentType.JSON)
@@ -58,12 +73,29 @@ public class OrderControllerRA {
                 .body("total", is(1431.0F));
     }
 
+    @Test
+    @ResourceLock(value = Resources.EXCLUSIVE, mode = ResourceAccessMode.READ_WRITE)
+    public void findByIdShouldRespondWithinLatencyBudgetWhenAdminLogged(){
+
+        LatencyBudget.of("GET /orders/{id}")
+                .percentile(50, Duration.ofMillis(100))
+                .percentile(99, Duration.ofMillis(250))
+                .samples(100)
+                .assertWithin(() -> given(spec)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .accept(ContentType.JSON)
+                        .get("/orders/{id}", existingOrderId)
+                        .then()
+                        .statusCode(200)
+                        .body("total", is(1431.0F)));
+    }
+
     @Test
     public void findByIdShouldReturnOrderWhenIdExistisAndClientLogged(){
         //2.	Busca de pedido por id retorna pedido existente
         // quando logado como cliente e o pedido pertence ao usuário
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + clientToken)
                 .accept(ContentType.JSON)
@@ -84,7 +116,7 @@ public class OrderControllerRA {
     public void findByIdShouldReturnForbiddenWhenIdExistisAndClientLoggedAndOrderDoesNotBelongUser403(){
         //3.	Busca de pedido por id retorna 403 quando pedido não pertence ao usuário
         Long otherOrderId = 2L;
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + clientToken)
                 .accept(ContentType.JSON)
@@ -98,7 +130,7 @@ public class OrderControllerRA {
     public void findByIdShouldReturnNotFoundWhenIdDoesNotExistisAndAdminLogged404(){
         //4.	Busca de pedido por id retorna 404 para pedido inexistente quando logado como admin
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + adminToken)
                 .accept(ContentType.JSON)
@@ -113,7 +145,7 @@ public class OrderControllerRA {
     public void findByIdShouldReturnNotFoundWhenIdDoesNotExistisAndClientLogged404(){
         //5.	Busca de pedido por id retorna 404 para pedido inexistente quando logado como cliente
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + clientToken)
                 .accept(ContentType.JSON)
@@ -128,7 +160,7 @@ public class OrderControllerRA {
     public void findByIdShouldReturnUnauthorizedWhenInvalidToken401(){
         //6.	Busca de pedido por id retorna 401 quando não logado como admin ou cliente
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + invalidToken)
                 .accept(ContentType.JSON)
@@ -138,4 +170,152 @@ public class OrderControllerRA {
                 .statusCode(401);
     }
 
+    @Test
+    public void findByIdShouldReuseVerifiedTokenWhenAdminLogged() {
+        Assumptions.assumeTrue(ApiServer.embedded(), "GET /oauth2/token/cache só existe no servidor em memória");
+        long hitsBefore = tokenCacheStats().getLong("hits");
+
+        for (int i = 0; i < 5; i++) {
+            given(spec)
+                    .header("Authorization", "Bearer " + adminToken)
+                    .get("/orders/{id}", existingOrderId)
+                    .then()
+                    .statusCode(200);
+        }
+
+        // a própria consulta das estatísticas também é autenticada pelo cache
+        Assertions.assertTrue(tokenCacheStats().getLong("hits") - hitsBefore >= 6);
+    }
+
+    @Test
+    public void findByIdShouldKeepUnauthorizedWhenRejectedTokenIsCached() {
+        Assumptions.assumeTrue(ApiServer.embedded(), "GET /oauth2/token/cache só existe no servidor em memória");
+        long negativeHitsBefore = tokenCacheStats().getLong("negativeHits");
+        // mesmo formato do token emitido, com a assinatura adulterada: só tokens bem formados chegam ao cache
+        int middle = adminToken.lastIndexOf('.') + 100;
+        String rejectedToken = adminToken.substring(0, middle) + (adminToken.charAt(middle) == 'A' ? 'B' : 'A')
+                + adminToken.substring(middle + 1);
+
+        for (int i = 0; i < 3; i++) {
+            given(spec)
+                    .header("Authorization", "Bearer " + rejectedToken)
+                    .get("/orders/{id}", existingOrderId)
+                    .then()
+                    .statusCode(401)
+                    .body("error", equalTo("Token inválido"));
+        }
+
+        Assertions.assertTrue(tokenCacheStats().getLong("negativeHits") - negativeHitsBefore >= 2);
+    }
+
+    // Problema 6: Inserir pedido
+    @Test
+    public void insertShouldReturnOrderCreatedWhenClientLogged() {
+        //1.	Inserção de pedido insere pedido com dados válidos quando logado como cliente
+
+        given(spec)
+                .header("Authorization", "Bearer " + clientToken)
+                .contentType(ContentType.JSON)
+                .accept(ContentType.JSON)
+                .body("{\"items\":[{\"productId\":1,\"quantity\":2},{\"productId\":5,\"quantity\":1}]}")
+           .when()
+                .post("/orders")
+           .then()
+                .statusCode(201)
+                .header("Location", containsString("/orders/"))
+                .body("id", notNullValue())
+                .body("status", is("WAITING_PAYMENT"))
+                .body("client.name", equalTo("Maria Brown"))
+                .body("payment", nullValue())
+                .body("items.name", hasItems("The Lord of the Rings", "Rails for Dummies"))
+                .body("items.price", hasItems(90.5F, 100.99F))
+                .body("total", is(281.99F));
+    }
+
+    @Test
+    public void insertShouldReturnUnprocessableEntityWhenClientLoggedAndOrderHasNoItem() {
+        //2.	Inserção de pedido retorna 422 quando o pedido não tem itens
+
+        given(spec)
+                .header("Authorization", "Bearer " + clientToken)
+                .contentType(ContentType.JSON)
+                .body("{\"items\":[]}")
+           .when()
+                .post("/orders")
+           .then()
+                .statusCode(422)
+                .body("errors.fieldName", hasItem("items"))
+                .body("errors.message", hasItem("Deve ter pelo menos um item"));
+    }
+
+    @Test
+    public void insertShouldReturnUnprocessableEntityWhenClientLoggedAndQuantityIsNotPositive() {
+        //3.	Inserção de pedido retorna 422 quando algum item tem quantidade zero ou negativa
+
+        given(spec)
+                .header("Authorization", "Bearer " + clientToken)
+                .contentType(ContentType.JSON)
+                .body("{\"items\":[{\"productId\":1,\"quantity\":0}]}")
+           .when()
+                .post("/orders")
+           .then()
+                .statusCode(422)
+                .body("errors.message", hasItem("A quantidade deve ser positiva"));
+    }
+
+    @Test
+    public void insertShouldReturnUnprocessableEntityWhenClientLoggedAndItemIsNull() {
+        //3.1	Inserção de pedido retorna 422 quando algum item é nulo
+
+        given(spec)
+                .header("Authorization", "Bearer " + clientToken)
+                .contentType(ContentType.JSON)
+                .body("{\"items\":[{\"productId\":1,\"quantity\":1},null]}")
+           .when()
+                .post("/orders")
+           .then()
+                .statusCode(422)
+                .body("errors.fieldName", hasItem("items[1]"))
+                .body("errors.message", hasItem("Campo requerido"));
+    }
+
+    @Test
+    public void insertShouldReturnNotFoundWhenClientLoggedAndProductDoesNotExist() {
+        //4.	Inserção de pedido retorna 404 quando algum produto não existe
+
+        given(spec)
+                .header("Authorization", "Bearer " + clientToken)
+                .contentType(ContentType.JSON)
+                .body("{\"items\":[{\"productId\":1000,\"quantity\":1}]}")
+           .when()
+                .post("/orders")
+           .then()
+                .statusCode(404)
+                .body("error", equalTo("Recurso não encontrado"));
+    }
+
+    @Test
+    public void insertShouldReturnUnauthorizedWhenInvalidToken() {
+        //5.	Inserção de pedido retorna 401 quando não logado como cliente
+
+        given(spec)
+                .header("Authorization", "Bearer " + invalidToken)
+                .contentType(ContentType.JSON)
+                .body("{\"items\":[{\"productId\":1,\"quantity\":1}]}")
+           .when()
+                .post("/orders")
+           .then()
+                .statusCode(401);
+    }
+
+    private JsonPath tokenCacheStats() {
+        return given(spec)
+                .header("Authorization", "Bearer " + adminToken)
+                .get("/oauth2/token/cache")
+                .then()
+                .statusCode(200)
+                .extract()
+                .jsonPath();
+    }
+
 }
@@ -1,15 +1,26 @@
 package com.devsuperior.dscommerce.controllers;
 
+import com.devsuperior.dscommerce.tests.AcceptEncoding;
+import com.devsuperior.dscommerce.tests.ApiServer;
+import com.devsuperior.dscommerce.tests.LatencyBudget;
+import com.devsuperior.dscommerce.tests.PayloadTemplate;
+import com.devsuperior.dscommerce.tests.Payloads;
+import com.devsuperior.dscommerce.tests.ProductPageStreamMatcher;
+import com.devsuperior.dscommerce.tests.RequestSpecs;
+import com.devsuperior.dscommerce.tests.Resources;
 import com.devsuperior.dscommerce.tests.TokenUtil;
 import io.restassured.http.ContentType;
-import org.json.simple.JSONObject;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
 
 import static io.restassured.RestAssured.*;
 import static io.restassured.matcher.RestAssuredMatchers.*;
@@ -20,18 +31,21 @@ public class ProductControllerRA {
     private String clientUsername, clientPassword, adminUsername, adminPassword;
     private String clientToken, adminToken, invalidToken;
 
+    private RequestSpecification spec;
+
     private Long existingProductId, nonExistingProductId, dependentProductId;
     private String productName;
 
     //para inserir produto
-    private Map<String, Object> postProductInstance;
+    private PayloadTemplate.Instance postProductInstance;
 
 
     @BeforeEach
     public void setUp() {
         //definição do endereço do endpoint da API que será testada
-        //a api deve estar sendo executada, projeto rodando
-        baseURI = "http://localhost:8080";
+        //sobe a api em memória, ou usa a informada em -Ddscommerce.baseURI
+        //especificação própria do teste, sem alterar o baseURI estático, para rodar em paralelo
+        spec = RequestSpecs.api();
 
         clientUsername = "maria@gmail.com";
         clientPassword="123456";
@@ -44,27 +58,8 @@ public class ProductControllerRA {
 
         productName = "Macbook";
 
-        //para adicionar um novo produto
-        postProductInstance = new HashMap<>();
-        postProductInstance.put("name", "Meu produto");
-        postProductInstance.put("description", "Lorem ipsum, dolor sit amet consectetur adipisicing elit. Qui ad, adipisci illum ipsam velit et odit eaque reprehenderit ex maxime delectus dolore labore, quisquam quae tempora natus esse aliquam veniam doloremque quam minima culpa alias maiores commodi. Perferendis enim");
-        postProductInstance.put("imgUrl", "https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/1-big.jpg");
-        postProductInstance.put("price", 50.0);
-
-        //para adicionar categorias ao produto
-        List<Map<String, Object>> categories = new ArrayList<>();
-
-        Map<String, Object> category1 = new HashMap<>();
-        category1.put("id", 2);
-
-        Map<String, Object> category2 = new HashMap<>();
-        category2.put("id", 3);
-
-        categories.add(category1);
-        categories.add(category2);
-
-        postProductInstance.put("categories", categories);
-
+        //para adicionar um novo produto: corpo JSON pré-codificado, só os campos alterados são reescritos
+        postProductInstance = Payloads.NEW_PRODUCT.newInstance();
     }
 
     // Problema 2: Consultar produtos
@@ -72,7 +67,7 @@ public class ProductControllerRA {
     public void findByIdShouldReturnProductWhenIdExists() {
         existingProductId = 2L;
 
-        given()
+        given(spec)
                 .get("/products/{id}", existingProductId)
                 .then()
                 .statusCode(200)
@@ -86,9 +81,10 @@ public class ProductControllerRA {
     }
 
     @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
     public void findAllShouldReturnPageProductsWhenProductNameIsEmpty() {
 
-        given()
+        given(spec)
                 .get("/products?page=0")
                 .then()
                 .statusCode(200)
@@ -97,9 +93,10 @@ public class ProductControllerRA {
     }
 
     @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
     public void findAllShouldReturnPageProductsWhenProductNameIsNotEmpty() {
 
-        given()
+        given(spec)
                 .get("/products?name={productName}", productName)
                 .then()
                 .statusCode(200)
@@ -111,9 +108,10 @@ public class ProductControllerRA {
     }
 
     @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
     public void findAllShouldReturnPagedProductsWithPriceGreaterThan2000() {
 
-        given()
+        given(spec)
                 .get("/products?size=25")
                 .then()
                 .statusCode(200)
@@ -121,14 +119,181 @@ public class ProductControllerRA {
                 );
     }
 
+    @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
+    public void findAllShouldStreamPagedProductsWithPriceGreaterThan2000() {
+        // mesma verificação do teste anterior, lendo o corpo item a item em vez de montar a página com GPath
+
+        ProductPageStreamMatcher.Result result = ProductPageStreamMatcher.content()
+                .namesWhere("price > 2000", item -> item.price() > 2000,
+                        List.of("Smart TV", "PC Gamer Hera", "PC Gamer Weed"))
+                .everyItem("price > 0", item -> item.price() > 0)
+                .idsAscending()
+                .verify(given(RequestSpecs.streaming())
+                        .get("/products?size=25")
+                        .then()
+                        .statusCode(200)
+                        .extract()
+                        .asInputStream());
+
+        Assertions.assertTrue(result.items() > 0);
+    }
+
+    @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
+    public void findAllShouldReturnSameProductsWhenResponseIsCompressed() {
+        String identity = given(spec)
+                .header("Accept-Encoding", AcceptEncoding.IDENTITY.header())
+                .get("/products?size=25")
+                .then()
+                .statusCode(200)
+                .extract()
+                .asString();
+
+        // mesmas verificações da página sem compressão, sobre o corpo descomprimido pelo RestAssured
+        for (AcceptEncoding encoding : List.of(AcceptEncoding.GZIP, AcceptEncoding.DEFLATE)) {
+            String body = given(spec)
+                    .header("Accept-Encoding", encoding.header())
+                    .get("/products?size=25")
+                    .then()
+                    .statusCode(200)
+                    .body("content.findAll {it.price > 2000}.name", hasItems("Smart TV", "PC Gamer Hera", "PC Gamer Weed"))
+                    .extract()
+                    .asString();
+            Assertions.assertEquals(identity, body, encoding.name());
+        }
+    }
+
+    @Test
+    @ResourceLock(value = Resources.EXCLUSIVE, mode = ResourceAccessMode.READ_WRITE)
+    public void findByIdShouldRespondWithinLatencyBudget() {
+        existingProductId = 2L;
+
+        LatencyBudget.of("GET /products/{id}")
+                .percentile(50, Duration.ofMillis(100))
+                .percentile(99, Duration.ofMillis(250))
+                .samples(100)
+                .assertWithin(() -> given(spec)
+                        .get("/products/{id}", existingProductId)
+                        .then()
+                        .statusCode(200)
+                        .body("id", is(2)));
+    }
+
+    @Test
+    @ResourceLock(value = Resources.EXCLUSIVE, mode = ResourceAccessMode.READ_WRITE)
+    public void findAllShouldRespondWithinLatencyBudget() {
+
+        LatencyBudget.of("GET /products")
+                .percentile(50, Duration.ofMillis(100))
+                .percentile(99, Duration.ofMillis(250))
+                .samples(100)
+                .assertWithin(() -> given(spec)
+                        .get("/products?page=0")
+                        .then()
+                        .statusCode(200)
+                        .body("content.name", hasItems("Macbook Pro", "PC Gamer Tera")));
+    }
+
+    @Test
+    public void findByIdShouldReturnNotModifiedWhenETagMatches() {
+        Assumptions.assumeTrue(ApiServer.embedded(), "ETag só no servidor em memória");
+        existingProductId = 2L;
+
+        String etag = given(spec)
+                .get("/products/{id}", existingProductId)
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .extract()
+                .header("ETag");
+
+        given(spec)
+                .header("If-None-Match", etag)
+                .get("/products/{id}", existingProductId)
+                .then()
+                .statusCode(304)
+                .header("ETag", equalTo(etag))
+                .body(emptyString());
+    }
+
+    @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
+    public void findAllShouldReturnNotModifiedWhenETagMatches() {
+        Assumptions.assumeTrue(ApiServer.embedded(), "ETag só no servidor em memória");
+        String etag = given(spec)
+                .get("/products?page=0")
+                .then()
+                .statusCode(200)
+                .extract()
+                .header("ETag");
+
+        given(spec)
+                .header("If-None-Match", etag)
+                .get("/products?page=0")
+                .then()
+                .statusCode(304)
+                .body(emptyString());
+
+        // ETag de outra representação não vale
+        given(spec)
+                .header("If-None-Match", etag)
+                .get("/products?page=1")
+                .then()
+                .statusCode(200);
+    }
+
+    @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ_WRITE)
+    public void findAllETagShouldChangeAfterInsertAndDelete() {
+        Assumptions.assumeTrue(ApiServer.embedded(), "ETag só no servidor em memória");
+        String original = given(spec).get("/products?page=0").then().statusCode(200).extract().header("ETag");
+
+        String location = given(spec)
+                .header("Authorization", "Bearer " + adminToken)
+                .body(postProductInstance.toBytes())
+                .contentType(ContentType.JSON)
+                .post("/products")
+                .then()
+                .statusCode(201)
+                .extract()
+                .header("Location");
+        String afterInsert = given(spec)
+                .header("If-None-Match", original)
+                .get("/products?page=0")
+                .then()
+                .statusCode(200)
+                .extract()
+                .header("ETag");
+
+        given(spec)
+                .header("Authorization", "Bearer " + adminToken)
+                .delete("/products/{id}", location.substring(location.lastIndexOf('/') + 1))
+                .then()
+                .statusCode(204);
+        String afterDelete = given(spec)
+                .header("If-None-Match", afterInsert)
+                .get("/products?page=0")
+                .then()
+                .statusCode(200)
+                .extract()
+                .header("ETag");
+
+        Assertions.assertNotEquals(original, afterInsert);
+        Assertions.assertNotEquals(afterInsert, afterDelete);
+        // ETag forte vem do conteúdo: a página voltou a ser a mesma
+        Assertions.assertEquals(original, afterDelete);
+    }
+
     //Problema 3: Inserir produto
     @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ_WRITE)
     public void insertShouldReturnProductCreatedWhenAdminLogged201() {
         // 1.	Inserção de produto insere produto com dados válidos quando logado como admin
-        //converte o objeto postProductInstance em objeto JSON
-        JSONObject newProduct = new JSONObject(postProductInstance);  // biblioteca json-simple
+        //bytes do corpo JSON a partir do template
+        byte[] newProduct = postProductInstance.toBytes();
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + adminToken)
                 .body(newProduct)
@@ -150,12 +315,12 @@ public class ProductControllerRA {
         // quando logado como admin e campo name for inválido
 
         //atualizando o nome do produto para 2 caracteres
-        postProductInstance.put("name", "ab");
+        postProductInstance.set("name", "ab");
 
-        //converte o objeto postProductInstance em objeto JSON
-        JSONObject newProduct = new JSONObject(postProductInstance);  // biblioteca json-simple
+        //bytes do corpo JSON a partir do template
+        byte[] newProduct = postProductInstance.toBytes();
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + adminToken)
                 .body(newProduct)
@@ -174,12 +339,12 @@ public class ProductControllerRA {
         // quando logado como admin e campo description for inválido
 
         //atualizando
-        postProductInstance.put("description", "Lorem");
+        postProductInstance.set("description", "Lorem");
 
-        //converte o objeto postProductInstance em objeto JSON
-        JSONObject newProduct = new JSONObject(postProductInstance);  // biblioteca json-simple
+        //bytes do corpo JSON a partir do template
+        byte[] newProduct = postProductInstance.toBytes();
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + adminToken)
                 .body(newProduct)
@@ -198,12 +363,12 @@ public class ProductControllerRA {
         // quando logado como admin e campo price for negativo
 
         //atualizando
-        postProductInstance.put("price", -50.0F);
+        postProductInstance.set("price", -50.0);
 
-        //converte o objeto postProductInstance em objeto JSON
-        JSONObject newProduct = new JSONObject(postProductInstance);  // biblioteca json-simple
+        //bytes do corpo JSON a partir do template
+        byte[] newProduct = postProductInstance.toBytes();
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + adminToken)
                 .body(newProduct)
@@ -222,12 +387,12 @@ public class ProductControllerRA {
         // quando logado como admin e campo price for zero
 
         //atualizando
-        postProductInstance.put("price", 0.0);
+        postProductInstance.set("price", 0.0);
 
-        //converte o objeto postProductInstance em objeto JSON
-        JSONObject newProduct = new JSONObject(postProductInstance);  // biblioteca json-simple
+        //bytes do corpo JSON a partir do template
+        byte[] newProduct = postProductInstance.toBytes();
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + adminToken)
                 .body(newProduct)
@@ -246,12 +411,12 @@ public class ProductControllerRA {
         // quando logado como admin e não tiver categoria associada
 
         //atualizando
-        postProductInstance.put("categories", null);
+        postProductInstance.setNull("categories");
 
-        //converte o objeto postProductInstance em objeto JSON
-        JSONObject newProduct = new JSONObject(postProductInstance);  // biblioteca json-simple
+        //bytes do corpo JSON a partir do template
+        byte[] newProduct = postProductInstance.toBytes();
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + adminToken)
                 .body(newProduct)
@@ -264,14 +429,33 @@ public class ProductControllerRA {
                 .body("errors.message[0]", equalTo("Deve ter pelo menos uma categoria"));
     }
 
+    @Test
+    public void insertShouldReturnUnprocessableEntityWhenAdminLoggedAndCategoryHasNoId422() {
+        // 6.1	Inserção de produto retorna 422 quando alguma categoria não tem id
+
+        postProductInstance.setRaw(Payloads.NEW_PRODUCT.slot("categories"),
+                "[{\"id\":2},{\"name\":\"x\"}]".getBytes(StandardCharsets.UTF_8));
+
+        given(spec)
+                .header("Authorization", "Bearer " + adminToken)
+                .body(postProductInstance.toBytes())
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/products")
+                .then()
+                .statusCode(422)
+                .body("errors.fieldName", hasItem("categories[1].id"))
+                .body("errors.message", hasItem("Campo requerido"));
+    }
+
     @Test
     public void insertShouldReturnForbiddenWhenClientLogged403() {
         // 7.	Inserção de produto retorna 403 quando logado como cliente
 
-        //converte o objeto postProductInstance em objeto JSON
-        JSONObject newProduct = new JSONObject(postProductInstance);  // biblioteca json-simple
+        //bytes do corpo JSON a partir do template
+        byte[] newProduct = postProductInstance.toBytes();
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + clientToken)
                 .body(newProduct)
@@ -287,10 +471,10 @@ public class ProductControllerRA {
     public void insertShouldReturnUnauthorizedWhenInvalidToken401() {
         // 8.	Inserção de produto retorna 401 quando não logado como admin ou cliente
 
-        //converte o objeto postProductInstance em objeto JSON
-       JSONObject newProduct = new JSONObject(postProductInstance);  // biblioteca json-simple
+        //bytes do corpo JSON a partir do template
+        byte[] newProduct = postProductInstance.toBytes();
 
-        given()
+        given(spec)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + invalidToken)
                 .body(newProduct)
@@ -305,12 +489,13 @@ public class ProductControllerRA {
     // Problema 4: Deletar produto
 
     @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ_WRITE)
     public void deleteShouldReturnNoContentWhenIdExistsAndAdminLogged204() {
         // 1.	Deleção de produto deleta produto existente quando logado como admin
 
         existingProductId = 25L;
 
-        given()
+        given(spec)
                 .header("Authorization", "Bearer " + adminToken)
                 .when()
                 .delete("/products/{id}", existingProductId)
@@ -323,7 +508,7 @@ public class ProductControllerRA {
         // 2.	Deleção de produto retorna 404 para produto inexistente quando logado como admin
 
         nonExistingProductId = 100L;
-        given()
+        given(spec)
                 .header("Authorization", "Bearer " + adminToken)
                 .when()
                 .delete("/products/{id}", nonExistingProductId)
@@ -338,7 +523,7 @@ public class ProductControllerRA {
         // 3.	Deleção de produto retorna 400 para produto dependente quando logado como admin
 
         dependentProductId = 3L;
-        given()
+        given(spec)
                 .header("Authorization", "Bearer " + adminToken)
                 .when()
                 .delete("/products/{id}", dependentProductId)
@@ -351,7 +536,7 @@ public class ProductControllerRA {
         // 4.	Deleção de produto retorna 403 quando logado como cliente
 
         existingProductId = 1L;
-        given()
+        given(spec)
                 .header("Authorization", "Bearer " + clientToken)
                 .when()
                 .delete("/products/{id}", existingProductId)
@@ -364,7 +549,7 @@ public class ProductControllerRA {
         // 5.	Deleção de produto retorna 401 quando não logado como admin ou clientee
 
         existingProductId = 1L;
-        given()
+        given(spec)
                 .header("Authorization", "Bearer " + invalidToken)
                 .when()
                 .delete("/products/{id}", existingProductId)
@@ -0,0 +1,264 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.ProductPageStreamMatcher;
+import com.devsuperior.dscommerce.tests.RequestSpecs;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.opentest4j.AssertionFailedError;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static io.restassured.RestAssured.*;
+
+/**
+ * Percorre todas as páginas de {@code GET /products}, com até {@code concurrency} páginas em paralelo, e confere a
+ * consistência da paginação:
+ * <ul>
+ *     <li>todas as páginas informam o mesmo {@code totalElements};</li>
+ *     <li>cada página tem {@code size} itens, exceto a última;</li>
+ *     <li>os ids crescem dentro de cada página e de uma página para a seguinte (sem sobreposição);</li>
+ *     <li>a soma dos itens é igual a {@code totalElements} (nenhum item pulado).</li>
+ * </ul>
+ * A primeira página é buscada sozinha para descobrir o total; as demais são lidas em streaming, guardando só os ids.
+ */
+public class CatalogCrawler {
+
+    /**
+     * @param problems inconsistências encontradas; vazia se a paginação está correta
+     */
+    public record Report(String name, int pageSize, int concurrency, int pages, long items, long totalElements,
+                         long bytes, Duration elapsed, List<String> problems) {
+
+        public boolean consistent() {
+            return problems.isEmpty();
+        }
+
+        public double pagesPerSecond() {
+            return pages / seconds();
+        }
+
+        public double bytesPerSecond() {
+            return bytes / seconds();
+        }
+
+        private double seconds() {
+            return Math.max(elapsed.toNanos(), 1) / 1e9;
+        }
+
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "Catálogo%s: %d páginas de %d, %d itens de %d, %d em paralelo%n",
+                    name.isEmpty() ? "" : " (name=" + name + ")", pages, pageSize, items, totalElements,
+                    concurrency));
+            sb.append(String.format(Locale.ROOT, "%.1f s, %.1f páginas/s, %.1f KiB/s%n", seconds(),
+                    pagesPerSecond(), bytesPerSecond() / 1024));
+            for (String problem : problems) {
+                sb.append("  ").append(problem).append(System.lineSeparator());
+            }
+            return sb.toString();
+        }
+    }
+
+    private record Page(int number, int status, long totalElements, long[] ids, long bytes, String error) {
+    }
+
+    private static final int MAX_REPORTED_PROBLEMS = 20;
+
+    private final RequestSpecification spec;
+
+    public CatalogCrawler() {
+        this(RequestSpecs.streaming());
+    }
+
+    public CatalogCrawler(RequestSpecification spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * @param name filtro de nome, ou vazio para o catálogo inteiro
+     */
+    public Report crawl(String name, int pageSize, int concurrency) {
+        if (pageSize <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("Tamanho de página e concorrência devem ser positivos");
+        }
+        long start = System.nanoTime();
+        Page first = fetch(name, 0, pageSize);
+        int totalPages = first.status() == 200
+                ? (int) Math.max(1, (first.totalElements() + pageSize - 1) / pageSize)
+                : 1;
+
+        AtomicReferenceArray<Page> pages = new AtomicReferenceArray<>(totalPages);
+        pages.set(0, first);
+        Semaphore inFlight = new Semaphore(concurrency);
+        ExecutorService executor = LoadThreads.newPerTaskExecutor("crawler");
+        try {
+            for (int p = 1; p < totalPages; p++) {
+                int number = p;
+                inFlight.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        pages.set(number, fetch(name, number, pageSize));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            // espera as últimas páginas
+            inFlight.acquireUninterruptibly(concurrency);
+        } finally {
+            executor.shutdown();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        return check(name, pageSize, concurrency, first.totalElements(), pages, elapsed);
+    }
+
+    private Report check(String name, int pageSize, int concurrency, long totalElements,
+                         AtomicReferenceArray<Page> pages, Duration elapsed) {
+        List<String> problems = new ArrayList<>();
+        long items = 0;
+        long bytes = 0;
+        long previousId = Long.MIN_VALUE;
+        int totalPages = pages.length();
+        for (int p = 0; p < totalPages; p++) {
+            Page page = pages.get(p);
+            bytes += page.bytes();
+            if (page.error() != null) {
+                problems.add("página " + p + ": " + page.error());
+                continue;
+            }
+            if (page.totalElements() != totalElements) {
+                problems.add("página " + p + ": totalElements " + page.totalElements() + " diferente de "
+                        + totalElements + " da primeira página");
+            }
+            long expectedSize = p < totalPages - 1 ? pageSize : totalElements - (long) (totalPages - 1) * pageSize;
+            if (page.ids().length != expectedSize) {
+                problems.add("página " + p + ": " + page.ids().length + " itens, esperado " + expectedSize);
+            }
+            if (page.ids().length > 0) {
+                if (page.ids()[0] <= previousId) {
+                    problems.add("página " + p + ": id " + page.ids()[0] + " não é maior que o último da página "
+                            + "anterior (" + previousId + ")");
+                }
+                previousId = page.ids()[page.ids().length - 1];
+            }
+            items += page.ids().length;
+        }
+        if (items != totalElements) {
+            problems.add(items + " itens lidos, mas totalElements é " + totalElements);
+        }
+        if (problems.size() > MAX_REPORTED_PROBLEMS) {
+            int omitted = problems.size() - MAX_REPORTED_PROBLEMS;
+            problems = new ArrayList<>(problems.subList(0, MAX_REPORTED_PROBLEMS));
+            problems.add("... e mais " + omitted);
+        }
+        return new Report(name, pageSize, concurrency, totalPages, items, totalElements, bytes, elapsed,
+                Collections.unmodifiableList(problems));
+    }
+
+    private Page fetch(String name, int number, int pageSize) {
+        CountingInputStream body = null;
+        try {
+            RequestSpecification request = given(spec).queryParam("page", number).queryParam("size", pageSize);
+            if (!name.isEmpty()) {
+                request.queryParam("name", name);
+            }
+            Response response = request.get("/products");
+            body = new CountingInputStream(response.asInputStream());
+            if (response.statusCode() != 200) {
+                try (InputStream in = body) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+                return new Page(number, response.statusCode(), -1, new long[0], body.count,
+                        "status " + response.statusCode());
+            }
+            IdBuffer ids = new IdBuffer(Math.min(pageSize, 1024));
+            ProductPageStreamMatcher.Result result = ProductPageStreamMatcher.content()
+                    .idsAscending()
+                    .forEachItem(item -> ids.add(item.id()))
+                    .verify(body);
+            return new Page(number, 200, result.totalElements(), ids.toArray(), body.count, null);
+        } catch (AssertionFailedError | RuntimeException | IOException e) {
+            return new Page(number, -1, -1, new long[0], body == null ? 0 : body.count, e.getMessage());
+        }
+    }
+
+    private static final class IdBuffer {
+        long[] ids;
+        int size;
+
+        IdBuffer(int capacity) {
+            ids = new long[Math.max(capacity, 1)];
+        }
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Execução pela linha de comando, por exemplo:
+     * <pre>
+     * mvn test-compile exec:java -Dexec.classpathScope=test \
+     *     -Dexec.mainClass=com.devsuperior.dscommerce.load.CatalogCrawler \
+     *     -Dcrawl.size=100 -Dcrawl.concurrency=16 -Ddscommerce.baseURI=http://localhost:8080
+     * </pre>
+     */
+    public static void main(String[] args) {
+        Report report = new CatalogCrawler().crawl(System.getProperty("crawl.name", ""),
+                Integer.getInteger("crawl.size", 100), Integer.getInteger("crawl.concurrency", 16));
+        System.out.print(report.format());
+        System.exit(report.consistent() ? 0 : 1);
+    }
+}
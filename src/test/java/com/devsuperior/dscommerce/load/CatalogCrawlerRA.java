@@ -0,0 +1,41 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.Resources;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+// inserções e exclusões durante a varredura mudariam o totalElements entre as páginas
+@ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
+public class CatalogCrawlerRA {
+
+    @Test
+    public void crawlShouldVisitWholeCatalogWithoutOverlapOrSkips() {
+        CatalogCrawler.Report report = new CatalogCrawler().crawl("", 4, 4);
+
+        System.out.print(report.format());
+        Assertions.assertTrue(report.consistent(), report.format());
+        Assertions.assertTrue(report.totalElements() >= 25);
+        Assertions.assertEquals(report.totalElements(), report.items());
+        Assertions.assertEquals((report.totalElements() + 3) / 4, report.pages());
+        Assertions.assertTrue(report.bytes() > 0);
+    }
+
+    @Test
+    public void crawlShouldVisitOnlyProductsMatchingName() {
+        CatalogCrawler.Report report = new CatalogCrawler().crawl("pc gamer", 2, 3);
+
+        Assertions.assertTrue(report.consistent(), report.format());
+        Assertions.assertTrue(report.items() >= 2);
+        Assertions.assertEquals(report.totalElements(), report.items());
+    }
+
+    @Test
+    public void crawlShouldReportSinglePageWhenPageSizeExceedsCatalog() {
+        CatalogCrawler.Report report = new CatalogCrawler().crawl("", 1_000, 8);
+
+        Assertions.assertTrue(report.consistent(), report.format());
+        Assertions.assertEquals(1, report.pages());
+    }
+}
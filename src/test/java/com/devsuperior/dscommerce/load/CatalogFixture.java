@@ -0,0 +1,170 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.PayloadTemplate;
+import com.devsuperior.dscommerce.tests.Payloads;
+import com.devsuperior.dscommerce.tests.RequestSpecs;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.restassured.RestAssured.*;
+
+/**
+ * Produtos sintéticos inseridos pela API, em massa, para medir a busca por nome com catálogos grandes.
+ * <p>
+ * Os inserts saem em lotes de {@code window} requisições em paralelo pelo pool keep-alive. O executor cria uma
+ * thread por tarefa, então os {@link PayloadTemplate.Instance} ficam num pool de {@code window} instâncias, uma por
+ * requisição em andamento, em vez de um por thread. A API só aceita um produto por {@code POST /products} e o cliente HTTP não
+ * faz pipelining, então a janela de requisições em andamento faz esse papel. {@link #close()} apaga tudo o que
+ * foi inserido.
+ * <p>
+ * Os nomes combinam palavras de um vocabulário fixo com sementes determinísticas, então cada termo tem
+ * seletividade conhecida: {@value #COMMON_TERM} aparece em todos, {@value #RARE_TERM} em 1 de cada 1000.
+ */
+public class CatalogFixture implements AutoCloseable {
+
+    public static final String COMMON_TERM = "Fixture";
+    public static final String RARE_TERM = "Raro";
+
+    private static final String[] BRANDS = {"Acme", "Orion", "Vega", "Lyra", "Nova", "Atlas", "Titan", "Zeta"};
+    private static final String[] KINDS = {"Notebook", "Monitor", "Teclado", "Mouse", "Cadeira", "Livro",
+            "Headset", "Webcam", "Tablet", "Roteador"};
+
+    private final RequestSpecification spec;
+    private final String adminToken;
+    private final int window;
+    private long[] ids = new long[0];
+    private int size;
+
+    public CatalogFixture(int window) {
+        this(RequestSpecs.api(), Scenarios.token(Scenario.Login.ADMIN), window);
+    }
+
+    public CatalogFixture(RequestSpecification spec, String adminToken, int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Janela deve ser positiva");
+        }
+        this.spec = spec;
+        this.adminToken = adminToken;
+        this.window = window;
+    }
+
+    /** Quantidade de produtos inseridos e ainda não apagados. */
+    public int size() {
+        return size;
+    }
+
+    /** Insere produtos até o fixture ter {@code target} itens. */
+    public void growTo(int target) {
+        if (target <= size) {
+            return;
+        }
+        int first = size;
+        long[] created = Arrays.copyOf(ids, target);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        BlockingQueue<PayloadTemplate.Instance> bodies = new ArrayBlockingQueue<>(window);
+        for (int i = 0; i < window; i++) {
+            bodies.add(Payloads.NEW_PRODUCT.newInstance());
+        }
+        int nameSlot = Payloads.NEW_PRODUCT.slot("name");
+        int priceSlot = Payloads.NEW_PRODUCT.slot("price");
+        runWindowed(first, target, failure, i -> {
+            // a janela limita as tarefas em andamento a window, então sempre há uma instância livre
+            PayloadTemplate.Instance body = bodies.remove();
+            Response response;
+            try {
+                response = given(spec)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(ContentType.JSON)
+                        .body(body.set(nameSlot, name(i)).set(priceSlot, price(i)).toBytes())
+                        .post("/products");
+            } finally {
+                bodies.add(body);
+            }
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("POST /products retornou " + response.statusCode() + ": "
+                        + response.asString());
+            }
+            String location = response.header("Location");
+            created[i] = Long.parseLong(location.substring(location.lastIndexOf('/') + 1));
+        });
+        ids = created;
+        size = target;
+        if (failure.get() != null) {
+            // apaga o que entrou antes de propagar a falha
+            close();
+            throw failure.get();
+        }
+    }
+
+    /** Apaga todos os produtos inseridos. */
+    @Override
+    public void close() {
+        long[] toDelete = ids;
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        runWindowed(0, size, failure, i -> {
+            if (toDelete[i] == 0) {
+                return;
+            }
+            int status = given(spec)
+                    .header("Authorization", "Bearer " + adminToken)
+                    .delete("/products/{id}", toDelete[i])
+                    .statusCode();
+            if (status != 204 && status != 404) {
+                throw new IllegalStateException("DELETE /products/" + toDelete[i] + " retornou " + status);
+            }
+        });
+        ids = new long[0];
+        size = 0;
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /** Nome do produto de índice {@code i}: sempre contém {@value #COMMON_TERM}. */
+    public static String name(int i) {
+        SplittableRandom random = new SplittableRandom(i);
+        String name = COMMON_TERM + " " + BRANDS[random.nextInt(BRANDS.length)] + " "
+                + KINDS[random.nextInt(KINDS.length)] + " " + i;
+        return i % 1000 == 999 ? name + " " + RARE_TERM : name;
+    }
+
+    private static double price(int i) {
+        return 10 + (i % 5000);
+    }
+
+    private interface Task {
+        void run(int index);
+    }
+
+    private void runWindowed(int from, int to, AtomicReference<RuntimeException> failure, Task task) {
+        Semaphore inFlight = new Semaphore(window);
+        ExecutorService executor = LoadThreads.newPerTaskExecutor("fixture");
+        try {
+            for (int i = from; i < to && failure.get() == null; i++) {
+                int index = i;
+                inFlight.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        task.run(index);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquireUninterruptibly(window);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.AcceptEncoding;
+import com.devsuperior.dscommerce.tests.RequestSpecs;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.*;
+
+/**
+ * Custo e ganho da compressão das respostas em {@code GET /products?size=}, para cada tamanho de página e cada
+ * {@link AcceptEncoding}: bytes no fio, tempo de CPU do servidor e latência de ponta a ponta.
+ * <p>
+ * Os bytes no fio são o {@code Content-Length} da resposta, antes da descompressão feita pelo RestAssured; a CPU vem
+ * do header {@code Server-Timing} ({@code cpu} da requisição inteira e {@code compress} da compressão) e fica
+ * {@code NaN} contra um servidor que não o envia. A latência inclui a descompressão no cliente. Antes de medir, o
+ * corpo descomprimido de cada codificação é comparado com o sem compressão.
+ */
+public class CompressionReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    /**
+     * @param contentEncoding  {@code Content-Encoding} recebido, ou {@code null}
+     * @param bodyBytes        tamanho do corpo descomprimido
+     * @param wireBytes        tamanho do corpo como trafegou
+     * @param cpuMicros        média do tempo de CPU do servidor por requisição, em microssegundos
+     * @param compressMicros   média da parte desse tempo gasta comprimindo
+     * @param latencyMicros    latências, em microssegundos
+     */
+    public record Row(int pageSize, AcceptEncoding encoding, String contentEncoding, int bodyBytes, long wireBytes,
+                      double cpuMicros, double compressMicros, Histogram latencyMicros) {
+
+        public double ratio() {
+            return bodyBytes == 0 ? 1.0 : (double) wireBytes / bodyBytes;
+        }
+
+        public double percentileMillis(double percentile) {
+            return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    private final RequestSpecification spec;
+    private final int warmup;
+    private final int samples;
+
+    public CompressionReport(int warmup, int samples) {
+        this(RequestSpecs.api(), warmup, samples);
+    }
+
+    public CompressionReport(RequestSpecification spec, int warmup, int samples) {
+        this.spec = spec;
+        this.warmup = warmup;
+        this.samples = samples;
+    }
+
+    public List<Row> run(int[] pageSizes) {
+        List<Row> rows = new ArrayList<>();
+        for (int size : pageSizes) {
+            String identity = get(size, AcceptEncoding.IDENTITY).asString();
+            for (AcceptEncoding encoding : AcceptEncoding.values()) {
+                String body = get(size, encoding).asString();
+                if (!body.equals(identity)) {
+                    throw new IllegalStateException("Página de " + size + " em " + encoding
+                            + " difere da resposta sem compressão");
+                }
+                rows.add(measure(size, encoding));
+            }
+        }
+        return rows;
+    }
+
+    private Row measure(int size, AcceptEncoding encoding) {
+        for (int i = 0; i < warmup; i++) {
+            get(size, encoding);
+        }
+        Histogram histogram = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        double cpuMicros = 0;
+        double compressMicros = 0;
+        Response response = null;
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            response = get(size, encoding);
+            long micros = (System.nanoTime() - start) / 1000;
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Página de " + size + " retornou " + response.statusCode());
+            }
+            histogram.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            String timing = response.header("Server-Timing");
+            cpuMicros += serverTimingMillis(timing, "cpu") * 1000;
+            compressMicros += serverTimingMillis(timing, "compress") * 1000;
+        }
+        return new Row(size, encoding, response.header("Content-Encoding"), response.asByteArray().length,
+                wireBytes(response), cpuMicros / samples, compressMicros / samples, histogram);
+    }
+
+    /** Tamanho do corpo como trafegou: o {@code Content-Length}, ou -1 se a resposta comprimida não o informa. */
+    static long wireBytes(Response response) {
+        String length = response.header("Content-Length");
+        if (length != null) {
+            return Long.parseLong(length);
+        }
+        return response.header("Content-Encoding") == null ? response.asByteArray().length : -1;
+    }
+
+    private Response get(int size, AcceptEncoding encoding) {
+        return given(spec).header("Accept-Encoding", encoding.header()).queryParam("size", size).get("/products");
+    }
+
+    /** Duração da métrica {@code name} de um header {@code Server-Timing}, em ms; {@code NaN} se não houver. */
+    static double serverTimingMillis(String header, String name) {
+        if (header == null) {
+            return Double.NaN;
+        }
+        for (String metric : header.split(",")) {
+            String[] params = metric.split(";");
+            if (!params[0].trim().equals(name)) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("dur=")) {
+                    return Double.parseDouble(param.substring(4));
+                }
+            }
+        }
+        return Double.NaN;
+    }
+
+    public static String format(List<Row> rows) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%7s %-8s %-8s %9s %9s %6s %9s %11s %8s %8s%n", "página", "pedido",
+                "recebido", "corpo B", "fio B", "fio %", "CPU µs", "compr. µs", "p50 ms", "p99 ms"));
+        for (Row row : rows) {
+            sb.append(String.format(Locale.ROOT, "%7d %-8s %-8s %9d %9d %6.1f %9.1f %11.1f %8.2f %8.2f%n",
+                    row.pageSize(), row.encoding().name().toLowerCase(Locale.ROOT),
+                    row.contentEncoding() == null ? "-" : row.contentEncoding(), row.bodyBytes(), row.wireBytes(),
+                    row.ratio() * 100, row.cpuMicros(), row.compressMicros(), row.percentileMillis(50),
+                    row.percentileMillis(99)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Execução pela linha de comando, por exemplo:
+     * <pre>
+     * mvn test-compile exec:java -Dexec.classpathScope=test \
+     *     -Dexec.mainClass=com.devsuperior.dscommerce.load.CompressionReport \
+     *     -Dcompression.sizes=1,5,25,100 -Dcompression.samples=500
+     * </pre>
+     */
+    public static void main(String[] args) {
+        int[] sizes = NameSearchBenchmark.sizes(System.getProperty("compression.sizes", "1,5,25,100"));
+        CompressionReport report = new CompressionReport(Integer.getInteger("compression.warmup", 50),
+                Integer.getInteger("compression.samples", 200));
+        System.out.print(format(report.run(sizes)));
+        System.exit(0);
+    }
+}
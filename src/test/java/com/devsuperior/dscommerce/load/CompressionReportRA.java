@@ -0,0 +1,44 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.AcceptEncoding;
+import com.devsuperior.dscommerce.tests.Resources;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.util.List;
+
+public class CompressionReportRA {
+
+    @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
+    public void runShouldCompareWireBytesAndServerCpuForEachPageSize() {
+        // poucas amostras por padrão; medição de verdade com -Dcompression.sizes e o main do relatório
+        int[] sizes = NameSearchBenchmark.sizes(System.getProperty("compression.sizes", "1,5,25"));
+
+        List<CompressionReport.Row> rows = new CompressionReport(5, 20).run(sizes);
+
+        System.out.print(CompressionReport.format(rows));
+        Assertions.assertEquals(sizes.length * AcceptEncoding.values().length, rows.size());
+        for (CompressionReport.Row row : rows) {
+            // o servidor decide se comprime; quando comprime, é na codificação pedida
+            if (row.contentEncoding() == null) {
+                Assertions.assertEquals(row.bodyBytes(), row.wireBytes(), row.pageSize() + " " + row.encoding());
+            } else {
+                Assertions.assertEquals(row.encoding().contentEncoding(), row.contentEncoding());
+                Assertions.assertTrue(row.wireBytes() < row.bodyBytes(), row.pageSize() + " " + row.encoding());
+            }
+        }
+    }
+
+    @Test
+    public void serverTimingMillisShouldReadNamedMetric() {
+        String header = "cpu;dur=0.412, compress;dur=0.051";
+
+        Assertions.assertEquals(0.412, CompressionReport.serverTimingMillis(header, "cpu"));
+        Assertions.assertEquals(0.051, CompressionReport.serverTimingMillis(header, "compress"));
+        Assertions.assertTrue(Double.isNaN(CompressionReport.serverTimingMillis(header, "db")));
+        Assertions.assertTrue(Double.isNaN(CompressionReport.serverTimingMillis(null, "cpu")));
+    }
+}
@@ -0,0 +1,131 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.RequestSpecs;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.*;
+
+/**
+ * Economia das leituras condicionais em {@code GET /products?size=}, para cada tamanho de página: bytes no fio e
+ * latência da leitura completa e da mesma leitura com {@code If-None-Match} igual à ETag recebida.
+ * <p>
+ * Os bytes no fio são o {@code Content-Length} da resposta, antes da descompressão feita pelo RestAssured, então a
+ * economia das páginas comprimidas é a do fio, não a do corpo. A API precisa enviar ETag e responder {@code 304} à
+ * leitura condicional; o catálogo não pode mudar durante a medição.
+ */
+public class ConditionalReadReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    /**
+     * @param fullBytes         bytes no fio da leitura completa
+     * @param conditionalBytes  bytes no fio da leitura condicional
+     * @param fullMicros        latências da leitura completa, em microssegundos
+     * @param conditionalMicros latências da leitura condicional, em microssegundos
+     */
+    public record Row(int pageSize, long fullBytes, long conditionalBytes, Histogram fullMicros,
+                      Histogram conditionalMicros) {
+
+        public long savedBytesPerRead() {
+            return fullBytes - conditionalBytes;
+        }
+
+        public double fullMillis(double percentile) {
+            return fullMicros.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        public double conditionalMillis(double percentile) {
+            return conditionalMicros.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    private final RequestSpecification spec;
+    private final int warmup;
+    private final int samples;
+
+    public ConditionalReadReport(int warmup, int samples) {
+        this(RequestSpecs.api(), warmup, samples);
+    }
+
+    public ConditionalReadReport(RequestSpecification spec, int warmup, int samples) {
+        this.spec = spec;
+        this.warmup = warmup;
+        this.samples = samples;
+    }
+
+    public List<Row> run(int[] pageSizes) {
+        List<Row> rows = new ArrayList<>();
+        for (int size : pageSizes) {
+            Response full = get(size, null, 200);
+            String etag = full.header("ETag");
+            if (etag == null) {
+                throw new IllegalStateException("Página de " + size + " sem ETag");
+            }
+            Response conditional = get(size, etag, 304);
+            rows.add(new Row(size, CompressionReport.wireBytes(full), CompressionReport.wireBytes(conditional),
+                    measure(size, null, 200), measure(size, etag, 304)));
+        }
+        return rows;
+    }
+
+    private Histogram measure(int size, String etag, int status) {
+        for (int i = 0; i < warmup; i++) {
+            get(size, etag, status);
+        }
+        Histogram histogram = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            get(size, etag, status);
+            histogram.recordValue(Math.min((System.nanoTime() - start) / 1000, HIGHEST_TRACKABLE_MICROS));
+        }
+        return histogram;
+    }
+
+    private Response get(int size, String etag, int status) {
+        RequestSpecification request = given(spec).queryParam("size", size);
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        Response response = request.get("/products");
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("Página de " + size + (etag == null ? "" : " com If-None-Match")
+                    + " retornou " + response.statusCode() + ", esperado " + status);
+        }
+        return response;
+    }
+
+    public static String format(List<Row> rows) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%7s %10s %8s %10s %8s %8s %8s %8s%n", "página", "fio B", "304 B",
+                "economia B", "p50 ms", "304 p50", "p99 ms", "304 p99"));
+        for (Row row : rows) {
+            sb.append(String.format(Locale.ROOT, "%7d %10d %8d %10d %8.2f %8.2f %8.2f %8.2f%n", row.pageSize(),
+                    row.fullBytes(), row.conditionalBytes(), row.savedBytesPerRead(), row.fullMillis(50),
+                    row.conditionalMillis(50), row.fullMillis(99), row.conditionalMillis(99)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Execução pela linha de comando, por exemplo:
+     * <pre>
+     * mvn test-compile exec:java -Dexec.classpathScope=test \
+     *     -Dexec.mainClass=com.devsuperior.dscommerce.load.ConditionalReadReport \
+     *     -Dconditional.sizes=1,5,25,100 -Dconditional.samples=500
+     * </pre>
+     */
+    public static void main(String[] args) {
+        int[] sizes = NameSearchBenchmark.sizes(System.getProperty("conditional.sizes", "1,5,25,100"));
+        ConditionalReadReport report = new ConditionalReadReport(Integer.getInteger("conditional.warmup", 50),
+                Integer.getInteger("conditional.samples", 200));
+        System.out.print(format(report.run(sizes)));
+        System.exit(0);
+    }
+}
@@ -0,0 +1,33 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.ApiServer;
+import com.devsuperior.dscommerce.tests.Resources;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.util.List;
+
+public class ConditionalReadReportRA {
+
+    @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
+    public void runShouldCompareFullAndConditionalReadsForEachPageSize() {
+        Assumptions.assumeTrue(ApiServer.embedded(), "ETag nas páginas só no servidor em memória");
+        // poucas amostras por padrão; medição de verdade com -Dconditional.sizes e o main do relatório
+        int[] sizes = NameSearchBenchmark.sizes(System.getProperty("conditional.sizes", "1,5,25"));
+
+        List<ConditionalReadReport.Row> rows = new ConditionalReadReport(5, 20).run(sizes);
+
+        System.out.print(ConditionalReadReport.format(rows));
+        Assertions.assertEquals(sizes.length, rows.size());
+        for (ConditionalReadReport.Row row : rows) {
+            Assertions.assertTrue(row.fullBytes() > 0, "página de " + row.pageSize());
+            // 304 sem corpo: a economia é a página inteira, como trafegou
+            Assertions.assertEquals(0, row.conditionalBytes(), "página de " + row.pageSize());
+            Assertions.assertEquals(row.fullBytes(), row.savedBytesPerRead());
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.ApiServer;
+import org.HdrHistogram.Histogram;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+
+/**
+ * Carga aberta distribuída entre várias JVMs locais, para quando um único gerador satura antes da API.
+ * <p>
+ * O coordenador abre um socket em loopback e inicia {@code workers} processos {@link LoadWorker} com o mesmo
+ * classpath e o mesmo {@code dscommerce.baseURI}; sem a propriedade, o servidor local sobe nesta JVM e os workers
+ * apontam para ele. Quando todos se conectam, cada um recebe a sua parte da taxa, o mesmo instante de início e uma
+ * defasagem de {@code i} intervalos da taxa total ({@code i / workers} do intervalo do próprio worker), para que as
+ * chegadas somadas fiquem espaçadas como as de um gerador só. Ao fim cada worker devolve, por cenário, o
+ * HdrHistogram comprimido com contadores e a CPU do processo, e os relatórios são somados por
+ * {@link LoadReport#merge}.
+ */
+public class DistributedLoad {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration START_DELAY = Duration.ofSeconds(1);
+
+    /**
+     * @param maxInFlight   limite de requisições em andamento de cada worker
+     * @param transport     {@code restassured} ou {@code httpclient}
+     * @param workerJvmArgs opções extras das JVMs dos workers, como {@code -Xmx512m}
+     */
+    public record Config(int workers, double ratePerSecond, int maxInFlight, Duration warmup, Duration duration,
+                         String transport, List<String> workerJvmArgs) {
+
+        public Config {
+            if (workers <= 0) {
+                throw new IllegalArgumentException("Número de workers deve ser positivo");
+            }
+            workerJvmArgs = List.copyOf(workerJvmArgs);
+        }
+    }
+
+    public record Result(LoadReport combined, List<LoadReport> workers) {
+    }
+
+    /** Parte da carga enviada a um worker. */
+    record Assignment(double ratePerSecond, int maxInFlight, Duration warmup, Duration duration, String transport,
+                      long startAtEpochMillis, long phaseNanos) {
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeDouble(ratePerSecond);
+            out.writeInt(maxInFlight);
+            out.writeLong(warmup.toNanos());
+            out.writeLong(duration.toNanos());
+            out.writeUTF(transport);
+            out.writeLong(startAtEpochMillis);
+            out.writeLong(phaseNanos);
+            out.flush();
+        }
+
+        static Assignment read(DataInputStream in) throws IOException {
+            return new Assignment(in.readDouble(), in.readInt(), Duration.ofNanos(in.readLong()),
+                    Duration.ofNanos(in.readLong()), in.readUTF(), in.readLong(), in.readLong());
+        }
+    }
+
+    private final Path workDir;
+
+    /**
+     * @param workDir onde ficam as saídas dos workers, {@code worker-<i>.log}
+     */
+    public DistributedLoad(Path workDir) {
+        this.workDir = workDir;
+    }
+
+    public Result run(Config config) {
+        String baseUri = ApiServer.baseURI();
+        int n = config.workers();
+        List<Process> processes = new ArrayList<>();
+        Socket[] sockets = new Socket[n];
+        try (ServerSocket server = new ServerSocket(0, n, InetAddress.getLoopbackAddress())) {
+            Files.createDirectories(workDir);
+            server.setSoTimeout((int) CONNECT_TIMEOUT.toMillis());
+            for (int i = 0; i < n; i++) {
+                processes.add(startWorker(config, baseUri, server.getLocalPort(), i));
+            }
+            for (int connected = 0; connected < n; connected++) {
+                Socket socket = accept(server);
+                int id = new DataInputStream(socket.getInputStream()).readInt();
+                sockets[id] = socket;
+            }
+
+            List<Assignment> assignments = assign(config, System.currentTimeMillis() + START_DELAY.toMillis());
+            for (int i = 0; i < n; i++) {
+                assignments.get(i).write(new DataOutputStream(sockets[i].getOutputStream()));
+            }
+
+            long resultTimeout = START_DELAY.plus(config.warmup()).plus(config.duration()).plus(CONNECT_TIMEOUT)
+                    .toMillis();
+            List<LoadReport> reports = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                sockets[i].setSoTimeout((int) Math.min(resultTimeout, Integer.MAX_VALUE));
+                try {
+                    reports.add(readReport(new DataInputStream(sockets[i].getInputStream())));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Worker " + i + " não devolveu o relatório, ver " + log(i), e);
+                }
+            }
+            return new Result(LoadReport.merge(reports), reports);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (Socket socket : sockets) {
+                closeQuietly(socket);
+            }
+            for (Process process : processes) {
+                stop(process);
+            }
+        }
+    }
+
+    /**
+     * Divide a taxa entre os workers. Cada um chega a cada {@code workers} intervalos da taxa total, então o worker
+     * {@code i} começa {@code i} intervalos depois do primeiro e as chegadas somadas ficam a um intervalo umas das
+     * outras.
+     */
+    static List<Assignment> assign(Config config, long startAtEpochMillis) {
+        int n = config.workers();
+        double interval = 1e9 / config.ratePerSecond();
+        List<Assignment> assignments = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            assignments.add(new Assignment(config.ratePerSecond() / n, config.maxInFlight(), config.warmup(),
+                    config.duration(), config.transport(), startAtEpochMillis, Math.round(interval * i)));
+        }
+        return assignments;
+    }
+
+    public static String format(Result result) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < result.workers().size(); i++) {
+            LoadReport report = result.workers().get(i);
+            sb.append(String.format(Locale.ROOT, "worker %d: %d requisições, %d erros, %.1f req/s%n", i,
+                    report.totalCount(), report.totalErrors(),
+                    report.totalCount() / (report.elapsed().toNanos() / 1e9)));
+        }
+        sb.append(result.combined().format());
+        return sb.toString();
+    }
+
+    static void writeReport(DataOutputStream out, LoadReport report) throws IOException {
+        out.writeLong(report.cpuTime() == null ? -1 : report.cpuTime().toNanos());
+        out.writeUTF(report.mode().name());
+        out.writeLong(report.elapsed().toNanos());
+        out.writeInt(report.scenarios().size());
+        for (LoadReport.ScenarioStats stats : report.scenarios()) {
+            out.writeUTF(stats.name());
+            out.writeUTF(stats.endpoint());
+            out.writeLong(stats.count());
+            out.writeLong(stats.errors());
+            out.writeLong(stats.dropped());
+            Histogram histogram = stats.latencyMicros();
+            ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+            int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+            out.writeInt(length);
+            out.write(buffer.array(), 0, length);
+        }
+        out.flush();
+    }
+
+    static LoadReport readReport(DataInputStream in) throws IOException {
+        long cpuNanos = in.readLong();
+        LoadRunner.Mode mode = LoadRunner.Mode.valueOf(in.readUTF());
+        Duration elapsed = Duration.ofNanos(in.readLong());
+        int count = in.readInt();
+        List<LoadReport.ScenarioStats> scenarios = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            String endpoint = in.readUTF();
+            long requests = in.readLong();
+            long errors = in.readLong();
+            long dropped = in.readLong();
+            byte[] encoded = new byte[in.readInt()];
+            in.readFully(encoded);
+            try {
+                Histogram histogram = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 0);
+                scenarios.add(new LoadReport.ScenarioStats(name, endpoint, requests, errors, dropped, histogram));
+            } catch (DataFormatException e) {
+                throw new IOException("Histograma inválido do cenário " + name, e);
+            }
+        }
+        return new LoadReport(mode, elapsed, cpuNanos < 0 ? null : Duration.ofNanos(cpuNanos), scenarios);
+    }
+
+    private Process startWorker(Config config, String baseUri, int port, int id) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(config.workerJvmArgs());
+        command.add("-D" + ApiServer.BASE_URI_PROPERTY + "=" + baseUri);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LoadWorker.class.getName());
+        command.add(String.valueOf(port));
+        command.add(String.valueOf(id));
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log(id).toFile()).start();
+    }
+
+    private Socket accept(ServerSocket server) throws IOException {
+        try {
+            return server.accept();
+        } catch (SocketTimeoutException e) {
+            throw new IllegalStateException("Workers não se conectaram em " + CONNECT_TIMEOUT + ", ver "
+                    + workDir.toAbsolutePath(), e);
+        }
+    }
+
+    private Path log(int id) {
+        return workDir.resolve("worker-" + id + ".log");
+    }
+
+    private static void stop(Process process) {
+        try {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // já encerrado pelo worker
+            }
+        }
+    }
+
+    /**
+     * Execução pela linha de comando, por exemplo:
+     * <pre>
+     * mvn test-compile exec:java -Dexec.classpathScope=test \
+     *     -Dexec.mainClass=com.devsuperior.dscommerce.load.DistributedLoad \
+     *     -Dload.workers=4 -Dload.rate=4000 -Dload.duration=PT30S -Dload.transport=httpclient \
+     *     -Ddscommerce.baseURI=http://localhost:8080
+     * </pre>
+     */
+    public static void main(String[] args) {
+        String jvmArgs = System.getProperty("load.workerJvmArgs", "").trim();
+        Config config = new Config(
+                Integer.getInteger("load.workers", Runtime.getRuntime().availableProcessors()),
+                Double.parseDouble(System.getProperty("load.rate", "1000")),
+                Integer.getInteger("load.maxInFlight", 10_000),
+                Duration.parse(System.getProperty("load.warmup", "PT5S")),
+                Duration.parse(System.getProperty("load.duration", "PT30S")),
+                System.getProperty("load.transport", "restassured"),
+                jvmArgs.isEmpty() ? List.of() : Arrays.asList(jvmArgs.split("\\s+")));
+        Path workDir = Path.of(System.getProperty("load.workDir", "target/load-workers"));
+        System.out.print(format(new DistributedLoad(workDir).run(config)));
+        System.exit(0);
+    }
+}
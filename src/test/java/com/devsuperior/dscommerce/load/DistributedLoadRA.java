@@ -0,0 +1,66 @@
+package com.devsuperior.dscommerce.load;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// sobe JVMs de carga: roda sozinho, sem os demais testes disputando CPU
+@Isolated
+public class DistributedLoadRA {
+
+    @Test
+    public void assignmentsShouldSpaceMergedArrivalsEvenly() {
+        for (int workers : new int[]{2, 3, 4}) {
+            double rate = 40;
+            List<DistributedLoad.Assignment> assignments = DistributedLoad.assign(new DistributedLoad.Config(workers,
+                    rate, 1_000, Duration.ZERO, Duration.ofSeconds(1), "restassured", List.of()), 0);
+
+            // chegadas como o LoadRunner agenda: defasagem do worker + k intervalos da taxa dele
+            List<Long> arrivals = new ArrayList<>();
+            for (DistributedLoad.Assignment assignment : assignments) {
+                long interval = (long) (1e9 / assignment.ratePerSecond());
+                for (long k = 0; k < 10; k++) {
+                    arrivals.add(assignment.phaseNanos() + k * interval);
+                }
+            }
+            Collections.sort(arrivals);
+            double expected = 1e9 / rate;
+            for (int i = 1; i < arrivals.size(); i++) {
+                long gap = arrivals.get(i) - arrivals.get(i - 1);
+                // arredondamento dos intervalos em ns; o erro corrigido deslocava milissegundos
+                Assertions.assertEquals(expected, gap, 1_000, workers + " workers, chegadas " + arrivals);
+            }
+        }
+    }
+
+    @Test
+    public void workersShouldShareRateAndMergeHistograms() {
+        DistributedLoad.Result result = new DistributedLoad(Path.of("target/load-workers")).run(
+                new DistributedLoad.Config(2, 40, 1_000, Duration.ofSeconds(1), Duration.ofSeconds(2),
+                        "restassured", List.of("-Xshare:auto", "-XX:TieredStopAtLevel=1")));
+
+        System.out.print(DistributedLoad.format(result));
+        LoadReport combined = result.combined();
+        Assertions.assertEquals(2, result.workers().size());
+        Assertions.assertEquals(0, combined.totalErrors());
+        Assertions.assertEquals(result.workers().stream().mapToLong(LoadReport::totalCount).sum(),
+                combined.totalCount());
+        for (Scenario scenario : Scenarios.readOnly()) {
+            LoadReport.ScenarioStats stats = combined.scenario(scenario.name());
+            Assertions.assertEquals(stats.count(), stats.latencyMicros().getTotalCount(), scenario.name());
+            Assertions.assertTrue(stats.count() > 0, scenario.name());
+        }
+        for (LoadReport worker : result.workers()) {
+            long issued = worker.totalCount() + worker.scenarios().stream()
+                    .mapToLong(LoadReport.ScenarioStats::dropped).sum();
+            // 20 req/s por worker durante 2 s
+            Assertions.assertTrue(issued >= 36 && issued <= 44, "requisições do worker: " + issued);
+        }
+    }
+}
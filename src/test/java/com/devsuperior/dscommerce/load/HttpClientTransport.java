@@ -0,0 +1,160 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.ApiServer;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executa os cenários com o {@link HttpClient} do JDK, de forma assíncrona e, quando o servidor aceita, em HTTP/2:
+ * as requisições em andamento são multiplexadas em poucas conexões e nenhuma thread fica parada esperando resposta.
+ * <p>
+ * Em {@code http://} o HTTP/2 é negociado por upgrade (h2c) na primeira requisição de cada conexão; servidores que
+ * não aceitam continuam em HTTP/1.1. {@link #versions()} mostra quantas respostas vieram em cada versão.
+ * <p>
+ * O cliente do JDK abre uma conexão HTTP/2 por servidor e falha com "too many concurrent streams" acima do limite
+ * de streams simultâneos anunciado pelo servidor (100 no Tomcat), em vez de esperar. Por isso as requisições acima de
+ * {@code maxStreams} ficam numa fila e saem quando outra termina, sem bloquear quem chamou.
+ */
+public class HttpClientTransport implements Transport {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int DEFAULT_MAX_STREAMS = 100;
+
+    private final HttpClient client;
+    private final String baseUri;
+    private final Map<HttpClient.Version, LongAdder> versions = new ConcurrentHashMap<>();
+    private final Semaphore streams;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    public HttpClientTransport() {
+        this(ApiServer.baseURI(), HttpClient.Version.HTTP_2, DEFAULT_MAX_STREAMS);
+    }
+
+    public HttpClientTransport(String baseUri, HttpClient.Version version, int maxStreams) {
+        if (maxStreams <= 0) {
+            throw new IllegalArgumentException("Limite de streams deve ser positivo");
+        }
+        this.streams = new Semaphore(maxStreams);
+        this.baseUri = baseUri.endsWith("/") ? baseUri.substring(0, baseUri.length() - 1) : baseUri;
+        this.client = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Override
+    public Result execute(Scenario scenario, String token) {
+        try {
+            return send(scenario, token).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Result> executeAsync(Scenario scenario, String token, Executor executor) {
+        return send(scenario, token);
+    }
+
+    /** Respostas recebidas por versão do protocolo. */
+    public Map<HttpClient.Version, Long> versions() {
+        Map<HttpClient.Version, Long> counts = new EnumMap<>(HttpClient.Version.class);
+        versions.forEach((version, count) -> counts.put(version, count.sum()));
+        return counts;
+    }
+
+    private CompletableFuture<Result> send(Scenario scenario, String token) {
+        CompletableFuture<Result> result = new CompletableFuture<>();
+        waiting.add(() -> {
+            CompletableFuture<Result> sent;
+            try {
+                sent = sendNow(scenario, token);
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            sent.whenComplete((r, e) -> {
+                streams.release();
+                drain();
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(r);
+                }
+            });
+        });
+        drain();
+        return result;
+    }
+
+    /** Dispara as requisições da fila enquanto houver stream livre. */
+    private void drain() {
+        while (!waiting.isEmpty() && streams.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                streams.release();
+            } else {
+                next.run();
+            }
+        }
+    }
+
+    private CompletableFuture<Result> sendNow(Scenario scenario, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(scenario))
+                .timeout(REQUEST_TIMEOUT)
+                .method(scenario.method(), HttpRequest.BodyPublishers.noBody());
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+            versions.computeIfAbsent(response.version(), v -> new LongAdder()).increment();
+            return new Result(response.statusCode(), response.body().length);
+        });
+    }
+
+    /** Caminho com as variáveis substituídas em ordem e os parâmetros de consulta codificados. */
+    URI uri(Scenario scenario) {
+        StringBuilder sb = new StringBuilder(baseUri);
+        String path = scenario.path();
+        int param = 0;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '{') {
+                int end = path.indexOf('}', i);
+                sb.append(encode(String.valueOf(scenario.pathParams().get(param++))).replace("+", "%20"));
+                i = end;
+            } else {
+                sb.append(c);
+            }
+        }
+        char separator = '?';
+        for (Map.Entry<String, Object> query : scenario.queryParams().entrySet()) {
+            sb.append(separator).append(encode(query.getKey())).append('=')
+                    .append(encode(String.valueOf(query.getValue())));
+            separator = '&';
+        }
+        return URI.create(sb.toString());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+package com.devsuperior.dscommerce.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Vazão e percentis de latência por cenário de uma execução de carga.
+ *
+ * @param cpuTime tempo de CPU do processo durante a janela medida, ou {@code null} se a JVM não informa
+ */
+public record LoadReport(LoadRunner.Mode mode, Duration elapsed, Duration cpuTime, List<ScenarioStats> scenarios) {
+
+    /**
+     * @param latencyMicros latências das requisições com o status esperado, em microssegundos
+     */
+    public record ScenarioStats(String name, String endpoint, long count, long errors, long dropped,
+                                Histogram latencyMicros) {
+
+        public double throughput(Duration elapsed) {
+            return count / (elapsed.toNanos() / 1e9);
+        }
+
+        public double percentileMillis(double percentile) {
+            return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    /**
+     * Soma relatórios de geradores que rodaram na mesma janela, cenário a cenário. Os histogramas são somados sem
+     * perda, então os percentis do resultado são os de todas as requisições juntas; a CPU é a soma das CPUs.
+     */
+    public static LoadReport merge(List<LoadReport> reports) {
+        if (reports.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum relatório para somar");
+        }
+        Map<String, ScenarioStats> merged = new LinkedHashMap<>();
+        Duration cpuTime = Duration.ZERO;
+        for (LoadReport report : reports) {
+            for (ScenarioStats stats : report.scenarios()) {
+                merged.merge(stats.name(), stats, (a, b) -> {
+                    Histogram latency = a.latencyMicros().copy();
+                    latency.add(b.latencyMicros());
+                    return new ScenarioStats(a.name(), a.endpoint(), a.count() + b.count(), a.errors() + b.errors(),
+                            a.dropped() + b.dropped(), latency);
+                });
+            }
+            cpuTime = cpuTime == null || report.cpuTime() == null ? null : cpuTime.plus(report.cpuTime());
+        }
+        LoadReport first = reports.get(0);
+        return new LoadReport(first.mode(), first.elapsed(), cpuTime, List.copyOf(merged.values()));
+    }
+
+    public ScenarioStats scenario(String name) {
+        return scenarios.stream().filter(s -> s.name().equals(name)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Cenário não executado: " + name));
+    }
+
+    public long totalCount() {
+        return scenarios.stream().mapToLong(ScenarioStats::count).sum();
+    }
+
+    public long totalErrors() {
+        return scenarios.stream().mapToLong(ScenarioStats::errors).sum();
+    }
+
+    /** Requisições por segundo de CPU, ou seja, por núcleo ocupado; {@code NaN} sem medida de CPU. */
+    public double requestsPerCpuSecond() {
+        if (cpuTime == null || cpuTime.isZero()) {
+            return Double.NaN;
+        }
+        return totalCount() / (cpuTime.toNanos() / 1e9);
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Modo %s, %.1f s, %s%n", mode, elapsed.toMillis() / 1000.0,
+                LoadThreads.virtual() ? "virtual threads" : "platform threads"));
+        sb.append(String.format(Locale.ROOT, "%-26s %-18s %8s %6s %6s %9s %8s %8s %8s %8s %8s%n",
+                "cenário", "endpoint", "reqs", "erros", "desc.", "req/s", "p50 ms", "p90 ms", "p99 ms",
+                "p99.9 ms", "max ms"));
+        for (ScenarioStats s : scenarios) {
+            sb.append(String.format(Locale.ROOT, "%-26s %-18s %8d %6d %6d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                    s.name(), s.endpoint(), s.count(), s.errors(), s.dropped(), s.throughput(elapsed),
+                    s.percentileMillis(50), s.percentileMillis(90), s.percentileMillis(99),
+                    s.percentileMillis(99.9), s.latencyMicros().getMaxValue() / 1000.0));
+        }
+        sb.append(String.format(Locale.ROOT, "total: %d requisições, %d erros, %.1f req/s%n", totalCount(),
+                totalErrors(), totalCount() / (elapsed.toNanos() / 1e9)));
+        if (cpuTime != null) {
+            sb.append(String.format(Locale.ROOT, "CPU: %.2f s, %.1f req por segundo de CPU%n",
+                    cpuTime.toNanos() / 1e9, requestsPerCpuSecond()));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,272 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.HttpConnectionPool;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga que executa os {@link Scenario}s em circuito fechado (N usuários, cada um dispara a próxima
+ * requisição ao receber a resposta) ou aberto (taxa fixa de chegada, independente das respostas).
+ * <p>
+ * No modo aberto a latência é medida a partir do instante em que a requisição deveria ter saído, para não
+ * esconder o tempo de fila quando o servidor fica para trás (coordinated omission). As requisições saem por
+ * {@link Transport#executeAsync}: com um transporte assíncrono, como o {@link HttpClientTransport}, nenhuma thread
+ * fica presa por requisição em andamento.
+ * <p>
+ * O relatório traz também o tempo de CPU do processo na janela medida, para comparar transportes em requisições por
+ * segundo por núcleo. Com o servidor embutido a CPU dele entra na conta; contra {@code -Ddscommerce.baseURI} ela é
+ * só a do gerador.
+ */
+public class LoadRunner {
+
+    public enum Mode {
+        CLOSED, OPEN
+    }
+
+    /**
+     * @param users         usuários simultâneos no modo fechado
+     * @param ratePerSecond requisições por segundo no modo aberto
+     * @param maxInFlight   limite de requisições em andamento no modo aberto; chegadas acima dele são descartadas
+     */
+    public record Config(Mode mode, int users, double ratePerSecond, int maxInFlight, Duration warmup,
+                         Duration duration, List<Scenario> scenarios) {
+
+        public static Config closedLoop(int users, Duration warmup, Duration duration, List<Scenario> scenarios) {
+            return new Config(Mode.CLOSED, users, 0, 0, warmup, duration, scenarios);
+        }
+
+        public static Config openLoop(double ratePerSecond, int maxInFlight, Duration warmup, Duration duration,
+                                      List<Scenario> scenarios) {
+            return new Config(Mode.OPEN, 0, ratePerSecond, maxInFlight, warmup, duration, scenarios);
+        }
+    }
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Transport transport;
+
+    public LoadRunner(Transport transport) {
+        this.transport = transport;
+    }
+
+    /** Transporte pelo nome usado em {@code -Dload.transport}: {@code restassured} ou {@code httpclient}. */
+    public static Transport transport(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "restassured" -> new RestAssuredTransport();
+            case "httpclient" -> new HttpClientTransport();
+            default -> throw new IllegalArgumentException("Transporte desconhecido: " + name);
+        };
+    }
+
+    public LoadReport run(Config config) {
+        Map<Scenario.Login, String> tokens = new EnumMap<>(Scenario.Login.class);
+        for (Scenario.Login login : Scenario.Login.values()) {
+            if (login != Scenario.Login.ANONYMOUS) {
+                tokens.put(login, Scenarios.token(login));
+            }
+        }
+        List<Probe> probes = new ArrayList<>();
+        for (Scenario scenario : config.scenarios()) {
+            probes.add(new Probe(scenario, tokens.get(scenario.login())));
+        }
+
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+
+        AtomicLong cpuAtMeasureStart = new AtomicLong(processCpuNanos());
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "load-cpu-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.schedule(() -> cpuAtMeasureStart.set(processCpuNanos()), measureFrom - System.nanoTime(),
+                TimeUnit.NANOSECONDS);
+        ExecutorService executor = LoadThreads.newPerTaskExecutor("load-user");
+        try {
+            if (config.mode() == Mode.CLOSED) {
+                runClosed(config, probes, executor, measureFrom, end);
+            } else {
+                runOpen(config, probes, executor, start, measureFrom, end);
+            }
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+            sampler.shutdownNow();
+        }
+        long cpuAtEnd = processCpuNanos();
+        Duration cpuTime = cpuAtEnd < 0 ? null : Duration.ofNanos(cpuAtEnd - cpuAtMeasureStart.get());
+
+        List<LoadReport.ScenarioStats> stats = new ArrayList<>();
+        for (Probe probe : probes) {
+            stats.add(probe.stats());
+        }
+        return new LoadReport(config.mode(), config.duration(), cpuTime, stats);
+    }
+
+    private void runClosed(Config config, List<Probe> probes, ExecutorService executor, long measureFrom, long end) {
+        for (int u = 0; u < config.users(); u++) {
+            int user = u;
+            executor.execute(() -> {
+                for (long i = user; System.nanoTime() < end; i++) {
+                    Probe probe = probes.get((int) (i % probes.size()));
+                    long t0 = System.nanoTime();
+                    probe.execute(t0, t0 >= measureFrom);
+                }
+            });
+        }
+    }
+
+    private void runOpen(Config config, List<Probe> probes, ExecutorService executor, long start, long measureFrom,
+                         long end) {
+        long interval = (long) (1e9 / config.ratePerSecond());
+        Semaphore inFlight = new Semaphore(config.maxInFlight());
+        for (long k = 0; ; k++) {
+            long intended = start + k * interval;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Probe probe = probes.get((int) (k % probes.size()));
+            boolean measured = intended >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    probe.dropped.increment();
+                }
+                continue;
+            }
+            probe.executeAsync(executor, intended, measured).whenComplete((ok, e) -> inFlight.release());
+        }
+        // respostas de transportes assíncronos não passam pelo executor: espera as que ainda estão em andamento
+        try {
+            if (!inFlight.tryAcquire(config.maxInFlight(), 1, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Requisições ainda em andamento após 1 minuto");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Tempo de CPU do processo em nanossegundos, ou -1 se a JVM não informa. */
+    private static long processCpuNanos() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Probe {
+        final Scenario scenario;
+        final String token;
+        final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+
+        Probe(Scenario scenario, String token) {
+            this.scenario = scenario;
+            this.token = token;
+        }
+
+        void execute(long startedAt, boolean measured) {
+            boolean ok;
+            try {
+                ok = transport.execute(scenario, token).status() == scenario.expectedStatus();
+            } catch (RuntimeException e) {
+                ok = false;
+            }
+            record(startedAt, measured, ok);
+        }
+
+        CompletableFuture<Void> executeAsync(ExecutorService executor, long startedAt, boolean measured) {
+            CompletableFuture<Transport.Result> result;
+            try {
+                result = transport.executeAsync(scenario, token, executor);
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            return result.handle((r, e) -> {
+                record(startedAt, measured, e == null && r.status() == scenario.expectedStatus());
+                return null;
+            });
+        }
+
+        private void record(long startedAt, boolean measured, boolean ok) {
+            if (!measured) {
+                return;
+            }
+            if (ok) {
+                long micros = (System.nanoTime() - startedAt) / 1000;
+                recorder.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            } else {
+                errors.increment();
+            }
+        }
+
+        LoadReport.ScenarioStats stats() {
+            Histogram histogram = recorder.getIntervalHistogram();
+            return new LoadReport.ScenarioStats(scenario.name(), scenario.endpoint(), histogram.getTotalCount(),
+                    errors.sum(), dropped.sum(), histogram);
+        }
+    }
+
+    /**
+     * Execução pela linha de comando, por exemplo:
+     * <pre>
+     * mvn test-compile exec:java -Dexec.classpathScope=test \
+     *     -Dexec.mainClass=com.devsuperior.dscommerce.load.LoadRunner \
+     *     -Dload.mode=open -Dload.rate=500 -Dload.duration=PT30S -Ddscommerce.baseURI=http://localhost:8080
+     * </pre>
+     * {@code -Dload.transport=httpclient} troca o RestAssured pelo {@link HttpClientTransport}.
+     */
+    public static void main(String[] args) {
+        Mode mode = Mode.valueOf(System.getProperty("load.mode", "closed").toUpperCase());
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT5S"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+        Config config = mode == Mode.CLOSED
+                ? Config.closedLoop(Integer.getInteger("load.users", 50), warmup, duration, Scenarios.readOnly())
+                : Config.openLoop(Double.parseDouble(System.getProperty("load.rate", "200")),
+                Integer.getInteger("load.maxInFlight", 10_000), warmup, duration, Scenarios.readOnly());
+        Transport transport = transport(System.getProperty("load.transport", "restassured"));
+        LoadReport report = new LoadRunner(transport).run(config);
+        System.out.print(report.format());
+        if (transport instanceof HttpClientTransport client) {
+            System.out.println("respostas por versão: " + client.versions());
+        } else {
+            HttpConnectionPool.Stats pool = HttpConnectionPool.stats();
+            System.out.printf("conexões: %d requisições, %d abertas, %d reaproveitadas (%.1f%%)%n", pool.leased(),
+                    pool.opened(), pool.reused(), pool.reuseRatio() * 100);
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,56 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.ApiServer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+// mede vazão e latência: roda sozinho, sem os demais testes disputando CPU
+@Isolated
+public class LoadRunnerRA {
+
+    @Test
+    public void closedLoopShouldExecuteAllScenariosWithoutErrors() {
+        LoadReport report = new LoadRunner(new RestAssuredTransport()).run(LoadRunner.Config.closedLoop(
+                4, Duration.ofSeconds(1), Duration.ofSeconds(1), Scenarios.readOnly()));
+
+        System.out.print(report.format());
+        Assertions.assertEquals(0, report.totalErrors());
+        for (Scenario scenario : Scenarios.readOnly()) {
+            Assertions.assertTrue(report.scenario(scenario.name()).count() > 0, scenario.name());
+        }
+    }
+
+    @Test
+    public void openLoopShouldIssueRequestsAtConfiguredRate() {
+        LoadReport report = new LoadRunner(new RestAssuredTransport()).run(LoadRunner.Config.openLoop(
+                50, 1_000, Duration.ofSeconds(1), Duration.ofSeconds(1), Scenarios.readOnly()));
+
+        System.out.print(report.format());
+        Assertions.assertEquals(0, report.totalErrors());
+        long issued = report.totalCount() + report.scenarios().stream().mapToLong(LoadReport.ScenarioStats::dropped).sum();
+        Assertions.assertTrue(issued >= 45 && issued <= 55, "requisições: " + issued);
+    }
+
+    @Test
+    public void openLoopShouldRunSameScenariosOnHttp2ClientTransport() {
+        HttpClientTransport transport = new HttpClientTransport();
+        LoadReport report = new LoadRunner(transport).run(LoadRunner.Config.openLoop(
+                100, 1_000, Duration.ofSeconds(1), Duration.ofSeconds(1), Scenarios.readOnly()));
+
+        System.out.print(report.format());
+        System.out.println("respostas por versão: " + transport.versions());
+        Assertions.assertEquals(0, report.totalErrors());
+        for (Scenario scenario : Scenarios.readOnly()) {
+            Assertions.assertTrue(report.scenario(scenario.name()).count() > 0, scenario.name());
+        }
+        if (System.getProperty(ApiServer.BASE_URI_PROPERTY) == null) {
+            // o servidor embutido aceita h2c: depois do upgrade as respostas vêm multiplexadas em HTTP/2
+            Assertions.assertTrue(transport.versions().getOrDefault(HttpClient.Version.HTTP_2, 0L) > 0,
+                    "respostas por versão: " + transport.versions());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.devsuperior.dscommerce.load;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads dos usuários simulados: virtual threads quando a JVM oferece (Java 21+), senão threads de plataforma.
+ * <p>
+ * O projeto compila para Java 17, então o executor de virtual threads é obtido por reflexão.
+ */
+public final class LoadThreads {
+
+    private static final Method VIRTUAL_EXECUTOR = findVirtualExecutor();
+
+    private LoadThreads() {
+    }
+
+    public static boolean virtual() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    /** Executor com uma thread por tarefa. */
+    public static ExecutorService newPerTaskExecutor(String namePrefix) {
+        if (VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Falha ao criar executor de virtual threads", e);
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, namePrefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static Method findVirtualExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.devsuperior.dscommerce.load;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * JVM de carga iniciada pelo {@link DistributedLoad}: conecta no coordenador, recebe a sua parte da taxa, roda os
+ * cenários de leitura em circuito aberto a partir do instante combinado e devolve o relatório pelo mesmo socket.
+ * <p>
+ * Argumentos: porta do coordenador em loopback e número do worker.
+ */
+public final class LoadWorker {
+
+    private LoadWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(args[0]);
+        int id = Integer.parseInt(args[1]);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(id);
+            out.flush();
+            DistributedLoad.Assignment assignment = DistributedLoad.Assignment.read(
+                    new DataInputStream(socket.getInputStream()));
+
+            Transport transport = LoadRunner.transport(assignment.transport());
+            long wait = assignment.startAtEpochMillis() - System.currentTimeMillis();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait * 1_000_000);
+            }
+            LockSupport.parkNanos(assignment.phaseNanos());
+            LoadReport report = new LoadRunner(transport).run(LoadRunner.Config.openLoop(assignment.ratePerSecond(),
+                    assignment.maxInFlight(), assignment.warmup(), assignment.duration(), Scenarios.readOnly()));
+            System.out.print("worker " + id + ": " + report.format());
+            DistributedLoad.writeReport(out, report);
+        }
+        System.exit(0);
+    }
+}
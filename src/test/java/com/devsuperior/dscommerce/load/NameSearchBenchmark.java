@@ -0,0 +1,127 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.RequestSpecs;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.*;
+
+/**
+ * Latência de {@code GET /products?name=} com o catálogo crescendo, usando o {@link CatalogFixture}.
+ * <p>
+ * Para cada tamanho o catálogo recebe produtos sintéticos até ter aquele número de itens do fixture, e cada termo é
+ * buscado {@code samples} vezes em sequência: um termo presente em todos os produtos, um raro, um que só existe
+ * nos dados iniciais ({@code Macbook}) e um que não existe. Ao fim os produtos sintéticos são apagados.
+ */
+public class NameSearchBenchmark {
+
+    public static final List<String> TERMS = List.of(CatalogFixture.COMMON_TERM, CatalogFixture.RARE_TERM,
+            "Macbook", "inexistente");
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    /**
+     * @param fixtureSize   produtos sintéticos no catálogo durante a medição
+     * @param catalogSize   total de produtos no catálogo, incluindo os dados iniciais
+     * @param matches       {@code totalElements} da busca
+     * @param latencyMicros latências da busca, em microssegundos
+     */
+    public record Row(int fixtureSize, long catalogSize, String term, long matches, Histogram latencyMicros) {
+
+        public double percentileMillis(double percentile) {
+            return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    private final RequestSpecification spec;
+    private final int warmup;
+    private final int samples;
+
+    public NameSearchBenchmark(int warmup, int samples) {
+        this(RequestSpecs.api(), warmup, samples);
+    }
+
+    public NameSearchBenchmark(RequestSpecification spec, int warmup, int samples) {
+        this.spec = spec;
+        this.warmup = warmup;
+        this.samples = samples;
+    }
+
+    public List<Row> run(int[] fixtureSizes, int window) {
+        int[] sizes = fixtureSizes.clone();
+        Arrays.sort(sizes);
+        List<Row> rows = new ArrayList<>();
+        try (CatalogFixture fixture = new CatalogFixture(window)) {
+            for (int size : sizes) {
+                fixture.growTo(size);
+                long catalogSize = search("", 1).jsonPath().getLong("totalElements");
+                for (String term : TERMS) {
+                    rows.add(measure(size, catalogSize, term));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private Row measure(int fixtureSize, long catalogSize, String term) {
+        long matches = search(term, 20).jsonPath().getLong("totalElements");
+        for (int i = 0; i < warmup; i++) {
+            search(term, 20);
+        }
+        Histogram histogram = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            Response response = search(term, 20);
+            long micros = (System.nanoTime() - start) / 1000;
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Busca por '" + term + "' retornou " + response.statusCode());
+            }
+            histogram.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        }
+        return new Row(fixtureSize, catalogSize, term, matches, histogram);
+    }
+
+    private Response search(String name, int size) {
+        return given(spec).queryParam("name", name).queryParam("size", size).get("/products");
+    }
+
+    public static String format(List<Row> rows) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%10s %10s %-12s %9s %8s %8s %8s %8s%n", "sintéticos", "catálogo",
+                "termo", "achados", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (Row row : rows) {
+            sb.append(String.format(Locale.ROOT, "%10d %10d %-12s %9d %8.2f %8.2f %8.2f %8.2f%n", row.fixtureSize(),
+                    row.catalogSize(), row.term(), row.matches(), row.percentileMillis(50), row.percentileMillis(90),
+                    row.percentileMillis(99), row.latencyMicros().getMaxValue() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Execução pela linha de comando, por exemplo:
+     * <pre>
+     * mvn test-compile exec:java -Dexec.classpathScope=test \
+     *     -Dexec.mainClass=com.devsuperior.dscommerce.load.NameSearchBenchmark \
+     *     -Dsearch.sizes=10000,100000,1000000 -Dsearch.window=64 -Ddscommerce.baseURI=http://localhost:8080
+     * </pre>
+     */
+    public static void main(String[] args) {
+        int[] sizes = sizes(System.getProperty("search.sizes", "10000,100000"));
+        NameSearchBenchmark benchmark = new NameSearchBenchmark(Integer.getInteger("search.warmup", 20),
+                Integer.getInteger("search.samples", 200));
+        System.out.print(format(benchmark.run(sizes, Integer.getInteger("search.window", 32))));
+        System.exit(0);
+    }
+
+    static int[] sizes(String property) {
+        return Arrays.stream(property.split(",")).map(String::trim).filter(s -> !s.isEmpty())
+                .mapToInt(Integer::parseInt).toArray();
+    }
+}
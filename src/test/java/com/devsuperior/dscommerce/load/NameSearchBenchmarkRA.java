@@ -0,0 +1,43 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.RequestSpecs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.*;
+
+// insere e apaga produtos em massa: roda sozinho, sem os demais testes vendo o catálogo mudar
+@Isolated
+public class NameSearchBenchmarkRA {
+
+    @Test
+    public void runShouldMeasureEachSizeAndRemoveFixture() {
+        // tamanhos pequenos por padrão; catálogos grandes com -Dsearch.sizes=10000,100000
+        int[] sizes = NameSearchBenchmark.sizes(System.getProperty("search.sizes", "100,1000"));
+        long before = catalogSize();
+
+        List<NameSearchBenchmark.Row> rows = new NameSearchBenchmark(5, 20).run(sizes, 16);
+
+        System.out.print(NameSearchBenchmark.format(rows));
+        Assertions.assertEquals(sizes.length * NameSearchBenchmark.TERMS.size(), rows.size());
+        for (NameSearchBenchmark.Row row : rows) {
+            Assertions.assertEquals(before + row.fixtureSize(), row.catalogSize());
+            long expected = switch (row.term()) {
+                case CatalogFixture.COMMON_TERM -> row.fixtureSize();
+                case CatalogFixture.RARE_TERM -> row.fixtureSize() / 1000;
+                case "Macbook" -> 1;
+                default -> 0;
+            };
+            Assertions.assertEquals(expected, row.matches(), row.term());
+        }
+        Assertions.assertEquals(before, catalogSize());
+    }
+
+    private static long catalogSize() {
+        return given(RequestSpecs.api()).queryParam("size", 1).get("/products")
+                .jsonPath().getLong("totalElements");
+    }
+}
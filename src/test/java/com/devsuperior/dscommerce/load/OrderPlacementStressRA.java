@@ -0,0 +1,162 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.RequestSpecs;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.path.json.config.JsonPathConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.*;
+
+/**
+ * Muitos clientes fazendo pedidos ao mesmo tempo, cada um numa thread própria ({@link LoadThreads}): confere o total
+ * de cada pedido com os preços do catálogo e, depois, que cada pedido pertence a quem o fez.
+ */
+// mede vazão: roda sozinho, sem os demais testes disputando CPU
+@Isolated
+public class OrderPlacementStressRA {
+
+    private static final int CLIENTS = 200;
+    private static final int ORDERS_PER_CLIENT = 2;
+    // o produto 25 é excluído por ProductControllerRA e não pode ficar preso a pedidos
+    private static final int MAX_PRODUCT_ID = 10;
+    private static final JsonPathConfig DOUBLES = JsonPathConfig.jsonPathConfig()
+            .numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE);
+
+    private record Placed(long id, String username, double expectedTotal) {
+    }
+
+    @Test
+    public void concurrentClientsShouldPlaceOrdersWithCorrectTotalsAndOwnership() throws Exception {
+        Map<Long, Double> prices = prices();
+        Map<String, String> tokens = Map.of(
+                Scenarios.CLIENT_USERNAME, Scenarios.token(Scenario.Login.CLIENT),
+                Scenarios.ADMIN_USERNAME, Scenarios.token(Scenario.Login.ADMIN));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<List<Placed>>> clients = new ArrayList<>();
+        ExecutorService executor = LoadThreads.newPerTaskExecutor("order-client");
+        try {
+            for (int c = 0; c < CLIENTS; c++) {
+                String username = c % 2 == 0 ? Scenarios.CLIENT_USERNAME : Scenarios.ADMIN_USERNAME;
+                SplittableRandom random = new SplittableRandom(c);
+                clients.add(CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    List<Placed> placed = new ArrayList<>();
+                    for (int i = 0; i < ORDERS_PER_CLIENT; i++) {
+                        placed.add(place(username, tokens.get(username), prices, random));
+                    }
+                    return placed;
+                }, executor));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+
+            List<Placed> orders = new ArrayList<>();
+            for (CompletableFuture<List<Placed>> client : clients) {
+                orders.addAll(client.get());
+            }
+            System.out.printf(Locale.ROOT, "%d pedidos de %d clientes em %.2f s: %.1f pedidos/s (%s)%n",
+                    orders.size(), CLIENTS, seconds, orders.size() / seconds,
+                    LoadThreads.virtual() ? "virtual threads" : "platform threads");
+
+            Set<Long> ids = new HashSet<>();
+            orders.forEach(order -> Assertions.assertTrue(ids.add(order.id()), "id repetido: " + order.id()));
+            Assertions.assertEquals(CLIENTS * ORDERS_PER_CLIENT, ids.size());
+
+            List<CompletableFuture<Void>> checks = new ArrayList<>();
+            for (Placed order : orders) {
+                checks.add(CompletableFuture.runAsync(() -> verify(order, tokens), executor));
+            }
+            CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Placed place(String username, String token, Map<Long, Double> prices, SplittableRandom random) {
+        StringBuilder body = new StringBuilder("{\"items\":[");
+        double expectedTotal = 0.0;
+        int items = 1 + random.nextInt(3);
+        for (int i = 0; i < items; i++) {
+            long productId = 1 + random.nextInt(MAX_PRODUCT_ID);
+            int quantity = 1 + random.nextInt(4);
+            // mesma ordem de soma do servidor: o total em double confere exatamente
+            expectedTotal += prices.get(productId) * quantity;
+            body.append(i == 0 ? "" : ",").append("{\"productId\":").append(productId)
+                    .append(",\"quantity\":").append(quantity).append('}');
+        }
+        body.append("]}");
+
+        JsonPath created = given(RequestSpecs.api())
+                .header("Authorization", "Bearer " + token)
+                .contentType(ContentType.JSON)
+                .body(body.toString())
+                .post("/orders")
+                .then()
+                .statusCode(201)
+                .extract()
+                .jsonPath(DOUBLES);
+        Assertions.assertEquals(expectedTotal, created.getDouble("total"), body.toString());
+        Assertions.assertEquals("WAITING_PAYMENT", created.getString("status"));
+        return new Placed(created.getLong("id"), username, expectedTotal);
+    }
+
+    private static void verify(Placed order, Map<String, String> tokens) {
+        JsonPath found = given(RequestSpecs.api())
+                .header("Authorization", "Bearer " + tokens.get(order.username()))
+                .get("/orders/{id}", order.id())
+                .then()
+                .statusCode(200)
+                .extract()
+                .jsonPath(DOUBLES);
+        Assertions.assertEquals(order.expectedTotal(), found.getDouble("total"));
+        Assertions.assertEquals(order.username().equals(Scenarios.CLIENT_USERNAME) ? "Maria Brown" : "Alex Green",
+                found.getString("client.name"));
+        if (order.username().equals(Scenarios.ADMIN_USERNAME)) {
+            // pedido de outro usuário: a cliente não vê
+            given(RequestSpecs.api())
+                    .header("Authorization", "Bearer " + tokens.get(Scenarios.CLIENT_USERNAME))
+                    .get("/orders/{id}", order.id())
+                    .then()
+                    .statusCode(403);
+        }
+    }
+
+    private static Map<Long, Double> prices() {
+        JsonPath page = given(RequestSpecs.api()).get("/products?size=" + MAX_PRODUCT_ID).then().statusCode(200)
+                .extract().jsonPath(DOUBLES);
+        Map<Long, Double> prices = new HashMap<>();
+        List<Map<String, Object>> content = page.getList("content");
+        for (Map<String, Object> product : content) {
+            prices.put(((Number) product.get("id")).longValue(), ((Number) product.get("price")).doubleValue());
+        }
+        Assertions.assertEquals(MAX_PRODUCT_ID, prices.size());
+        return prices;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
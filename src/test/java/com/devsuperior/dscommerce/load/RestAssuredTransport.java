@@ -0,0 +1,33 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.RequestSpecs;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import static io.restassured.RestAssured.*;
+
+/**
+ * Executa os cenários com o RestAssured, da mesma forma que os testes RA.
+ */
+public class RestAssuredTransport implements Transport {
+
+    private final RequestSpecification spec;
+
+    public RestAssuredTransport() {
+        this(RequestSpecs.api());
+    }
+
+    public RestAssuredTransport(RequestSpecification spec) {
+        this.spec = spec;
+    }
+
+    @Override
+    public Result execute(Scenario scenario, String token) {
+        RequestSpecification request = given(spec).queryParams(scenario.queryParams());
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        Response response = request.request(scenario.method(), scenario.path(), scenario.pathParams().toArray());
+        return new Result(response.statusCode(), response.asByteArray().length);
+    }
+}
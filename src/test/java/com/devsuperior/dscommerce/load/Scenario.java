@@ -0,0 +1,33 @@
+package com.devsuperior.dscommerce.load;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Requisição de um teste RA descrita de forma independente do cliente HTTP, para ser executada em carga.
+ *
+ * @param name           nome do cenário no relatório
+ * @param method         método HTTP
+ * @param path           caminho com variáveis, como {@code /products/{id}}
+ * @param pathParams     valores das variáveis do caminho, na ordem
+ * @param queryParams    parâmetros de consulta
+ * @param login          usuário cujo token vai no header Authorization
+ * @param expectedStatus status esperado; outro status conta como erro
+ */
+public record Scenario(String name, String method, String path, List<Object> pathParams,
+                       Map<String, Object> queryParams, Login login, int expectedStatus) {
+
+    public enum Login {
+        ANONYMOUS, CLIENT, ADMIN
+    }
+
+    public Scenario {
+        pathParams = List.copyOf(pathParams);
+        queryParams = Map.copyOf(queryParams);
+    }
+
+    /** Método e caminho com variáveis, que identificam o endpoint nas métricas. */
+    public String endpoint() {
+        return method + " " + path;
+    }
+}
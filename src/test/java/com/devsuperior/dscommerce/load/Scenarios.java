@@ -0,0 +1,49 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.tests.TokenUtil;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cenários de leitura dos testes ProductControllerRA e OrderControllerRA, com os mesmos dados.
+ */
+public final class Scenarios {
+
+    public static final String CLIENT_USERNAME = "maria@gmail.com";
+    public static final String CLIENT_PASSWORD = "123456";
+    public static final String ADMIN_USERNAME = "alex@gmail.com";
+    public static final String ADMIN_PASSWORD = "123456";
+
+    public static final Scenario PRODUCT_FIND_BY_ID = new Scenario("product findById", "GET", "/products/{id}",
+            List.of(2L), Map.of(), Scenario.Login.ANONYMOUS, 200);
+
+    public static final Scenario PRODUCT_FIND_ALL_PAGED = new Scenario("product findAll paged", "GET", "/products",
+            List.of(), Map.of("page", 0), Scenario.Login.ANONYMOUS, 200);
+
+    public static final Scenario PRODUCT_FIND_BY_NAME = new Scenario("product findAll by name", "GET", "/products",
+            List.of(), Map.of("name", "Macbook"), Scenario.Login.ANONYMOUS, 200);
+
+    public static final Scenario ORDER_FIND_BY_ID_ADMIN = new Scenario("order findById admin", "GET", "/orders/{id}",
+            List.of(1L), Map.of(), Scenario.Login.ADMIN, 200);
+
+    public static final Scenario ORDER_FIND_BY_ID_CLIENT = new Scenario("order findById client", "GET", "/orders/{id}",
+            List.of(1L), Map.of(), Scenario.Login.CLIENT, 200);
+
+    private Scenarios() {
+    }
+
+    public static List<Scenario> readOnly() {
+        return List.of(PRODUCT_FIND_BY_ID, PRODUCT_FIND_ALL_PAGED, PRODUCT_FIND_BY_NAME,
+                ORDER_FIND_BY_ID_ADMIN, ORDER_FIND_BY_ID_CLIENT);
+    }
+
+    /** Token do usuário do cenário, ou {@code null} para requisições anônimas. */
+    public static String token(Scenario.Login login) {
+        return switch (login) {
+            case ANONYMOUS -> null;
+            case CLIENT -> TokenUtil.obtainAccesToken(CLIENT_USERNAME, CLIENT_PASSWORD);
+            case ADMIN -> TokenUtil.obtainAccesToken(ADMIN_USERNAME, ADMIN_PASSWORD);
+        };
+    }
+}
@@ -0,0 +1,276 @@
+package com.devsuperior.dscommerce.load;
+
+import com.devsuperior.dscommerce.DscommerceRestassuredApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Tempo até a primeira resposta e memória residente do {@link DscommerceRestassuredApplication}, subindo o app em
+ * JVMs novas com cada combinação de otimizações de partida.
+ * <p>
+ * As variantes são: sem nada, perfil {@code fast} (inicialização preguiçosa e autoconfiguração enxuta), o mesmo
+ * perfil sem a inicialização preguiçosa, como o {@code ApiServer} sobe o app nos testes, perfil {@code fast} com o
+ * código gerado pelo Spring AOT (se {@code process-aot} rodou) e o mesmo com um arquivo AppCDS,
+ * gerado antes por uma execução de treino que sai logo após o refresh do contexto. O AppCDS só aceita classes em
+ * jars, então as classes do app são empacotadas num jar em {@code target/startup}.
+ * <p>
+ * Cada execução mede do {@code start()} do processo até o primeiro {@code 200} de {@code GET /products/1}, e a RSS
+ * ({@code /proc/<pid>/status}, só no Linux) nesse instante.
+ */
+public final class StartupBenchmark {
+
+    private static final String AOT_INITIALIZER = DscommerceRestassuredApplication.class.getName()
+            .replace('.', '/') + "__ApplicationContextInitializer.class";
+    private static final String FAST_PROFILE = "-Dspring.profiles.active=fast";
+    private static final String EAGER_INIT = "-Dspring.main.lazy-initialization=false";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    public record Variant(String name, List<String> jvmArgs) {
+    }
+
+    /**
+     * @param rssBytes memória residente logo após a primeira resposta, ou -1 fora do Linux
+     */
+    public record Sample(Duration timeToFirstRequest, long rssBytes) {
+    }
+
+    public record Row(Variant variant, List<Sample> samples) {
+
+        public Duration medianTimeToFirstRequest() {
+            return samples.stream().map(Sample::timeToFirstRequest).sorted().toList().get(samples.size() / 2);
+        }
+
+        public long medianRssBytes() {
+            return samples.stream().mapToLong(Sample::rssBytes).sorted().toArray()[samples.size() / 2];
+        }
+    }
+
+    private final Path workDir;
+    private final String classpath;
+    private final boolean aot;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    /**
+     * @param classesDir     classes do app, com as geradas pelo AOT se houver
+     * @param dependencyJars jars de runtime do app
+     */
+    public StartupBenchmark(Path workDir, Path classesDir, List<Path> dependencyJars) {
+        this.workDir = workDir;
+        this.aot = Files.exists(classesDir.resolve(AOT_INITIALIZER));
+        List<String> entries = new ArrayList<>();
+        entries.add(jar(classesDir, workDir.resolve("app.jar")).toString());
+        dependencyJars.forEach(jar -> entries.add(jar.toString()));
+        this.classpath = String.join(File.pathSeparator, entries);
+    }
+
+    public List<Variant> variants() {
+        List<Variant> variants = new ArrayList<>();
+        variants.add(new Variant("padrão", List.of()));
+        variants.add(new Variant("fast", List.of(FAST_PROFILE)));
+        variants.add(new Variant("fast sem lazy", List.of(FAST_PROFILE, EAGER_INIT)));
+        if (aot) {
+            variants.add(new Variant("fast+aot", optimizedArgs()));
+        }
+        variants.add(new Variant(aot ? "fast+aot+cds" : "fast+cds",
+                concat(optimizedArgs(), "-XX:SharedArchiveFile=" + archive(), "-Xshare:auto")));
+        return variants;
+    }
+
+    private List<String> optimizedArgs() {
+        return aot ? List.of(FAST_PROFILE, "-Dspring.aot.enabled=true") : List.of(FAST_PROFILE);
+    }
+
+    private Path archive() {
+        return workDir.resolve("app.jsa");
+    }
+
+    public List<Row> run(int runs) {
+        trainCds();
+        List<Row> rows = new ArrayList<>();
+        for (Variant variant : variants()) {
+            List<Sample> samples = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                samples.add(measure(variant, i));
+            }
+            rows.add(new Row(variant, samples));
+        }
+        return rows;
+    }
+
+    public static String format(List<Row> rows) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-16s %5s %12s %10s %10s %10s%n",
+                "variante", "runs", "1ª resp. ms", "mín ms", "máx ms", "RSS MB"));
+        for (Row row : rows) {
+            long[] millis = row.samples().stream().mapToLong(s -> s.timeToFirstRequest().toMillis()).sorted()
+                    .toArray();
+            long rss = row.medianRssBytes();
+            sb.append(String.format(Locale.ROOT, "%-16s %5d %12d %10d %10d %10s%n", row.variant().name(),
+                    millis.length, row.medianTimeToFirstRequest().toMillis(), millis[0], millis[millis.length - 1],
+                    rss < 0 ? "n/d" : String.format(Locale.ROOT, "%.1f", rss / 1048576.0)));
+        }
+        return sb.toString();
+    }
+
+    /** Gera o arquivo AppCDS com as classes carregadas até o contexto do Spring subir. */
+    private void trainCds() {
+        List<String> args = concat(optimizedArgs(), "-XX:ArchiveClassesAtExit=" + archive(),
+                "-Dspring.context.exit=onRefresh");
+        Process process = start(args, freePort(), workDir.resolve("cds-training.log"));
+        try {
+            if (!process.waitFor(STARTUP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS) || process.exitValue() != 0) {
+                process.destroyForcibly();
+                throw new IllegalStateException("Treino do AppCDS falhou, ver " + workDir.resolve("cds-training.log"));
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Sample measure(Variant variant, int run) {
+        int port = freePort();
+        // nome do arquivo em ASCII: o locale da JVM pode não mapear acentos
+        String fileName = Normalizer.normalize(variant.name(), Normalizer.Form.NFD).replaceAll("[^A-Za-z0-9]", "");
+        Path log = workDir.resolve(fileName + "-" + run + ".log");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/products/1"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long start = System.nanoTime();
+        Process process = start(variant.jvmArgs(), port, log);
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (true) {
+                if (!process.isAlive() || System.nanoTime() > deadline) {
+                    throw new IllegalStateException(variant.name() + " não respondeu, ver " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (IOException e) {
+                    // servidor ainda não está ouvindo
+                }
+                Thread.sleep(10);
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            return new Sample(elapsed, rss(process.pid()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            process.destroy();
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Process start(List<String> jvmArgs, int port, Path log) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(DscommerceRestassuredApplication.class.getName());
+        command.add("--server.port=" + port);
+        try {
+            return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long rss(long pid) {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:")).findFirst()
+                    .map(line -> Long.parseLong(line.replaceAll("\\D", "")) * 1024).orElse(-1L);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path jar(Path classesDir, Path target) {
+        try {
+            Files.createDirectories(target.getParent());
+            try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(target));
+                 Stream<Path> files = Files.walk(classesDir)) {
+                // entradas de diretório também: o component scan do Spring precisa delas para achar os pacotes
+                for (Path file : files.filter(f -> !f.equals(classesDir)).sorted().toList()) {
+                    String name = classesDir.relativize(file).toString().replace(File.separatorChar, '/');
+                    if (Files.isDirectory(file)) {
+                        jar.putNextEntry(new JarEntry(name + "/"));
+                    } else {
+                        jar.putNextEntry(new JarEntry(name));
+                        Files.copy(file, (OutputStream) jar);
+                    }
+                    jar.closeEntry();
+                }
+            }
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> concat(List<String> list, String... more) {
+        List<String> result = new ArrayList<>(list);
+        result.addAll(Arrays.asList(more));
+        return result;
+    }
+
+    /**
+     * Execução pelo perfil Maven, que roda o AOT antes e passa os jars de runtime:
+     * <pre>
+     * mvn -Pfast-startup -DskipTests verify -Dstartup.runs=5
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        Path workDir = Path.of(System.getProperty("startup.dir", "target/startup"));
+        Path classes = Path.of(System.getProperty("startup.classes", "target/classes"));
+        Path classpathFile = Path.of(System.getProperty("startup.classpathFile",
+                workDir.resolve("classpath.txt").toString()));
+        List<Path> jars = Arrays.stream(Files.readString(classpathFile).trim().split(File.pathSeparator))
+                .filter(entry -> !entry.isBlank()).map(Path::of).toList();
+        StartupBenchmark benchmark = new StartupBenchmark(workDir, classes, jars);
+        System.out.print(format(benchmark.run(Integer.getInteger("startup.runs", 5))));
+        System.exit(0);
+    }
+}
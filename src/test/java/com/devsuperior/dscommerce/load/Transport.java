@@ -0,0 +1,26 @@
+package com.devsuperior.dscommerce.load;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Cliente HTTP que executa um {@link Scenario}.
+ */
+public interface Transport {
+
+    record Result(int status, long bytes) {
+    }
+
+    /**
+     * @param token token Bearer, ou {@code null} para requisição anônima
+     */
+    Result execute(Scenario scenario, String token);
+
+    /**
+     * Execução sem prender a thread de quem chama. Clientes síncronos ocupam uma thread de {@code executor} durante
+     * a requisição; clientes assíncronos não precisam dele.
+     */
+    default CompletableFuture<Result> executeAsync(Scenario scenario, String token, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> execute(scenario, token), executor);
+    }
+}
@@ -0,0 +1,57 @@
+package com.devsuperior.dscommerce.load;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Mesma carga aberta nos dois transportes, RestAssured e {@link HttpClientTransport}, comparando vazão, p99 e
+ * requisições por segundo de CPU. Rodar contra um servidor externo ({@code -Ddscommerce.baseURI}) para que a CPU
+ * medida seja só a do gerador.
+ */
+public final class TransportBenchmark {
+
+    private TransportBenchmark() {
+    }
+
+    public static Map<String, LoadReport> run(LoadRunner.Config config) {
+        Map<String, LoadReport> reports = new LinkedHashMap<>();
+        reports.put("restassured", new LoadRunner(new RestAssuredTransport()).run(config));
+        reports.put("httpclient", new LoadRunner(new HttpClientTransport()).run(config));
+        return reports;
+    }
+
+    public static String format(Map<String, LoadReport> reports) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-12s %9s %7s %9s %9s %14s%n",
+                "transporte", "reqs", "erros", "req/s", "p99 ms", "req/s de CPU"));
+        reports.forEach((name, report) -> {
+            double p99 = report.scenarios().stream().mapToDouble(s -> s.percentileMillis(99)).max().orElse(0);
+            sb.append(String.format(Locale.ROOT, "%-12s %9d %7d %9.1f %9.2f %14.1f%n", name, report.totalCount(),
+                    report.totalErrors(), report.totalCount() / (report.elapsed().toNanos() / 1e9), p99,
+                    report.requestsPerCpuSecond()));
+        });
+        return sb.toString();
+    }
+
+    /**
+     * Execução pela linha de comando, por exemplo:
+     * <pre>
+     * mvn test-compile exec:java -Dexec.classpathScope=test \
+     *     -Dexec.mainClass=com.devsuperior.dscommerce.load.TransportBenchmark \
+     *     -Dload.rate=2000 -Dload.duration=PT30S -Ddscommerce.baseURI=http://localhost:8080
+     * </pre>
+     */
+    public static void main(String[] args) {
+        LoadRunner.Config config = LoadRunner.Config.openLoop(
+                Double.parseDouble(System.getProperty("load.rate", "500")),
+                Integer.getInteger("load.maxInFlight", 10_000),
+                Duration.parse(System.getProperty("load.warmup", "PT5S")),
+                Duration.parse(System.getProperty("load.duration", "PT30S")), Scenarios.readOnly());
+        Map<String, LoadReport> reports = run(config);
+        reports.forEach((name, report) -> System.out.print(name + ": " + report.format()));
+        System.out.print(format(reports));
+        System.exit(0);
+    }
+}
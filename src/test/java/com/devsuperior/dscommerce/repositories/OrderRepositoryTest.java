@@ -0,0 +1,124 @@
+package com.devsuperior.dscommerce.repositories;
+
+import com.devsuperior.dscommerce.entities.Category;
+import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.entities.OrderItem;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.entities.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OrderRepositoryTest {
+
+    private static final User CLIENT = new User(1L, "Maria Brown", "maria@gmail.com", "123456",
+            Set.of("ROLE_CLIENT"));
+
+    private OrderRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        repository = new OrderRepository();
+    }
+
+    @Test
+    public void insertShouldKeepPrecomputedTotal() {
+        Order order = order(repository.nextId(), item(1, 90.5, 2), item(3, 1250.0, 1));
+
+        Assertions.assertTrue(repository.insert(order));
+        Assertions.assertEquals(1431.0, repository.findById(order.getId()).orElseThrow().getTotal());
+    }
+
+    @Test
+    public void retireProductShouldFailWhenOrderReferencesIt() {
+        Assertions.assertTrue(repository.insert(order(repository.nextId(), item(1, 10.0, 1))));
+
+        Assertions.assertEquals(OrderRepository.Retirement.REFERENCED, repository.retireProduct(1L));
+        Assertions.assertEquals(OrderRepository.Retirement.RETIRED, repository.retireProduct(2L));
+    }
+
+    @Test
+    public void retireProductShouldReportProductAlreadyRetired() {
+        Assertions.assertEquals(OrderRepository.Retirement.RETIRED, repository.retireProduct(2L));
+
+        // segunda exclusão do mesmo produto: não é falha de integridade
+        Assertions.assertEquals(OrderRepository.Retirement.ALREADY_RETIRED, repository.retireProduct(2L));
+    }
+
+    @Test
+    public void insertShouldRejectWholeOrderWhenAnyProductIsRetired() {
+        Assertions.assertEquals(OrderRepository.Retirement.RETIRED, repository.retireProduct(2L));
+        Order order = order(repository.nextId(), item(3, 10.0, 1), item(2, 20.0, 1));
+
+        Assertions.assertFalse(repository.insert(order));
+        Assertions.assertTrue(repository.findById(order.getId()).isEmpty());
+        // o item do produto 3 já contado foi desfeito
+        Assertions.assertEquals(OrderRepository.Retirement.RETIRED, repository.retireProduct(3L));
+    }
+
+    @Test
+    public void concurrentInsertsAndRetiresShouldNeverLeaveOrderWithRetiredProduct() throws InterruptedException {
+        int products = 50;
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger[] inserted = new AtomicInteger[products + 1];
+        boolean[] retired = new boolean[products + 1];
+        for (int p = 1; p <= products; p++) {
+            inserted[p] = new AtomicInteger();
+        }
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(() -> {
+                await(start);
+                for (int p = 1; p <= products; p++) {
+                    if (repository.insert(order(repository.nextId(), item(p, 10.0, 1)))) {
+                        inserted[p].incrementAndGet();
+                    }
+                }
+            }));
+        }
+        workers.add(new Thread(() -> {
+            await(start);
+            for (int p = 1; p <= products; p++) {
+                retired[p] = repository.retireProduct((long) p) == OrderRepository.Retirement.RETIRED;
+            }
+        }));
+        workers.forEach(Thread::start);
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        for (int p = 1; p <= products; p++) {
+            // ou a exclusão venceu e nenhum pedido entrou, ou algum pedido entrou e a exclusão falhou
+            Assertions.assertEquals(retired[p], inserted[p].get() == 0, "produto " + p);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Order order(Long id, OrderItem... items) {
+        return new Order(id, Instant.now(), OrderStatus.WAITING_PAYMENT, CLIENT, null, List.of(items));
+    }
+
+    private static OrderItem item(long productId, double price, int quantity) {
+        Product product = new Product(productId, "Produto " + productId, "Descrição do produto", price, null,
+                List.of(new Category(1L, "Livros")));
+        return new OrderItem(product, quantity, price);
+    }
+}
@@ -0,0 +1,121 @@
+package com.devsuperior.dscommerce.repositories;
+
+import com.devsuperior.dscommerce.entities.Category;
+import com.devsuperior.dscommerce.entities.Product;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+public class ProductRepositoryTest {
+
+    private static final List<String> WORDS = List.of("Macbook", "Pro", "PC", "Gamer", "Smart", "TV", "Rails",
+            "for", "Dummies", "ção", "Ab");
+    private static final List<String> TERMS = List.of("", "m", "pc", "ame", "Gamer", "macbook pro", "TV",
+            "ção", "xyz", "r", "Dummies");
+
+    private ProductRepository repository;
+    // modelo da busca: varredura ordenada por id, como antes do índice
+    private TreeMap<Long, Product> expected;
+    private SplittableRandom random;
+
+    @BeforeEach
+    public void setUp() {
+        repository = new ProductRepository();
+        expected = new TreeMap<>();
+        random = new SplittableRandom(42);
+    }
+
+    @Test
+    public void searchByNameShouldMatchLinearScanForAllTermsAndPages() {
+        for (long id = 1; id <= 300; id++) {
+            save(id, randomName());
+        }
+
+        assertSameAsScan();
+    }
+
+    @Test
+    public void searchByNameShouldFollowDeletesAndRenames() {
+        for (long id = 1; id <= 300; id++) {
+            save(id, randomName());
+        }
+        for (long id = 1; id <= 300; id += 2) {
+            repository.deleteById(id);
+            expected.remove(id);
+        }
+        for (long id = 2; id <= 300; id += 6) {
+            save(id, randomName());
+        }
+        // ids fora de ordem também entram ordenados
+        save(1, "Macbook Air");
+
+        assertSameAsScan();
+    }
+
+    @Test
+    public void searchByNameShouldKeepOrderAndPagination() {
+        save(5, "PC Gamer Hera");
+        save(3, "Macbook Pro");
+        save(4, "PC Gamer");
+        save(9, "PC Gamer Weed");
+
+        ProductRepository.SearchResult first = repository.searchByName("gamer", 0, 2);
+        ProductRepository.SearchResult second = repository.searchByName("gamer", 1, 2);
+
+        Assertions.assertEquals(3, first.totalElements());
+        Assertions.assertEquals(List.of(4L, 5L), first.content().stream().map(Product::getId).toList());
+        Assertions.assertEquals(List.of(9L), second.content().stream().map(Product::getId).toList());
+    }
+
+    private void assertSameAsScan() {
+        for (String term : TERMS) {
+            for (int size : new int[]{1, 7, 20, 1000}) {
+                for (int page = 0; page < 4; page++) {
+                    ProductRepository.SearchResult actual = repository.searchByName(term, page, size);
+                    List<Long> matches = scan(term);
+                    int from = Math.min(page * size, matches.size());
+                    int to = Math.min(from + size, matches.size());
+                    String context = "term=" + term + " page=" + page + " size=" + size;
+                    Assertions.assertEquals(matches.size(), actual.totalElements(), context);
+                    Assertions.assertEquals(matches.subList(from, to),
+                            actual.content().stream().map(Product::getId).toList(), context);
+                }
+            }
+        }
+    }
+
+    private List<Long> scan(String term) {
+        String upper = term.toUpperCase(Locale.ROOT);
+        List<Long> ids = new ArrayList<>();
+        for (Product product : expected.values()) {
+            if (product.getName().toUpperCase(Locale.ROOT).contains(upper)) {
+                ids.add(product.getId());
+            }
+        }
+        return ids;
+    }
+
+    private void save(long id, String name) {
+        Product product = new Product(id, name, "Descrição do produto", 10.0, "", List.of(new Category(1L, "Livros")));
+        repository.save(product);
+        expected.put(id, product);
+    }
+
+    private String randomName() {
+        int words = 1 + random.nextInt(4);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS.get(random.nextInt(WORDS.size())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.services.exceptions.UnauthorizedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class VerifiedTokenCacheTest {
+
+    private static final AuthService.Principal ALEX = new AuthService.Principal(2L, "alex@gmail.com",
+            Set.of("ROLE_ADMIN", "ROLE_CLIENT"));
+
+    private Instant now;
+    private VerifiedTokenCache cache;
+    private AtomicInteger verifications;
+
+    @BeforeEach
+    public void setUp() {
+        now = Instant.parse("2024-01-01T00:00:00Z");
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        cache = new VerifiedTokenCache(3, 2, Duration.ofSeconds(60), clock);
+        verifications = new AtomicInteger();
+    }
+
+    @Test
+    public void authenticateShouldVerifyValidTokenOnlyOnceUntilItExpires() {
+        Function<String, VerifiedTokenCache.Verification> verifier = validUntil(now.plusSeconds(100));
+
+        Assertions.assertEquals(ALEX, cache.authenticate("a.b.c", verifier));
+        Assertions.assertEquals(ALEX, cache.authenticate("a.b.c", verifier));
+        now = now.plusSeconds(99);
+        Assertions.assertEquals(ALEX, cache.authenticate("a.b.c", verifier));
+
+        Assertions.assertEquals(1, verifications.get());
+        Assertions.assertEquals(2, cache.stats().hits());
+
+        // vencido: volta a verificar, e a verificação decide
+        now = now.plusSeconds(1);
+        cache.authenticate("a.b.c", verifier);
+        Assertions.assertEquals(2, verifications.get());
+    }
+
+    @Test
+    public void authenticateShouldRepeatRejectionWithSameMessageUntilTtl() {
+        Function<String, VerifiedTokenCache.Verification> verifier = token -> {
+            verifications.incrementAndGet();
+            throw new UnauthorizedException("Token inválido");
+        };
+
+        for (int i = 0; i < 3; i++) {
+            UnauthorizedException e = Assertions.assertThrows(UnauthorizedException.class,
+                    () -> cache.authenticate("a.b.cxpto", verifier));
+            Assertions.assertEquals("Token inválido", e.getMessage());
+        }
+        Assertions.assertEquals(1, verifications.get());
+        Assertions.assertEquals(2, cache.stats().negativeHits());
+
+        now = now.plusSeconds(60);
+        Assertions.assertThrows(UnauthorizedException.class, () -> cache.authenticate("a.b.cxpto", verifier));
+        Assertions.assertEquals(2, verifications.get());
+    }
+
+    @Test
+    public void authenticateShouldStayWithinBounds() {
+        Function<String, VerifiedTokenCache.Verification> verifier = validUntil(now.plusSeconds(100));
+        Function<String, VerifiedTokenCache.Verification> rejecting = token -> {
+            throw new UnauthorizedException("Token inválido");
+        };
+
+        for (int i = 0; i < 10; i++) {
+            cache.authenticate("token-" + i, verifier);
+            String bad = "bad-" + i;
+            Assertions.assertThrows(UnauthorizedException.class, () -> cache.authenticate(bad, rejecting));
+        }
+
+        Assertions.assertTrue(cache.stats().size() <= 3);
+        Assertions.assertTrue(cache.stats().negativeSize() <= 2);
+        Assertions.assertEquals(0.0, cache.stats().hitRatio());
+    }
+
+    @Test
+    public void authenticateShouldEvictOnlyLeastRecentlyUsedEntries() {
+        Function<String, VerifiedTokenCache.Verification> verifier = validUntil(now.plusSeconds(100));
+        Function<String, VerifiedTokenCache.Verification> rejecting = token -> {
+            throw new UnauthorizedException("Token inválido");
+        };
+        cache.authenticate("em-uso", verifier);
+        cache.authenticate("a", verifier);
+        cache.authenticate("b", verifier);
+
+        // enxurrada de tokens inválidos: não toca nos válidos
+        for (int i = 0; i < 100; i++) {
+            String bad = "bad-" + i;
+            Assertions.assertThrows(UnauthorizedException.class, () -> cache.authenticate(bad, rejecting));
+        }
+        // o token em uso é acessado antes de entrar um novo, então quem sai é o "a"
+        cache.authenticate("em-uso", verifier);
+        cache.authenticate("c", verifier);
+        cache.authenticate("em-uso", verifier);
+        cache.authenticate("b", verifier);
+
+        Assertions.assertEquals(4, verifications.get());
+        Assertions.assertEquals(3, cache.stats().size());
+        Assertions.assertEquals(2, cache.stats().negativeSize());
+        cache.authenticate("a", verifier);
+        Assertions.assertEquals(5, verifications.get());
+    }
+
+    private Function<String, VerifiedTokenCache.Verification> validUntil(Instant expiresAt) {
+        return token -> {
+            verifications.incrementAndGet();
+            return new VerifiedTokenCache.Verification(ALEX, expiresAt.getEpochSecond());
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.devsuperior.dscommerce.tests;
+
+/**
+ * Valores de {@code Accept-Encoding} que pedem uma única codificação da resposta.
+ * <p>
+ * O RestAssured acrescenta {@code gzip,deflate} ao header de toda requisição, a menos que as duas já estejam citadas,
+ * e trocar esse comportamento por requisição mexe nos interceptadores do cliente HTTP compartilhado pelos testes
+ * paralelos. Por isso as codificações indesejadas aparecem com {@code q=0}: ficam citadas e o servidor as recusa. A
+ * descompressão segue o {@code Content-Encoding} da resposta, então o corpo lido pelo teste é sempre o original.
+ */
+public enum AcceptEncoding {
+
+    IDENTITY("identity, gzip;q=0, deflate;q=0", null),
+    GZIP("gzip, deflate;q=0", "gzip"),
+    DEFLATE("deflate, gzip;q=0", "deflate");
+
+    private final String header;
+    private final String contentEncoding;
+
+    AcceptEncoding(String header, String contentEncoding) {
+        this.header = header;
+        this.contentEncoding = contentEncoding;
+    }
+
+    /** Valor do header {@code Accept-Encoding}. */
+    public String header() {
+        return header;
+    }
+
+    /** {@code Content-Encoding} esperado quando o servidor comprime a resposta; {@code null} sem compressão. */
+    public String contentEncoding() {
+        return contentEncoding;
+    }
+}
@@ -0,0 +1,60 @@
+package com.devsuperior.dscommerce.tests;
+
+import com.devsuperior.dscommerce.DscommerceRestassuredApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+/**
+ * Endereço da API testada pelas classes *RA.
+ * <p>
+ * Com {@code -Ddscommerce.baseURI=http://localhost:8080} os testes apontam para o projeto dscommerce em execução.
+ * Sem a propriedade, o {@link DscommerceRestassuredApplication} sobe uma vez por JVM de teste, em porta aleatória,
+ * com os dados em memória e a autoconfiguração enxuta do perfil {@code fast}, já que a subida entra no tempo de toda
+ * execução dos testes. A inicialização preguiçosa do perfil fica de fora: ela só adia a criação dos beans para a
+ * primeira requisição, que nos testes vem logo em seguida. Testes de comportamento que só o servidor em memória tem, como o
+ * cache de tokens, consultam {@link #embedded()}.
+ */
+public final class ApiServer {
+
+    public static final String BASE_URI_PROPERTY = "dscommerce.baseURI";
+
+    private static volatile String baseURI;
+    private static boolean embedded;
+
+    private ApiServer() {
+    }
+
+    public static String baseURI() {
+        String uri = baseURI;
+        if (uri == null) {
+            synchronized (ApiServer.class) {
+                uri = baseURI;
+                if (uri == null) {
+                    uri = System.getProperty(BASE_URI_PROPERTY);
+                    if (uri == null || uri.isBlank()) {
+                        uri = start();
+                        embedded = true;
+                    }
+                    baseURI = uri;
+                }
+            }
+        }
+        return uri;
+    }
+
+    /** Se a API testada é o servidor em memória que esta JVM subiu. */
+    public static boolean embedded() {
+        // a escrita volátil de baseURI publica o embedded
+        baseURI();
+        return embedded;
+    }
+
+    private static String start() {
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(DscommerceRestassuredApplication.class)
+                        // argumentos de linha de comando têm precedência sobre o application.properties
+                        .run("--server.port=0", "--spring.main.banner-mode=off", "--spring.profiles.active=fast",
+                                "--spring.main.lazy-initialization=false");
+        return "http://localhost:" + context.getWebServer().getPort();
+    }
+}
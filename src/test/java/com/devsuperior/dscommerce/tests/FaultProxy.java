@@ -0,0 +1,491 @@
+package com.devsuperior.dscommerce.tests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Proxy TCP local entre os testes e a API, que degrada a rede de forma controlada:
+ * <pre>
+ * try (FaultProxy proxy = FaultProxy.start(ApiServer.baseURI())) {
+ *     proxy.faults(FaultProxy.Faults.NONE.withJitter(Duration.ofMillis(200)));
+ *     given(RequestSpecs.api(proxy.baseURI())).get("/products").then().statusCode(200);
+ * }
+ * </pre>
+ * As falhas de {@link Faults} valem para cada bloco de bytes lido de um lado e repassado ao outro: latência fixa
+ * mais um sorteio entre zero e o jitter (sem reordenar os blocos), limite de banda por sentido de cada conexão,
+ * fragmentação em blocos de {@code chunkBytes} entregues em leituras separadas e, com
+ * {@code resetProbability}, o reset da conexão do cliente (RST, via {@code SO_LINGER} zero) ao receber uma
+ * requisição. {@link #resetNext(int)} e {@link #stallNext(int)} fazem o mesmo de forma determinística: resetam ou
+ * engolem, sem nunca responder, as próximas requisições.
+ * <p>
+ * Uma thread só, com um {@link Selector}, atende todas as conexões. Sem falhas configuradas os bytes lidos são
+ * escritos direto do buffer de leitura, sem cópia nem fila, e o proxy só acrescenta uma passagem pelo loopback.
+ */
+public final class FaultProxy implements AutoCloseable {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    // acima disso o proxy para de ler do lado que envia até a fila esvaziar
+    private static final long MAX_QUEUED_BYTES = 1024 * 1024;
+    private static final long FRAGMENT_GAP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * @param latency          atraso fixo de cada bloco, nos dois sentidos
+     * @param jitter           atraso extra sorteado entre zero e este valor
+     * @param bytesPerSecond   banda de cada sentido de cada conexão, ou 0 sem limite
+     * @param chunkBytes       tamanho máximo dos blocos entregues, ou 0 para repassar como lidos
+     * @param resetProbability chance de resetar a conexão a cada requisição recebida do cliente
+     */
+    public record Faults(Duration latency, Duration jitter, long bytesPerSecond, int chunkBytes,
+                         double resetProbability) {
+
+        public static final Faults NONE = new Faults(Duration.ZERO, Duration.ZERO, 0, 0, 0);
+
+        public Faults {
+            if (latency.isNegative() || jitter.isNegative() || bytesPerSecond < 0 || chunkBytes < 0
+                    || resetProbability < 0 || resetProbability > 1) {
+                throw new IllegalArgumentException("Falhas inválidas: " + this);
+            }
+        }
+
+        public Faults withLatency(Duration latency) {
+            return new Faults(latency, jitter, bytesPerSecond, chunkBytes, resetProbability);
+        }
+
+        public Faults withJitter(Duration jitter) {
+            return new Faults(latency, jitter, bytesPerSecond, chunkBytes, resetProbability);
+        }
+
+        public Faults withBandwidth(long bytesPerSecond) {
+            return new Faults(latency, jitter, bytesPerSecond, chunkBytes, resetProbability);
+        }
+
+        public Faults withChunkBytes(int chunkBytes) {
+            return new Faults(latency, jitter, bytesPerSecond, chunkBytes, resetProbability);
+        }
+
+        public Faults withResetProbability(double resetProbability) {
+            return new Faults(latency, jitter, bytesPerSecond, chunkBytes, resetProbability);
+        }
+
+        boolean delays() {
+            return !latency.isZero() || !jitter.isZero() || bytesPerSecond > 0 || chunkBytes > 0;
+        }
+    }
+
+    public record Stats(long connections, long resets, long stalls, long bytesUp, long bytesDown) {
+    }
+
+    private final InetSocketAddress target;
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread thread;
+    private final Set<Pipe> pipes = new HashSet<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final SplittableRandom random = new SplittableRandom();
+
+    private volatile Faults faults = Faults.NONE;
+    private volatile boolean running = true;
+    private final AtomicInteger resetNext = new AtomicInteger();
+    private final AtomicInteger stallNext = new AtomicInteger();
+
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+    private final LongAdder bytesUp = new LongAdder();
+    private final LongAdder bytesDown = new LongAdder();
+
+    private FaultProxy(InetSocketAddress target) throws IOException {
+        this.target = target;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.thread = new Thread(this::loop, "fault-proxy-" + port());
+        thread.setDaemon(true);
+    }
+
+    /** Sobe o proxy numa porta livre do loopback, repassando para o host e a porta de {@code baseUri}. */
+    public static FaultProxy start(String baseUri) {
+        URI uri = URI.create(baseUri);
+        int port = uri.getPort() > 0 ? uri.getPort() : "https".equals(uri.getScheme()) ? 443 : 80;
+        try {
+            FaultProxy proxy = new FaultProxy(new InetSocketAddress(uri.getHost(), port));
+            proxy.thread.start();
+            return proxy;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Endereço para usar no lugar do {@code baseUri} original. */
+    public String baseURI() {
+        return "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + port();
+    }
+
+    public int port() {
+        return server.socket().getLocalPort();
+    }
+
+    /** Troca as falhas aplicadas, inclusive nas conexões já abertas. */
+    public FaultProxy faults(Faults faults) {
+        this.faults = faults;
+        selector.wakeup();
+        return this;
+    }
+
+    /** Reseta a conexão das próximas {@code requests} requisições recebidas. */
+    public FaultProxy resetNext(int requests) {
+        resetNext.addAndGet(requests);
+        return this;
+    }
+
+    /** Engole as próximas {@code requests} requisições: nada chega à API e a conexão fica sem resposta. */
+    public FaultProxy stallNext(int requests) {
+        stallNext.addAndGet(requests);
+        return this;
+    }
+
+    public Stats stats() {
+        return new Stats(connections.sum(), resets.sum(), stalls.sum(), bytesUp.sum(), bytesDown.sum());
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loop() {
+        try {
+            while (running) {
+                long timeout = nextDueMillis();
+                if (timeout < 0) {
+                    selector.selectNow();
+                } else {
+                    selector.select(timeout);
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (key.isValid()) {
+                        handle(key);
+                    }
+                }
+                selector.selectedKeys().clear();
+                long now = System.nanoTime();
+                for (Pipe pipe : new ArrayList<>(pipes)) {
+                    pipe.flushDue(now);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (Pipe pipe : new ArrayList<>(pipes)) {
+                pipe.close();
+            }
+            closeQuietly(server);
+            closeQuietly(selector);
+        }
+    }
+
+    /** Milissegundos até o próximo bloco atrasado vencer: 0 para esperar sem prazo, -1 se já venceu. */
+    private long nextDueMillis() {
+        long next = Long.MAX_VALUE;
+        for (Pipe pipe : pipes) {
+            next = Math.min(next, pipe.down.nextDue());
+            if (!pipe.connecting) {
+                next = Math.min(next, pipe.up.nextDue());
+            }
+        }
+        if (next == Long.MAX_VALUE) {
+            return 0;
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(next - System.nanoTime() + 999_999);
+        return millis <= 0 ? -1 : millis;
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Side side = (Side) key.attachment();
+        Pipe pipe = side.pipe();
+        try {
+            if (key.isConnectable()) {
+                pipe.finishConnect();
+            }
+            if (key.isValid() && key.isWritable()) {
+                (side.client() ? pipe.down : pipe.up).flushDue(System.nanoTime());
+            }
+            if (key.isValid() && key.isReadable()) {
+                pipe.read(side.client() ? pipe.up : pipe.down);
+            }
+            pipe.updateInterest();
+        } catch (IOException | RuntimeException e) {
+            // reset ou queda de um dos lados, ou falha inesperada do pipe: encerra só essa conexão
+            pipe.close();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel client = server.accept();
+        if (client == null) {
+            return;
+        }
+        connections.increment();
+        SocketChannel upstream = SocketChannel.open();
+        try {
+            for (SocketChannel channel : List.of(client, upstream)) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            Pipe pipe = new Pipe(client, upstream);
+            pipe.clientKey = client.register(selector, 0, new Side(pipe, true));
+            pipe.upstreamKey = upstream.register(selector, 0, new Side(pipe, false));
+            pipe.connecting = !upstream.connect(target);
+            pipes.add(pipe);
+            pipe.updateInterest();
+        } catch (IOException e) {
+            closeQuietly(client);
+            closeQuietly(upstream);
+        }
+    }
+
+    private record Side(Pipe pipe, boolean client) {
+    }
+
+    private record Chunk(ByteBuffer data, long dueNanos) {
+    }
+
+    /** Um sentido de uma conexão: bytes lidos de {@code from} esperando para serem escritos em {@code to}. */
+    private final class Flow {
+        final SocketChannel from;
+        final SocketChannel to;
+        final LongAdder bytes;
+        final ArrayDeque<Chunk> queue = new ArrayDeque<>();
+        long queuedBytes;
+        long lastDue;
+        boolean blocked;
+        boolean eof;
+        boolean shutdown;
+
+        Flow(SocketChannel from, SocketChannel to, LongAdder bytes) {
+            this.from = from;
+            this.to = to;
+            this.bytes = bytes;
+        }
+
+        long nextDue() {
+            return queue.isEmpty() || blocked ? Long.MAX_VALUE : queue.peek().dueNanos();
+        }
+
+        boolean readable() {
+            return !eof && queuedBytes < MAX_QUEUED_BYTES;
+        }
+
+        void enqueue(ByteBuffer data, Faults faults, long now, boolean writable) throws IOException {
+            if (!faults.delays() && queue.isEmpty() && writable) {
+                to.write(data);
+                if (!data.hasRemaining()) {
+                    return;
+                }
+                blocked = true;
+            }
+            int chunk = faults.chunkBytes() > 0 ? faults.chunkBytes() : data.remaining();
+            while (data.hasRemaining()) {
+                int length = Math.min(chunk, data.remaining());
+                long due = now + faults.latency().toNanos();
+                if (!faults.jitter().isZero()) {
+                    due += random.nextLong(faults.jitter().toNanos() + 1);
+                }
+                if (faults.chunkBytes() > 0 && !queue.isEmpty()) {
+                    due = Math.max(due, lastDue + FRAGMENT_GAP_NANOS);
+                }
+                // sem reordenar: um bloco nunca sai antes do anterior
+                due = Math.max(due, lastDue);
+                if (faults.bytesPerSecond() > 0) {
+                    due = Math.max(due, lastDue) + length * 1_000_000_000L / faults.bytesPerSecond();
+                }
+                ByteBuffer copy = ByteBuffer.allocate(length);
+                int limit = data.limit();
+                data.limit(data.position() + length);
+                copy.put(data).flip();
+                data.limit(limit);
+                queue.add(new Chunk(copy, due));
+                queuedBytes += length;
+                lastDue = due;
+            }
+        }
+
+        void flushDue(long now) throws IOException {
+            blocked = false;
+            while (!queue.isEmpty() && queue.peek().dueNanos() <= now) {
+                Chunk chunk = queue.peek();
+                int written = to.write(chunk.data());
+                queuedBytes -= written;
+                if (chunk.data().hasRemaining()) {
+                    blocked = true;
+                    return;
+                }
+                queue.poll();
+                if (faults.chunkBytes() > 0) {
+                    // um fragmento por passagem, para que o outro lado leia cada um separado
+                    return;
+                }
+            }
+            if (queue.isEmpty() && eof && !shutdown) {
+                shutdown = true;
+                to.shutdownOutput();
+            }
+        }
+    }
+
+    private final class Pipe {
+        final SocketChannel client;
+        final SocketChannel upstream;
+        final Flow up;
+        final Flow down;
+        SelectionKey clientKey;
+        SelectionKey upstreamKey;
+        boolean connecting;
+        boolean stalled;
+        boolean closed;
+
+        Pipe(SocketChannel client, SocketChannel upstream) {
+            this.client = client;
+            this.upstream = upstream;
+            this.up = new Flow(client, upstream, bytesUp);
+            this.down = new Flow(upstream, client, bytesDown);
+        }
+
+        void finishConnect() throws IOException {
+            if (upstream.finishConnect()) {
+                connecting = false;
+                up.flushDue(System.nanoTime());
+            }
+        }
+
+        void read(Flow flow) throws IOException {
+            readBuffer.clear();
+            int n = flow.from.read(readBuffer);
+            if (n < 0) {
+                flow.eof = true;
+                if (flow == up && stalled) {
+                    close();
+                    return;
+                }
+                if (flow == up && connecting) {
+                    // o finishConnect entrega o que estiver na fila e então repassa o EOF
+                    return;
+                }
+                flow.flushDue(System.nanoTime());
+                if (up.shutdown && down.shutdown) {
+                    close();
+                }
+                return;
+            }
+            if (n == 0) {
+                return;
+            }
+            readBuffer.flip();
+            flow.bytes.add(n);
+            Faults current = faults;
+            if (flow == up) {
+                if (decrement(resetNext) || (current.resetProbability() > 0
+                        && random.nextDouble() < current.resetProbability())) {
+                    reset();
+                    return;
+                }
+                if (!stalled && decrement(stallNext)) {
+                    stalled = true;
+                    stalls.increment();
+                }
+                if (stalled) {
+                    return;
+                }
+            }
+            flow.enqueue(readBuffer, current, System.nanoTime(), !connecting || flow == down);
+        }
+
+        void flushDue(long now) {
+            if (closed) {
+                return;
+            }
+            try {
+                if (!connecting) {
+                    up.flushDue(now);
+                }
+                down.flushDue(now);
+                updateInterest();
+            } catch (IOException | RuntimeException e) {
+                close();
+            }
+        }
+
+        void updateInterest() {
+            if (closed) {
+                return;
+            }
+            clientKey.interestOps((up.readable() ? SelectionKey.OP_READ : 0)
+                    | (down.blocked ? SelectionKey.OP_WRITE : 0));
+            upstreamKey.interestOps(connecting ? SelectionKey.OP_CONNECT
+                    : (down.readable() ? SelectionKey.OP_READ : 0) | (up.blocked ? SelectionKey.OP_WRITE : 0));
+        }
+
+        void reset() {
+            resets.increment();
+            try {
+                client.setOption(StandardSocketOptions.SO_LINGER, 0);
+            } catch (IOException e) {
+                // fecha mesmo assim, com FIN em vez de RST
+            }
+            close();
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pipes.remove(this);
+            closeQuietly(client);
+            closeQuietly(upstream);
+        }
+    }
+
+    private static boolean decrement(AtomicInteger counter) {
+        return counter.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0;
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // já encerrado
+        }
+    }
+}
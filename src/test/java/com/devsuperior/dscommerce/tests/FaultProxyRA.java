@@ -0,0 +1,225 @@
+package com.devsuperior.dscommerce.tests;
+
+import io.restassured.path.json.JsonPath;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.*;
+
+public class FaultProxyRA {
+
+    private static final String USERNAME = "maria@gmail.com";
+    private static final String PASSWORD = "123456";
+
+    private FaultProxy proxy;
+
+    @BeforeEach
+    public void setUp() {
+        // a primeira emissão de token sobe o serviço de autenticação (inicialização preguiçosa): fora dos timeouts
+        TokenUtil.obtainAccesToken(USERNAME, PASSWORD);
+        proxy = FaultProxy.start(ApiServer.baseURI());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        proxy.close();
+    }
+
+    @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
+    public void proxyWithoutFaultsShouldForwardResponsesUnchanged() {
+        // sem compressão, para que o corpo lido seja o que passou pelo proxy
+        String direct = given(RequestSpecs.api()).header("Accept-Encoding", AcceptEncoding.IDENTITY.header())
+                .get("/products?size=25").then().statusCode(200).extract().asString();
+        String proxied = given(RequestSpecs.api(proxy.baseURI()))
+                .header("Accept-Encoding", AcceptEncoding.IDENTITY.header())
+                .get("/products?size=25").then().statusCode(200).extract().asString();
+
+        Assertions.assertEquals(direct, proxied);
+        Assertions.assertTrue(proxy.stats().bytesDown() > proxied.length());
+    }
+
+    @Test
+    public void tokenRequestShouldRetryAfterConnectionReset() {
+        long retriesBefore = tokenRetries();
+        proxy.resetNext(1);
+
+        String token = TokenUtil.requestAccessToken(RequestSpecs.api(proxy.baseURI()),
+                new TokenUtil.RetryPolicy(3, Duration.ofSeconds(10), Duration.ofMillis(10)), USERNAME, PASSWORD);
+
+        Assertions.assertNotNull(token);
+        Assertions.assertEquals(1, proxy.stats().resets());
+        Assertions.assertTrue(tokenRetries() - retriesBefore >= 1);
+    }
+
+    @Test
+    public void tokenRequestShouldTimeOutStalledAttemptAndRetry() {
+        proxy.stallNext(1);
+
+        long start = System.nanoTime();
+        String token = TokenUtil.requestAccessToken(RequestSpecs.api(proxy.baseURI()),
+                new TokenUtil.RetryPolicy(3, Duration.ofMillis(500), Duration.ofMillis(10)), USERNAME, PASSWORD);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Assertions.assertNotNull(token);
+        Assertions.assertEquals(1, proxy.stats().stalls());
+        // uma tentativa perdida custa o timeout dela, não o padrão do cliente (sem limite)
+        Assertions.assertTrue(elapsed.compareTo(Duration.ofMillis(500)) >= 0, "tempo: " + elapsed);
+        Assertions.assertTrue(elapsed.compareTo(Duration.ofSeconds(5)) < 0, "tempo: " + elapsed);
+    }
+
+    @Test
+    public void tokenRequestShouldFailWithTimeoutWhenEveryAttemptStalls() {
+        proxy.stallNext(2);
+
+        Throwable failure = Assertions.assertThrows(Throwable.class, () -> TokenUtil.requestAccessToken(
+                RequestSpecs.api(proxy.baseURI()),
+                new TokenUtil.RetryPolicy(2, Duration.ofMillis(200), Duration.ofMillis(10)), USERNAME, PASSWORD));
+
+        boolean timedOut = false;
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            timedOut |= t instanceof SocketTimeoutException;
+        }
+        Assertions.assertTrue(timedOut, "falha: " + failure);
+        Assertions.assertEquals(2, proxy.stats().stalls());
+    }
+
+    @Test
+    @ResourceLock(value = Resources.EXCLUSIVE, mode = ResourceAccessMode.READ_WRITE)
+    public void pagedReadsShouldCompleteWithinBudgetUnder200msJitter() {
+        proxy.faults(FaultProxy.Faults.NONE.withJitter(Duration.ofMillis(200)));
+        Histogram latencyMicros = new Histogram(Duration.ofMinutes(1).toNanos() / 1000, 3);
+        Set<Integer> ids = new HashSet<>();
+        long totalElements = -1;
+
+        for (int round = 0; round < 4; round++) {
+            for (int page = 0; ; page++) {
+                long start = System.nanoTime();
+                JsonPath body = given(RequestSpecs.api(proxy.baseURI()))
+                        .get("/products?page={page}&size=5", page)
+                        .then()
+                        .statusCode(200)
+                        .extract()
+                        .jsonPath();
+                latencyMicros.recordValue((System.nanoTime() - start) / 1000);
+                List<Integer> content = body.getList("content.id");
+                if (round == 0) {
+                    content.forEach(id -> Assertions.assertTrue(ids.add(id), "produto repetido: " + id));
+                }
+                totalElements = body.getLong("totalElements");
+                if (body.getBoolean("last")) {
+                    break;
+                }
+            }
+        }
+
+        Assertions.assertEquals(totalElements, ids.size());
+        // o jitter aparece na mediana, mas nenhuma leitura passa de ida e volta com o atraso máximo e folga
+        Assertions.assertTrue(latencyMicros.getValueAtPercentile(50) >= 20_000,
+                "p50: " + latencyMicros.getValueAtPercentile(50) / 1000.0 + " ms");
+        Assertions.assertTrue(latencyMicros.getMaxValue() < 1_400_000,
+                "máximo: " + latencyMicros.getMaxValue() / 1000.0 + " ms");
+    }
+
+    @Test
+    @ResourceLock(value = Resources.CATALOG, mode = ResourceAccessMode.READ)
+    public void bandwidthCapShouldStretchLargeResponses() {
+        proxy.faults(FaultProxy.Faults.NONE.withBandwidth(16 * 1024));
+
+        long start = System.nanoTime();
+        given(RequestSpecs.api(proxy.baseURI())).get("/products?size=25").then().statusCode(200);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // bytes que passaram pelo proxy: com a resposta comprimida, menos que o corpo lido
+        long wireBytes = proxy.stats().bytesDown();
+        Duration expected = Duration.ofMillis(wireBytes * 1000L / (16 * 1024));
+        Assertions.assertTrue(elapsed.compareTo(expected.multipliedBy(8).dividedBy(10)) >= 0,
+                wireBytes + " bytes em " + elapsed);
+    }
+
+    @Test
+    public void fragmentedResponsesShouldStillBeParsed() {
+        proxy.faults(FaultProxy.Faults.NONE.withChunkBytes(16));
+
+        JsonPath body = given(RequestSpecs.api(proxy.baseURI())).get("/products/{id}", 2).then().statusCode(200)
+                .extract().jsonPath();
+
+        Assertions.assertEquals("Smart TV", body.getString("name"));
+        Assertions.assertEquals(Set.of(2, 3), Set.copyOf(body.getList("categories.id")));
+    }
+
+    @Test
+    public void clientEofWhileUpstreamIsConnectingShouldNotStopProxy() throws Exception {
+        // servidor que nunca aceita, com a fila de conexões cheia: o connect do proxy fica pendente
+        try (ServerSocket jammed = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            List<Socket> backlog = new ArrayList<>();
+            try {
+                InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                        jammed.getLocalPort());
+                for (int i = 0; i < 16; i++) {
+                    Socket socket = new Socket();
+                    backlog.add(socket);
+                    try {
+                        socket.connect(address, 200);
+                    } catch (SocketTimeoutException e) {
+                        break;
+                    }
+                }
+                try (FaultProxy jammedProxy = FaultProxy.start("http://" + address.getHostString() + ":"
+                        + address.getPort())) {
+                    for (int i = 1; i <= 3; i++) {
+                        try (Socket client = new Socket(InetAddress.getLoopbackAddress(), jammedProxy.port())) {
+                            client.getOutputStream()
+                                    .write("GET / HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                            client.shutdownOutput();
+                            waitForConnections(jammedProxy, i);
+                        }
+                    }
+                }
+            } finally {
+                backlog.forEach(socket -> {
+                    try {
+                        socket.close();
+                    } catch (IOException e) {
+                        // já encerrado
+                    }
+                });
+            }
+        }
+    }
+
+    /** O proxy só conta a conexão quando a thread do seletor a aceita: se a thread parou, o número não sobe. */
+    private static void waitForConnections(FaultProxy proxy, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (proxy.stats().connections() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        Assertions.assertEquals(expected, proxy.stats().connections());
+        // dá tempo ao seletor de ler o EOF do cliente antes da próxima conexão
+        Thread.sleep(100);
+    }
+
+    private static long tokenRetries() {
+        RequestMetrics.Snapshot snapshot = RequestMetrics.snapshot().get("POST /oauth2/token");
+        return snapshot == null ? 0 : snapshot.retries();
+    }
+}
@@ -0,0 +1,191 @@
+package com.devsuperior.dscommerce.tests;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.ClientParamsStack;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.CoreConnectionPNames;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de conexões HTTP keep-alive compartilhado por todos os testes RA, pelo TokenUtil e pela carga.
+ * <p>
+ * Sem ele o RestAssured cria um cliente HTTP por requisição e abre uma conexão TCP nova a cada chamada.
+ * Configurável por propriedades de sistema:
+ * <ul>
+ *     <li>{@code http.pool.maxPerRoute} (padrão 50) e {@code http.pool.maxTotal} (padrão 200);</li>
+ *     <li>{@code http.pool.keepAliveSeconds} (padrão 5): tempo de reuso quando o servidor não informa
+ *     {@code Keep-Alive};</li>
+ *     <li>{@code http.pool.idleSeconds} (padrão 5): conexões ociosas por mais tempo são fechadas.</li>
+ * </ul>
+ * O timeout de leitura pode ser dado por requisição com {@link #socketTimeoutFilter(Duration)}.
+ */
+// o HttpClientFactory do RestAssured exige um AbstractHttpClient, que só existe na API antiga do HttpClient 4
+@SuppressWarnings("deprecation")
+public final class HttpConnectionPool {
+
+    public record Stats(long leased, long opened) {
+
+        public long reused() {
+            return leased - opened;
+        }
+
+        public double reuseRatio() {
+            return leased == 0 ? 0.0 : (double) reused() / leased;
+        }
+    }
+
+    private static final LongAdder LEASED = new LongAdder();
+    private static final LongAdder OPENED = new LongAdder();
+
+    // timeout de leitura da requisição em andamento na thread, lido pelo cliente ao montar os parâmetros dela
+    private static final ThreadLocal<Integer> SOCKET_TIMEOUT = new ThreadLocal<>();
+
+    private static final CountingConnectionManager MANAGER = new CountingConnectionManager();
+    private static final DefaultHttpClient CLIENT = createClient();
+    private static final RestAssuredConfig CONFIG = RestAssuredConfig.config().httpClient(
+            HttpClientConfig.httpClientConfig().httpClientFactory(() -> CLIENT).reuseHttpClientInstance());
+
+    /**
+     * O RestAssured só lê o corpo quando alguma asserção o usa; até lá a conexão fica presa fora do pool.
+     * Este filtro lê o corpo logo após a resposta, devolvendo a conexão mesmo em testes que só checam o status.
+     */
+    private static final Filter RELEASE_CONNECTION = (requestSpec, responseSpec, ctx) -> {
+        Response response = ctx.next(requestSpec, responseSpec);
+        response.asByteArray();
+        return response;
+    };
+
+    static {
+        int idleSeconds = Integer.getInteger("http.pool.idleSeconds", 5);
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "http-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        evictor.scheduleWithFixedDelay(() -> {
+            MANAGER.closeExpiredConnections();
+            MANAGER.closeIdleConnections(idleSeconds, TimeUnit.SECONDS);
+        }, 1, 1, TimeUnit.SECONDS);
+    }
+
+    private HttpConnectionPool() {
+    }
+
+    /** Configuração do RestAssured que usa o cliente compartilhado. */
+    public static RestAssuredConfig restAssuredConfig() {
+        return CONFIG;
+    }
+
+    /** Filtro que devolve a conexão ao pool assim que a resposta chega. */
+    public static Filter releaseConnectionFilter() {
+        return RELEASE_CONNECTION;
+    }
+
+    /**
+     * Filtro que limita a espera por cada leitura do socket da requisição, em vez do padrão do cliente (sem
+     * limite). Estourado, a requisição falha com {@link java.net.SocketTimeoutException} e a conexão é descartada.
+     */
+    public static Filter socketTimeoutFilter(Duration timeout) {
+        int millis = (int) Math.min(Math.max(timeout.toMillis(), 1), Integer.MAX_VALUE);
+        return (requestSpec, responseSpec, ctx) -> {
+            Integer previous = SOCKET_TIMEOUT.get();
+            SOCKET_TIMEOUT.set(millis);
+            try {
+                return ctx.next(requestSpec, responseSpec);
+            } finally {
+                if (previous == null) {
+                    SOCKET_TIMEOUT.remove();
+                } else {
+                    SOCKET_TIMEOUT.set(previous);
+                }
+            }
+        };
+    }
+
+    public static Stats stats() {
+        return new Stats(LEASED.sum(), OPENED.sum());
+    }
+
+    private static DefaultHttpClient createClient() {
+        MANAGER.setDefaultMaxPerRoute(Integer.getInteger("http.pool.maxPerRoute", 50));
+        MANAGER.setMaxTotal(Integer.getInteger("http.pool.maxTotal", 200));
+
+        DefaultHttpClient client = new DefaultHttpClient(MANAGER) {
+            @Override
+            protected HttpParams determineParams(HttpRequest request) {
+                HttpParams params = super.determineParams(request);
+                Integer timeout = SOCKET_TIMEOUT.get();
+                if (timeout == null) {
+                    return params;
+                }
+                // sobreposição só desta requisição, sem alterar os parâmetros do cliente compartilhado
+                HttpParams override = new BasicHttpParams().setIntParameter(CoreConnectionPNames.SO_TIMEOUT,
+                        timeout);
+                return new ClientParamsStack(null, params, null, override);
+            }
+        };
+        long keepAliveMillis = TimeUnit.SECONDS.toMillis(Integer.getInteger("http.pool.keepAliveSeconds", 5));
+        client.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                long duration = super.getKeepAliveDuration(response, context);
+                return duration > 0 ? duration : keepAliveMillis;
+            }
+        });
+        // a checagem de conexão velha custa uma leitura a cada requisição; o evictor já fecha as ociosas
+        HttpConnectionParams.setStaleCheckingEnabled(client.getParams(), false);
+        HttpConnectionParams.setTcpNoDelay(client.getParams(), true);
+        return client;
+    }
+
+    private static final class CountingConnectionManager extends PoolingClientConnectionManager {
+
+        CountingConnectionManager() {
+            super(SchemeRegistryFactory.createDefault());
+        }
+
+        @Override
+        public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+            LEASED.increment();
+            return super.requestConnection(route, state);
+        }
+
+        @Override
+        protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schreg) {
+            return new DefaultClientConnectionOperator(schreg) {
+                @Override
+                public void openConnection(OperatedClientConnection conn, HttpHost target, InetAddress local,
+                                           HttpContext context, HttpParams params) throws IOException {
+                    OPENED.increment();
+                    super.openConnection(conn, target, local, context, params);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import static io.restassured.RestAssured.*;
+
+public class HttpConnectionPoolRA {
+
+    @Test
+    @ResourceLock(value = Resources.EXCLUSIVE, mode = ResourceAccessMode.READ_WRITE)
+    public void sequentialRequestsShouldReuseKeepAliveConnection() {
+        given(RequestSpecs.api()).get("/products/{id}", 2).then().statusCode(200);
+        HttpConnectionPool.Stats before = HttpConnectionPool.stats();
+
+        for (int i = 0; i < 30; i++) {
+            given(RequestSpecs.api()).get("/products/{id}", 2).then().statusCode(200);
+        }
+
+        HttpConnectionPool.Stats after = HttpConnectionPool.stats();
+        Assertions.assertEquals(30, after.leased() - before.leased());
+        Assertions.assertTrue(after.opened() - before.opened() <= 1,
+                "conexões abertas: " + (after.opened() - before.opened()));
+    }
+}
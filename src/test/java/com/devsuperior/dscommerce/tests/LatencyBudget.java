@@ -0,0 +1,128 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.HdrHistogram.Histogram;
+import org.opentest4j.AssertionFailedError;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orçamento de latência de um endpoint, verificado no próprio teste RA:
+ * <pre>
+ * LatencyBudget.of("GET /products/{id}")
+ *         .percentile(99, Duration.ofMillis(50))
+ *         .samples(200)
+ *         .assertWithin(() -> given(spec).get("/products/{id}", 2).then().statusCode(200));
+ * </pre>
+ * A requisição é executada {@code warmup} vezes sem medir e depois {@code samples} vezes, em sequência. Se algum
+ * percentil passar do limite, o teste falha com a distribuição completa das amostras.
+ * <p>
+ * Os limites são multiplicados por {@code -Dperf.budget.scale} (padrão 1.0), para máquinas de CI mais lentas.
+ */
+public final class LatencyBudget {
+
+    public static final String SCALE_PROPERTY = "perf.budget.scale";
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(30);
+    private static final double[] REPORTED_PERCENTILES = {50, 90, 95, 99, 99.9};
+
+    private record Limit(double percentile, Duration max) {
+    }
+
+    public record Result(String endpoint, Histogram latencyMicros) {
+
+        public Duration percentile(double percentile) {
+            return Duration.ofNanos(latencyMicros.getValueAtPercentile(percentile) * 1000);
+        }
+    }
+
+    private final String endpoint;
+    private final List<Limit> limits = new ArrayList<>();
+    private int warmup = 20;
+    private int samples = 200;
+
+    private LatencyBudget(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public static LatencyBudget of(String endpoint) {
+        return new LatencyBudget(endpoint);
+    }
+
+    public LatencyBudget percentile(double percentile, Duration max) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentil deve estar entre 0 e 100: " + percentile);
+        }
+        limits.add(new Limit(percentile, max));
+        return this;
+    }
+
+    public LatencyBudget warmup(int warmup) {
+        this.warmup = warmup;
+        return this;
+    }
+
+    public LatencyBudget samples(int samples) {
+        if (samples <= 0) {
+            throw new IllegalArgumentException("Número de amostras deve ser positivo");
+        }
+        this.samples = samples;
+        return this;
+    }
+
+    /**
+     * Executa e mede {@code request}, que deve fazer as próprias asserções de status e corpo.
+     */
+    public Result assertWithin(Runnable request) {
+        if (limits.isEmpty()) {
+            throw new IllegalStateException("Nenhum limite definido para " + endpoint);
+        }
+        for (int i = 0; i < warmup; i++) {
+            request.run();
+        }
+        Histogram histogram = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            request.run();
+            long micros = (System.nanoTime() - start) / 1000;
+            histogram.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        }
+
+        double scale = Double.parseDouble(System.getProperty(SCALE_PROPERTY, "1.0"));
+        List<String> violations = new ArrayList<>();
+        for (Limit limit : limits) {
+            long actual = histogram.getValueAtPercentile(limit.percentile());
+            long allowed = (long) (limit.max().toNanos() / 1000 * scale);
+            if (actual > allowed) {
+                violations.add(String.format(Locale.ROOT, "p%s = %.2f ms > %.2f ms", format(limit.percentile()),
+                        actual / 1000.0, allowed / 1000.0));
+            }
+        }
+        if (!violations.isEmpty()) {
+            throw new AssertionFailedError("Orçamento de latência excedido para " + endpoint + ": "
+                    + String.join(", ", violations) + System.lineSeparator() + breakdown(histogram));
+        }
+        return new Result(endpoint, histogram);
+    }
+
+    private String breakdown(Histogram histogram) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "  %d amostras após %d de aquecimento%n", histogram.getTotalCount(),
+                warmup));
+        sb.append(String.format(Locale.ROOT, "  min   %8.2f ms%n", histogram.getMinValue() / 1000.0));
+        for (double p : REPORTED_PERCENTILES) {
+            sb.append(String.format(Locale.ROOT, "  p%-5s%8.2f ms%n", format(p),
+                    histogram.getValueAtPercentile(p) / 1000.0));
+        }
+        sb.append(String.format(Locale.ROOT, "  max   %8.2f ms%n", histogram.getMaxValue() / 1000.0));
+        sb.append(String.format(Locale.ROOT, "  média %8.2f ms", histogram.getMean() / 1000.0));
+        return sb.toString();
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
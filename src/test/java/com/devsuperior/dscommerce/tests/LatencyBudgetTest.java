@@ -0,0 +1,55 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LatencyBudgetTest {
+
+    @Test
+    public void assertWithinShouldRunWarmupAndSamples() {
+        AtomicInteger calls = new AtomicInteger();
+
+        LatencyBudget.Result result = LatencyBudget.of("GET /fake")
+                .percentile(99, Duration.ofSeconds(1))
+                .warmup(5)
+                .samples(20)
+                .assertWithin(calls::incrementAndGet);
+
+        Assertions.assertEquals(25, calls.get());
+        Assertions.assertEquals(20, result.latencyMicros().getTotalCount());
+    }
+
+    @Test
+    public void assertWithinShouldFailWithPercentileBreakdownWhenBudgetExceeded() {
+        AssertionFailedError error = Assertions.assertThrows(AssertionFailedError.class, () ->
+                LatencyBudget.of("GET /slow")
+                        .percentile(50, Duration.ofMillis(1))
+                        .warmup(0)
+                        .samples(5)
+                        .assertWithin(() -> sleep(3)));
+
+        Assertions.assertTrue(error.getMessage().contains("GET /slow"), error.getMessage());
+        Assertions.assertTrue(error.getMessage().contains("p50 = "), error.getMessage());
+        Assertions.assertTrue(error.getMessage().contains("p99.9"), error.getMessage());
+    }
+
+    @Test
+    public void assertWithinShouldPropagateRequestAssertionFailures() {
+        Assertions.assertThrows(AssertionError.class, () ->
+                LatencyBudget.of("GET /broken")
+                        .percentile(99, Duration.ofSeconds(1))
+                        .assertWithin(() -> Assertions.fail("status 500")));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
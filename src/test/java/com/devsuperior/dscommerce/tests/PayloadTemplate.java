@@ -0,0 +1,354 @@
+package com.devsuperior.dscommerce.tests;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Corpo JSON pré-codificado em bytes, com campos de primeiro nível substituíveis.
+ * <p>
+ * O template é compilado uma vez a partir de um exemplo do corpo; cada {@link Instance} guarda só os valores dos
+ * campos alterados, já codificados como JSON, e reaproveita os próprios buffers. Gerar um corpo novo não passa
+ * por mapa nem por serializador: {@link Instance#writeTo(OutputStream)} e os {@code set} de texto e de inteiro não
+ * alocam depois que o buffer do campo cresceu o bastante, mas {@code set(double)} aloca a string do
+ * {@link Double#toString(double)}.
+ */
+public final class PayloadTemplate {
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[][] literals;
+    private final String[] slotNames;
+    private final byte[][] defaults;
+
+    private PayloadTemplate(byte[][] literals, String[] slotNames, byte[][] defaults) {
+        this.literals = literals;
+        this.slotNames = slotNames;
+        this.defaults = defaults;
+    }
+
+    /**
+     * @param example objeto JSON com os valores padrão
+     * @param slots   campos de primeiro nível que poderão ser substituídos
+     */
+    public static PayloadTemplate compile(String example, String... slots) {
+        byte[] source = example.getBytes(StandardCharsets.UTF_8);
+        List<String> names = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+        int pos = skipWhitespace(source, 0);
+        expect(source, pos++, '{');
+        pos = skipWhitespace(source, pos);
+        while (pos < source.length && source[pos] != '}') {
+            int keyEnd = skipString(source, pos);
+            String field = new String(source, pos + 1, keyEnd - pos - 2, StandardCharsets.UTF_8);
+            pos = skipWhitespace(source, keyEnd);
+            expect(source, pos++, ':');
+            int valueStart = skipWhitespace(source, pos);
+            int valueEnd = skipValue(source, valueStart);
+            if (Arrays.asList(slots).contains(field)) {
+                names.add(field);
+                ranges.add(new int[]{valueStart, valueEnd});
+            }
+            pos = skipWhitespace(source, valueEnd);
+            if (pos < source.length && source[pos] == ',') {
+                pos = skipWhitespace(source, pos + 1);
+            }
+        }
+        expect(source, pos, '}');
+        for (String slot : slots) {
+            if (!names.contains(slot)) {
+                throw new IllegalArgumentException("Campo não encontrado no template: " + slot);
+            }
+        }
+
+        byte[][] literals = new byte[names.size() + 1][];
+        byte[][] defaults = new byte[names.size()][];
+        int position = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            int[] range = ranges.get(i);
+            literals[i] = Arrays.copyOfRange(source, position, range[0]);
+            defaults[i] = Arrays.copyOfRange(source, range[0], range[1]);
+            position = range[1];
+        }
+        literals[names.size()] = Arrays.copyOfRange(source, position, source.length);
+        return new PayloadTemplate(literals, names.toArray(String[]::new), defaults);
+    }
+
+    /** Índice do campo, para usar nos métodos {@code set} sem procurar pelo nome a cada corpo. */
+    public int slot(String name) {
+        for (int i = 0; i < slotNames.length; i++) {
+            if (slotNames[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Campo não substituível: " + name);
+    }
+
+    public Instance newInstance() {
+        return new Instance();
+    }
+
+    /**
+     * Corpo gerado a partir do template. Não é thread-safe: use uma instância por thread e reutilize-a.
+     */
+    public final class Instance {
+
+        private final byte[][] buffers = new byte[defaults.length][];
+        private final int[] lengths = new int[defaults.length];
+        private final boolean[] patched = new boolean[defaults.length];
+        // buffer alocado pela instância e reaproveitado; os recebidos em setRaw pertencem ao chamador
+        private final boolean[] owned = new boolean[defaults.length];
+
+        private Instance() {
+        }
+
+        public Instance set(String field, String value) {
+            return set(slot(field), value);
+        }
+
+        public Instance set(String field, double value) {
+            return set(slot(field), value);
+        }
+
+        public Instance set(String field, long value) {
+            return set(slot(field), value);
+        }
+
+        public Instance setNull(String field) {
+            return setRaw(slot(field), NULL);
+        }
+
+        public Instance set(int slot, String value) {
+            if (value == null) {
+                return setRaw(slot, NULL);
+            }
+            byte[] buffer = ensure(slot, value.length() * 6 + 2);
+            buffer[0] = '"';
+            int end = encodeString(value, buffer, 1);
+            buffer[end] = '"';
+            lengths[slot] = end + 1;
+            patched[slot] = true;
+            return this;
+        }
+
+        public Instance set(int slot, double value) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new IllegalArgumentException("Número inválido em JSON: " + value);
+            }
+            return setAscii(slot, Double.toString(value));
+        }
+
+        public Instance set(int slot, long value) {
+            byte[] buffer = ensure(slot, 20);
+            int length = 0;
+            if (value < 0) {
+                buffer[length++] = '-';
+            }
+            int digitsStart = length;
+            long remaining = value;
+            do {
+                buffer[length++] = (byte) ('0' + Math.abs(remaining % 10));
+                remaining /= 10;
+            } while (remaining != 0);
+            for (int i = digitsStart, j = length - 1; i < j; i++, j--) {
+                byte tmp = buffer[i];
+                buffer[i] = buffer[j];
+                buffer[j] = tmp;
+            }
+            lengths[slot] = length;
+            patched[slot] = true;
+            return this;
+        }
+
+        /** Valor já codificado como JSON (objeto, lista, número...), usado sem cópia. */
+        public Instance setRaw(int slot, byte[] json) {
+            buffers[slot] = json;
+            owned[slot] = false;
+            lengths[slot] = json.length;
+            patched[slot] = true;
+            return this;
+        }
+
+        /** Volta todos os campos aos valores do exemplo. */
+        public Instance reset() {
+            Arrays.fill(patched, false);
+            return this;
+        }
+
+        public int length() {
+            int length = 0;
+            for (byte[] literal : literals) {
+                length += literal.length;
+            }
+            for (int i = 0; i < defaults.length; i++) {
+                length += patched[i] ? lengths[i] : defaults[i].length;
+            }
+            return length;
+        }
+
+        public byte[] toBytes() {
+            byte[] out = new byte[length()];
+            int position = 0;
+            for (int i = 0; i < defaults.length; i++) {
+                System.arraycopy(literals[i], 0, out, position, literals[i].length);
+                position += literals[i].length;
+                byte[] value = patched[i] ? buffers[i] : defaults[i];
+                int length = patched[i] ? lengths[i] : defaults[i].length;
+                System.arraycopy(value, 0, out, position, length);
+                position += length;
+            }
+            byte[] last = literals[defaults.length];
+            System.arraycopy(last, 0, out, position, last.length);
+            return out;
+        }
+
+        public void writeTo(OutputStream out) {
+            try {
+                for (int i = 0; i < defaults.length; i++) {
+                    out.write(literals[i]);
+                    if (patched[i]) {
+                        out.write(buffers[i], 0, lengths[i]);
+                    } else {
+                        out.write(defaults[i]);
+                    }
+                }
+                out.write(literals[defaults.length]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return new String(toBytes(), StandardCharsets.UTF_8);
+        }
+
+        private Instance setAscii(int slot, String value) {
+            byte[] buffer = ensure(slot, value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    throw new IllegalArgumentException("Valor não ASCII: " + value);
+                }
+                buffer[i] = (byte) c;
+            }
+            lengths[slot] = value.length();
+            patched[slot] = true;
+            return this;
+        }
+
+        private byte[] ensure(int slot, int capacity) {
+            byte[] buffer = buffers[slot];
+            if (!owned[slot] || buffer.length < capacity) {
+                buffer = new byte[Math.max(capacity, 32)];
+                buffers[slot] = buffer;
+                owned[slot] = true;
+            }
+            return buffer;
+        }
+    }
+
+    private static int skipWhitespace(byte[] source, int pos) {
+        while (pos < source.length && (source[pos] == ' ' || source[pos] == '\n' || source[pos] == '\r'
+                || source[pos] == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static void expect(byte[] source, int pos, char expected) {
+        if (pos >= source.length || source[pos] != expected) {
+            throw new IllegalArgumentException("Template JSON inválido: esperado '" + expected + "' na posição " + pos);
+        }
+    }
+
+    /** Posição logo após a string que começa em {@code pos}. */
+    private static int skipString(byte[] source, int pos) {
+        expect(source, pos, '"');
+        for (int i = pos + 1; i < source.length; i++) {
+            if (source[i] == '\\') {
+                i++;
+            } else if (source[i] == '"') {
+                return i + 1;
+            }
+        }
+        throw new IllegalArgumentException("Template JSON inválido: string sem fim na posição " + pos);
+    }
+
+    /** Posição logo após o valor JSON (string, objeto, lista ou literal) que começa em {@code pos}. */
+    private static int skipValue(byte[] source, int pos) {
+        if (pos >= source.length) {
+            throw new IllegalArgumentException("Template JSON inválido: valor ausente");
+        }
+        if (source[pos] == '"') {
+            return skipString(source, pos);
+        }
+        if (source[pos] == '{' || source[pos] == '[') {
+            int depth = 0;
+            for (int i = pos; i < source.length; i++) {
+                byte b = source[i];
+                if (b == '"') {
+                    i = skipString(source, i) - 1;
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if ((b == '}' || b == ']') && --depth == 0) {
+                    return i + 1;
+                }
+            }
+            throw new IllegalArgumentException("Template JSON inválido: objeto sem fim na posição " + pos);
+        }
+        int i = pos;
+        while (i < source.length && source[i] != ',' && source[i] != '}' && source[i] != ' '
+                && source[i] != '\n' && source[i] != '\r' && source[i] != '\t') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Escreve {@code value} como conteúdo de string JSON em UTF-8 (sem aspas) e devolve a posição final. Surrogates
+     * sem par viram U+FFFD, o caractere de substituição, para não gerar UTF-8 inválido.
+     */
+    static int encodeString(String value, byte[] out, int position) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out[position++] = '\\';
+                out[position++] = (byte) c;
+            } else if (c < 0x20) {
+                out[position++] = '\\';
+                out[position++] = 'u';
+                out[position++] = '0';
+                out[position++] = '0';
+                out[position++] = HEX[c >> 4];
+                out[position++] = HEX[c & 0xF];
+            } else if (c < 0x80) {
+                out[position++] = (byte) c;
+            } else if (c < 0x800) {
+                out[position++] = (byte) (0xC0 | (c >> 6));
+                out[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out[position++] = (byte) (0xF0 | (codePoint >> 18));
+                out[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out[position++] = (byte) 0xEF;
+                out[position++] = (byte) 0xBF;
+                out[position++] = (byte) 0xBD;
+            } else {
+                out[position++] = (byte) (0xE0 | (c >> 12));
+                out[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+}
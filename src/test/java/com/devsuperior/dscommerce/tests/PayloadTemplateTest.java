@@ -0,0 +1,79 @@
+package com.devsuperior.dscommerce.tests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class PayloadTemplateTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void newInstanceShouldRenderExampleWhenNothingPatched() throws Exception {
+        JsonNode body = mapper.readTree(Payloads.NEW_PRODUCT.newInstance().toBytes());
+
+        Assertions.assertEquals("Meu produto", body.get("name").asText());
+        Assertions.assertEquals(50.0, body.get("price").asDouble());
+        Assertions.assertEquals(2, body.get("categories").size());
+    }
+
+    @Test
+    public void setShouldReplaceOnlyPatchedFields() throws Exception {
+        PayloadTemplate.Instance instance = Payloads.NEW_PRODUCT.newInstance()
+                .set("name", "Aspas \" barra \\ acentuação 😀\n")
+                .set("price", -50.0)
+                .setNull("categories");
+
+        JsonNode body = mapper.readTree(instance.toBytes());
+
+        Assertions.assertEquals("Aspas \" barra \\ acentuação 😀\n", body.get("name").asText());
+        Assertions.assertEquals(-50.0, body.get("price").asDouble());
+        Assertions.assertTrue(body.get("categories").isNull());
+        Assertions.assertTrue(body.get("description").asText().startsWith("Lorem ipsum"));
+    }
+
+    @Test
+    public void setShouldReplaceUnpairedSurrogates() throws Exception {
+        String value = "alto \uD83D fim, baixo \uDE00 e par \uD83D\uDE00";
+
+        byte[] bytes = Payloads.NEW_PRODUCT.newInstance().set("name", value).toBytes();
+
+        // o decoder estrito falha com UTF-8 inválido
+        StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes));
+        JsonNode body = mapper.readTree(bytes);
+        Assertions.assertEquals("alto \uFFFD fim, baixo \uFFFD e par 😀", body.get("name").asText());
+    }
+
+    @Test
+    public void instanceShouldBeReusableAcrossBodies() throws Exception {
+        PayloadTemplate.Instance instance = Payloads.NEW_PRODUCT.newInstance();
+        int name = Payloads.NEW_PRODUCT.slot("name");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        for (long i = -3; i < 1_000; i += 250) {
+            instance.set(name, "Produto " + i).set("price", i);
+            out.reset();
+            instance.writeTo(out);
+
+            Assertions.assertEquals(instance.length(), out.size());
+            Assertions.assertEquals(new String(instance.toBytes(), StandardCharsets.UTF_8), out.toString(StandardCharsets.UTF_8));
+            JsonNode body = mapper.readTree(out.toByteArray());
+            Assertions.assertEquals("Produto " + i, body.get("name").asText());
+            Assertions.assertEquals(i, body.get("price").asLong());
+        }
+
+        JsonNode reset = mapper.readTree(instance.reset().toBytes());
+        Assertions.assertEquals("Meu produto", reset.get("name").asText());
+    }
+
+    @Test
+    public void compileShouldRejectUnknownSlot() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> PayloadTemplate.compile("{\"name\":\"x\"}", "price"));
+    }
+}
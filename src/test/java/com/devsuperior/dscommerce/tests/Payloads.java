@@ -0,0 +1,19 @@
+package com.devsuperior.dscommerce.tests;
+
+/**
+ * Corpos de requisição pré-codificados usados pelos testes e pela carga.
+ */
+public final class Payloads {
+
+    /** Corpo do {@code POST /products}, com os mesmos dados de {@code ProductControllerRA}. */
+    public static final PayloadTemplate NEW_PRODUCT = PayloadTemplate.compile("""
+            {"name":"Meu produto",\
+            "description":"Lorem ipsum, dolor sit amet consectetur adipisicing elit. Qui ad, adipisci illum ipsam velit et odit eaque reprehenderit ex maxime delectus dolore labore, quisquam quae tempora natus esse aliquam veniam doloremque quam minima culpa alias maiores commodi. Perferendis enim",\
+            "imgUrl":"https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/1-big.jpg",\
+            "price":50.0,\
+            "categories":[{"id":2},{"id":3}]}""",
+            "name", "description", "imgUrl", "price", "categories");
+
+    private Payloads() {
+    }
+}
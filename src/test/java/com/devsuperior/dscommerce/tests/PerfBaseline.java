@@ -0,0 +1,280 @@
+package com.devsuperior.dscommerce.tests;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.opentest4j.AssertionFailedError;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Linha de base de desempenho dos testes RA, versionada em {@code perf/ra-baseline.json}.
+ * <p>
+ * O {@link PerfBaselineExtension} mede cada teste que faz requisições: mediana, p95 e p99 das latências das
+ * requisições feitas na thread do teste e, com {@code -Dperf.baseline.allocation=true}, os bytes alocados por ela.
+ * O modo vem de {@code -Dperf.baseline}:
+ * <ul>
+ *     <li>sem a propriedade, só grava as medidas em {@code target/ra-metrics/perf-baseline-current.json};</li>
+ *     <li>{@code check} falha o teste que passar do limite da linha de base, com a comparação métrica a métrica, e o
+ *     teste medido que não tem entrada nela, para que um endpoint novo não fique sem controle;</li>
+ *     <li>{@code update} regrava a linha de base com as medidas da execução, mantendo as tolerâncias do arquivo.</li>
+ * </ul>
+ * O limite de cada percentil é {@code base * (1 + latency) + slackMillis} e o da alocação é
+ * {@code base * (1 + allocation)}. As tolerâncias padrão ficam no arquivo, podem ser trocadas por teste na entrada
+ * dele e, na linha de comando, por {@code -Dperf.baseline.tolerance}, {@code -Dperf.baseline.slackMillis} e
+ * {@code -Dperf.baseline.allocationTolerance}.
+ * <p>
+ * Um percentil só é comparado quando a linha de base e a execução têm amostras para ele: ao menos
+ * {@code -Dperf.baseline.minSamples} (padrão {@value #DEFAULT_MIN_SAMPLES}) e ao menos {@code 1 / (1 - q)}, ou seja,
+ * 100 para o p99. Com uma requisição só, p50, p95 e p99 são a mesma medida e um soluço do escalonador reprovaria o
+ * build; nesses testes só a alocação é comparada.
+ */
+public final class PerfBaseline {
+
+    public static final String MODE_PROPERTY = "perf.baseline";
+    public static final String FILE_PROPERTY = "perf.baseline.file";
+    public static final String ALLOCATION_PROPERTY = "perf.baseline.allocation";
+    public static final String TOLERANCE_PROPERTY = "perf.baseline.tolerance";
+    public static final String SLACK_PROPERTY = "perf.baseline.slackMillis";
+    public static final String ALLOCATION_TOLERANCE_PROPERTY = "perf.baseline.allocationTolerance";
+    public static final String MIN_SAMPLES_PROPERTY = "perf.baseline.minSamples";
+
+    static final int DEFAULT_MIN_SAMPLES = 20;
+
+    static final Tolerance DEFAULT_TOLERANCE = new Tolerance(1.0, 25, 0.5);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private static final Map<String, Measurement> CURRENT = new ConcurrentSkipListMap<>();
+    private static volatile Baseline loaded;
+
+    public enum Mode {
+        RECORD, CHECK, UPDATE
+    }
+
+    /**
+     * @param allocatedBytes bytes alocados pela thread do teste, ou {@code null} se não amostrado
+     */
+    public record Measurement(long samples, double p50Ms, double p95Ms, double p99Ms, Long allocatedBytes) {
+
+        public static Measurement of(Histogram latencyMicros, Long allocatedBytes) {
+            return new Measurement(latencyMicros.getTotalCount(), millis(latencyMicros, 50),
+                    millis(latencyMicros, 95), millis(latencyMicros, 99), allocatedBytes);
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    /**
+     * @param latency     aumento relativo aceito nos percentis (1.0 = o dobro)
+     * @param slackMillis aumento absoluto somado ao limite dos percentis, para latências pequenas
+     * @param allocation  aumento relativo aceito na alocação
+     */
+    public record Tolerance(double latency, double slackMillis, double allocation) {
+    }
+
+    /**
+     * @param tolerance tolerância própria do teste, ou {@code null} para a padrão do arquivo
+     */
+    public record Entry(Measurement baseline, Tolerance tolerance) {
+    }
+
+    public record Baseline(Tolerance tolerance, Map<String, Entry> tests) {
+
+        public Baseline {
+            tests = new TreeMap<>(tests == null ? Map.of() : tests);
+        }
+    }
+
+    /** Uma métrica comparada com a linha de base. */
+    public record Row(String metric, double baseline, double current, double limit) {
+
+        public boolean regressed() {
+            return current > limit;
+        }
+    }
+
+    private PerfBaseline() {
+    }
+
+    public static Mode mode() {
+        String mode = System.getProperty(MODE_PROPERTY);
+        return mode == null || mode.isBlank() ? Mode.RECORD : Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public static boolean allocationSampled() {
+        return Boolean.getBoolean(ALLOCATION_PROPERTY);
+    }
+
+    public static Path file() {
+        return Path.of(System.getProperty(FILE_PROPERTY, "perf/ra-baseline.json"));
+    }
+
+    /** Guarda a medida de {@code test} desta execução e, no modo {@code check}, compara com a linha de base. */
+    public static void record(String test, Measurement measurement) {
+        CURRENT.put(test, measurement);
+        if (mode() == Mode.CHECK) {
+            check(baseline(), test, measurement);
+        }
+    }
+
+    /** Medidas desta execução, por teste. */
+    public static Map<String, Measurement> current() {
+        return Map.copyOf(CURRENT);
+    }
+
+    /**
+     * Falha se {@code test} não tiver linha de base ou se alguma métrica dele passar do limite.
+     */
+    static void check(Baseline baseline, String test, Measurement measurement) {
+        Entry entry = baseline.tests().get(test);
+        if (entry == null) {
+            throw new AssertionFailedError("Sem linha de base para " + test + " em " + file()
+                    + "; grave com -D" + MODE_PROPERTY + "=update");
+        }
+        Tolerance tolerance = overridden(entry.tolerance() != null ? entry.tolerance() : baseline.tolerance());
+        List<Row> rows = compare(entry.baseline(), measurement, tolerance, minSamples());
+        if (rows.stream().anyMatch(Row::regressed)) {
+            throw new AssertionFailedError(diff(test, rows));
+        }
+    }
+
+    /** Métricas comparáveis; percentis sem amostras suficientes, na base ou na execução, ficam de fora. */
+    static List<Row> compare(Measurement baseline, Measurement current, Tolerance tolerance, int minSamples) {
+        long samples = Math.min(baseline.samples(), current.samples());
+        List<Row> rows = new ArrayList<>();
+        if (samples >= requiredSamples(50, minSamples)) {
+            rows.add(latency("p50 ms", baseline.p50Ms(), current.p50Ms(), tolerance));
+        }
+        if (samples >= requiredSamples(95, minSamples)) {
+            rows.add(latency("p95 ms", baseline.p95Ms(), current.p95Ms(), tolerance));
+        }
+        if (samples >= requiredSamples(99, minSamples)) {
+            rows.add(latency("p99 ms", baseline.p99Ms(), current.p99Ms(), tolerance));
+        }
+        if (baseline.allocatedBytes() != null && current.allocatedBytes() != null) {
+            rows.add(new Row("alocação KB", baseline.allocatedBytes() / 1024.0, current.allocatedBytes() / 1024.0,
+                    baseline.allocatedBytes() * (1 + tolerance.allocation()) / 1024.0));
+        }
+        return rows;
+    }
+
+    static String diff(String test, List<Row> rows) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Regressão de desempenho em ").append(test).append(" (linha de base em ").append(file())
+                .append("):\n");
+        sb.append(String.format(Locale.ROOT, "  %-12s %12s %12s %12s %9s%n", "métrica", "base", "atual", "limite",
+                "variação"));
+        for (Row row : rows) {
+            double change = row.baseline() == 0 ? 0 : (row.current() / row.baseline() - 1) * 100;
+            sb.append(String.format(Locale.ROOT, "  %-12s %12.2f %12.2f %12.2f %+8.1f%%%s%n", row.metric(),
+                    row.baseline(), row.current(), row.limit(), change,
+                    row.regressed() ? "  <-- acima do limite" : ""));
+        }
+        sb.append("Se a mudança é esperada, atualize com -D").append(MODE_PROPERTY).append("=update");
+        return sb.toString();
+    }
+
+    /** Linha de base com as medidas de {@code current} no lugar das anteriores, mantendo as tolerâncias. */
+    static Baseline merge(Baseline old, Map<String, Measurement> current) {
+        Map<String, Entry> tests = new TreeMap<>(old.tests());
+        current.forEach((test, measurement) -> {
+            Entry previous = tests.get(test);
+            tests.put(test, new Entry(measurement, previous == null ? null : previous.tolerance()));
+        });
+        return new Baseline(old.tolerance(), tests);
+    }
+
+    public static Baseline load(Path file) {
+        if (!Files.exists(file)) {
+            return new Baseline(DEFAULT_TOLERANCE, Map.of());
+        }
+        try {
+            Baseline baseline = MAPPER.readValue(file.toFile(), Baseline.class);
+            return baseline.tolerance() == null ? new Baseline(DEFAULT_TOLERANCE, baseline.tests()) : baseline;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Linha de base inválida: " + file, e);
+        }
+    }
+
+    public static void write(Path file, Baseline baseline) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, MAPPER.writeValueAsString(baseline) + "\n", StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar linha de base em " + file, e);
+        }
+    }
+
+    /**
+     * Grava as medidas desta execução em {@code dir} e, no modo {@code update}, a nova linha de base. Chamado pelo
+     * {@link RequestMetricsListener} ao fim dos testes.
+     */
+    public static void writeReports(Path dir) {
+        if (CURRENT.isEmpty()) {
+            return;
+        }
+        write(dir.resolve("perf-baseline-current.json"), merge(new Baseline(DEFAULT_TOLERANCE, Map.of()), CURRENT));
+        if (mode() == Mode.UPDATE) {
+            write(file(), merge(load(file()), CURRENT));
+        }
+    }
+
+    static int minSamples() {
+        String value = System.getProperty(MIN_SAMPLES_PROPERTY);
+        return value == null || value.isBlank() ? DEFAULT_MIN_SAMPLES : Integer.parseInt(value.trim());
+    }
+
+    /** Amostras para o percentil {@code percentile} ser comparado: uma acima dele, e ao menos {@code minSamples}. */
+    static long requiredSamples(double percentile, int minSamples) {
+        return Math.max(minSamples, (long) Math.ceil(100 / (100 - percentile) - 1e-9));
+    }
+
+    private static Row latency(String metric, double baseline, double current, Tolerance tolerance) {
+        return new Row(metric, baseline, current, baseline * (1 + tolerance.latency()) + tolerance.slackMillis());
+    }
+
+    private static Tolerance overridden(Tolerance tolerance) {
+        return new Tolerance(
+                doubleProperty(TOLERANCE_PROPERTY, tolerance.latency()),
+                doubleProperty(SLACK_PROPERTY, tolerance.slackMillis()),
+                doubleProperty(ALLOCATION_TOLERANCE_PROPERTY, tolerance.allocation()));
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static Baseline baseline() {
+        Baseline baseline = loaded;
+        if (baseline == null) {
+            synchronized (PerfBaseline.class) {
+                baseline = loaded;
+                if (baseline == null) {
+                    baseline = load(file());
+                    loaded = baseline;
+                }
+            }
+        }
+        return baseline;
+    }
+}
@@ -0,0 +1,97 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Mede as requisições feitas na thread de cada teste e entrega o resultado ao {@link PerfBaseline}; no modo
+ * {@code check} o teste falha se regredir. Registrado para todos os testes em
+ * {@code META-INF/services/org.junit.jupiter.api.extension.Extension}; testes sem requisições são ignorados.
+ * <p>
+ * Só contam as requisições do método de teste, sem o {@code @BeforeEach}, e a alocação medida é a da thread durante
+ * essas requisições. Requisições feitas por outras threads, como as dos geradores de carga, ficam de fora. Nos modos
+ * {@code check} e {@code update} a API é aquecida uma vez antes do primeiro teste, para que o custo da primeira
+ * requisição da execução (inicialização preguiçosa do servidor, carga de classes e JIT do cliente) não caia no teste
+ * que por acaso rodar primeiro.
+ */
+public class PerfBaselineExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(PerfBaselineExtension.class);
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int WARMUP_ROUNDS = 50;
+
+    private static volatile boolean warmedUp;
+
+    /** Amostras de um teste; usado só pela thread dele. */
+    private static final class Sampling implements RequestMetrics.ThreadSink {
+        final Histogram latencyMicros = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final boolean allocation = PerfBaseline.allocationSampled();
+        long allocatedBytes;
+        boolean allocationMeasured = allocation;
+
+        @Override
+        public void record(long latencyMicros, long allocatedBytes) {
+            this.latencyMicros.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+            if (allocatedBytes < 0) {
+                allocationMeasured = false;
+            } else {
+                this.allocatedBytes += allocatedBytes;
+            }
+        }
+
+        @Override
+        public boolean sampleAllocation() {
+            return allocation;
+        }
+    }
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        if (PerfBaseline.mode() != PerfBaseline.Mode.RECORD) {
+            warmUp();
+        }
+        Sampling sampling = new Sampling();
+        context.getStore(NAMESPACE).put(Sampling.class, sampling);
+        RequestMetrics.startThreadSamples(sampling);
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        RequestMetrics.stopThreadSamples();
+        Sampling sampling = context.getStore(NAMESPACE).remove(Sampling.class, Sampling.class);
+        if (sampling == null || sampling.latencyMicros.getTotalCount() == 0
+                || context.getExecutionException().isPresent()) {
+            return;
+        }
+        String test = context.getRequiredTestClass().getSimpleName() + "#" + context.getRequiredTestMethod().getName();
+        PerfBaseline.record(test, PerfBaseline.Measurement.of(sampling.latencyMicros,
+                sampling.allocationMeasured ? sampling.allocatedBytes : null));
+    }
+
+    private static void warmUp() {
+        if (warmedUp) {
+            return;
+        }
+        synchronized (PerfBaselineExtension.class) {
+            if (warmedUp) {
+                return;
+            }
+            // sem o filtro de métricas: o aquecimento não entra nos relatórios
+            String adminToken = TokenUtil.obtainAccesToken("alex@gmail.com", "123456");
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                given().baseUri(ApiServer.baseURI()).get("/products/{id}", 1 + i % 25);
+                given().baseUri(ApiServer.baseURI()).queryParam("name", "Macbook").get("/products");
+                given().baseUri(ApiServer.baseURI()).header("Authorization", "Bearer " + adminToken)
+                        .get("/orders/{id}", 1);
+            }
+            warmedUp = true;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentest4j.AssertionFailedError;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+public class PerfBaselineTest {
+
+    private static final PerfBaseline.Tolerance TOLERANCE = new PerfBaseline.Tolerance(0.5, 5, 0.25);
+
+    @Test
+    public void checkShouldFailWithDiffWhenPercentileExceedsToleranceAndSlack() {
+        PerfBaseline.Baseline baseline = new PerfBaseline.Baseline(TOLERANCE, Map.of("OrderControllerRA#findById",
+                new PerfBaseline.Entry(new PerfBaseline.Measurement(100, 10, 10, 10, 1000L), null)));
+
+        // limite = 10 * 1.5 + 5 = 20 ms
+        PerfBaseline.check(baseline, "OrderControllerRA#findById",
+                new PerfBaseline.Measurement(100, 19, 19, 19, 1200L));
+        AssertionFailedError error = Assertions.assertThrows(AssertionFailedError.class, () ->
+                PerfBaseline.check(baseline, "OrderControllerRA#findById",
+                        new PerfBaseline.Measurement(100, 12, 12, 21, 1000L)));
+
+        Assertions.assertTrue(error.getMessage().contains("OrderControllerRA#findById"), error.getMessage());
+        Assertions.assertTrue(error.getMessage().matches("(?s).*p99 ms\\s+10\\.00\\s+21\\.00\\s+20\\.00.*acima do "
+                + "limite.*"), error.getMessage());
+        Assertions.assertFalse(error.getMessage().matches("(?s).*p50 ms[^\\n]*acima.*"), error.getMessage());
+    }
+
+    @Test
+    public void checkShouldUseEntryToleranceAndFailTestsWithoutBaseline() {
+        PerfBaseline.Baseline baseline = new PerfBaseline.Baseline(TOLERANCE, Map.of("ProductControllerRA#findAll",
+                new PerfBaseline.Entry(new PerfBaseline.Measurement(100, 10, 10, 10, 1000L),
+                        new PerfBaseline.Tolerance(3.0, 0, 0.25))));
+
+        PerfBaseline.check(baseline, "ProductControllerRA#findAll",
+                new PerfBaseline.Measurement(100, 35, 35, 35, null));
+        Assertions.assertThrows(AssertionFailedError.class, () -> PerfBaseline.check(baseline,
+                "ProductControllerRA#findAll", new PerfBaseline.Measurement(100, 10, 10, 10, 1500L)));
+        // teste medido sem entrada: falha em vez de passar sem controle
+        AssertionFailedError missing = Assertions.assertThrows(AssertionFailedError.class, () -> PerfBaseline.check(
+                baseline, "ProductControllerRA#novo", new PerfBaseline.Measurement(1, 5, 5, 5, null)));
+        Assertions.assertTrue(missing.getMessage().contains("ProductControllerRA#novo"), missing.getMessage());
+    }
+
+    @Test
+    public void checkShouldSkipPercentilesWithoutEnoughSamples() {
+        PerfBaseline.Baseline baseline = new PerfBaseline.Baseline(TOLERANCE, Map.of(
+                "OrderControllerRA#findById",
+                new PerfBaseline.Entry(new PerfBaseline.Measurement(1, 10, 10, 10, 1000L), null),
+                "ProductControllerRA#findAll",
+                new PerfBaseline.Entry(new PerfBaseline.Measurement(50, 10, 10, 10, null), null)));
+
+        // uma requisição só: nenhum percentil é comparado, só a alocação
+        PerfBaseline.check(baseline, "OrderControllerRA#findById",
+                new PerfBaseline.Measurement(1, 90, 90, 90, 1000L));
+        Assertions.assertThrows(AssertionFailedError.class, () -> PerfBaseline.check(baseline,
+                "OrderControllerRA#findById", new PerfBaseline.Measurement(1, 10, 10, 10, 2000L)));
+        // 50 amostras bastam para p50 e p95, não para o p99
+        PerfBaseline.check(baseline, "ProductControllerRA#findAll",
+                new PerfBaseline.Measurement(50, 10, 10, 90, null));
+        Assertions.assertThrows(AssertionFailedError.class, () -> PerfBaseline.check(baseline,
+                "ProductControllerRA#findAll", new PerfBaseline.Measurement(50, 10, 90, 90, null)));
+        Assertions.assertEquals(100, PerfBaseline.requiredSamples(99, 20));
+        Assertions.assertEquals(20, PerfBaseline.requiredSamples(95, 20));
+    }
+
+    @Test
+    public void updateShouldKeepTolerancesAndRoundTripThroughFile(@TempDir Path dir) {
+        PerfBaseline.Tolerance own = new PerfBaseline.Tolerance(2.0, 50, 1.0);
+        PerfBaseline.Baseline old = new PerfBaseline.Baseline(TOLERANCE, Map.of(
+                "A#kept", new PerfBaseline.Entry(new PerfBaseline.Measurement(1, 1, 1, 1, null), null),
+                "B#updated", new PerfBaseline.Entry(new PerfBaseline.Measurement(1, 1, 1, 1, null), own)));
+
+        PerfBaseline.Baseline merged = PerfBaseline.merge(old, Map.of(
+                "B#updated", new PerfBaseline.Measurement(3, 2, 4, 5, 2048L)));
+        Path file = dir.resolve("baseline.json");
+        PerfBaseline.write(file, merged);
+        PerfBaseline.Baseline loaded = PerfBaseline.load(file);
+
+        Assertions.assertEquals(merged, loaded);
+        Assertions.assertEquals(TOLERANCE, loaded.tolerance());
+        Assertions.assertEquals(own, loaded.tests().get("B#updated").tolerance());
+        Assertions.assertEquals(new PerfBaseline.Measurement(3, 2, 4, 5, 2048L),
+                loaded.tests().get("B#updated").baseline());
+        Assertions.assertEquals(old.tests().get("A#kept"), loaded.tests().get("A#kept"));
+    }
+}
@@ -0,0 +1,195 @@
+package com.devsuperior.dscommerce.tests;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.opentest4j.AssertionFailedError;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Validação de páginas de produtos ({@code content[*]}) lendo o corpo em streaming, item a item.
+ * <p>
+ * Diferente do GPath, que monta a página inteira em memória antes de avaliar {@code content.findAll {...}},
+ * aqui cada item é descartado depois de passar pelas verificações; a memória usada depende só das verificações
+ * (nomes esperados, limite de mensagens de erro), não do tamanho da página.
+ * <pre>
+ * ProductPageStreamMatcher.content()
+ *         .namesWhere("price > 2000", item -> item.price() > 2000, List.of("Smart TV", "PC Gamer Hera"))
+ *         .idsAscending()
+ *         .verify(given(RequestSpecs.streaming()).get("/products?size=25").asInputStream());
+ * </pre>
+ */
+public final class ProductPageStreamMatcher {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int MAX_REPORTED_FAILURES = 10;
+
+    public record Item(long id, String name, double price, String imgUrl) {
+    }
+
+    public record Result(long items, long totalElements) {
+    }
+
+    private interface Check {
+        void accept(Item item, long index, Failures failures);
+
+        default void finish(Failures failures) {
+        }
+    }
+
+    private static final class Failures {
+        final List<String> messages = new ArrayList<>();
+        long count;
+
+        void add(String message) {
+            count++;
+            if (messages.size() < MAX_REPORTED_FAILURES) {
+                messages.add(message);
+            }
+        }
+    }
+
+    private final List<Check> checks = new ArrayList<>();
+
+    private ProductPageStreamMatcher() {
+    }
+
+    public static ProductPageStreamMatcher content() {
+        return new ProductPageStreamMatcher();
+    }
+
+    /** Todos os itens devem satisfazer {@code predicate}. */
+    public ProductPageStreamMatcher everyItem(String description, Predicate<Item> predicate) {
+        checks.add((item, index, failures) -> {
+            if (!predicate.test(item)) {
+                failures.add("content[" + index + "] (id " + item.id() + ") não satisfaz " + description);
+            }
+        });
+        return this;
+    }
+
+    /** Os itens que satisfazem {@code filter} devem incluir todos os {@code expectedNames}, como {@code hasItems}. */
+    public ProductPageStreamMatcher namesWhere(String description, Predicate<Item> filter,
+                                               Collection<String> expectedNames) {
+        Set<String> missing = new LinkedHashSet<>(expectedNames);
+        checks.add(new Check() {
+            @Override
+            public void accept(Item item, long index, Failures failures) {
+                if (!missing.isEmpty() && filter.test(item)) {
+                    missing.remove(item.name());
+                }
+            }
+
+            @Override
+            public void finish(Failures failures) {
+                if (!missing.isEmpty()) {
+                    failures.add("nenhum item com " + description + " se chama " + missing);
+                }
+            }
+        });
+        return this;
+    }
+
+    /** Todo nome deve estar em {@code allowedNames}. */
+    public ProductPageStreamMatcher namesIn(Collection<String> allowedNames) {
+        Set<String> allowed = Set.copyOf(allowedNames);
+        return everyItem("nome em " + allowed, item -> allowed.contains(item.name()));
+    }
+
+    /** Entrega cada item a {@code action}, sem verificar nada; útil para coletar ids ou somar valores. */
+    public ProductPageStreamMatcher forEachItem(Consumer<Item> action) {
+        checks.add((item, index, failures) -> action.accept(item));
+        return this;
+    }
+
+    /** Os ids devem estar em ordem estritamente crescente, que é a ordenação padrão da API. */
+    public ProductPageStreamMatcher idsAscending() {
+        checks.add(new Check() {
+            long previous = Long.MIN_VALUE;
+
+            @Override
+            public void accept(Item item, long index, Failures failures) {
+                if (item.id() <= previous) {
+                    failures.add("content[" + index + "] id " + item.id() + " não é maior que o anterior " + previous);
+                }
+                previous = item.id();
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Lê e fecha {@code body}, aplicando as verificações a cada item de {@code content}.
+     *
+     * @throws AssertionFailedError se alguma verificação falhar
+     */
+    public Result verify(InputStream body) {
+        Failures failures = new Failures();
+        long items = 0;
+        long totalElements = -1;
+        try (InputStream in = body; JsonParser parser = JSON.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new AssertionFailedError("Corpo não é um objeto JSON");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("content".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        Item item = readItem(parser);
+                        for (Check check : checks) {
+                            check.accept(item, items, failures);
+                        }
+                        items++;
+                    }
+                } else if ("totalElements".equals(field)) {
+                    totalElements = parser.getLongValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler a página", e);
+        }
+        for (Check check : checks) {
+            check.finish(failures);
+        }
+        if (failures.count > 0) {
+            throw new AssertionFailedError(failures.count + " falha(s) em " + items + " itens: "
+                    + String.join("; ", failures.messages));
+        }
+        return new Result(items, totalElements);
+    }
+
+    private static Item readItem(JsonParser parser) throws IOException {
+        long id = 0;
+        String name = null;
+        double price = 0;
+        String imgUrl = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "id" -> id = parser.getLongValue();
+                case "name" -> name = parser.getText();
+                case "price" -> price = parser.getDoubleValue();
+                case "imgUrl" -> imgUrl = parser.getText();
+                default -> parser.skipChildren();
+            }
+        }
+        return new Item(id, name, price, imgUrl);
+    }
+}
@@ -0,0 +1,91 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.List;
+
+public class ProductPageStreamMatcherTest {
+
+    private static final String PAGE = """
+            {"content":[
+              {"id":1,"name":"The Lord of the Rings","price":90.5,"imgUrl":"1.jpg","categories":[{"id":1,"name":"Livros"}]},
+              {"id":2,"name":"Smart TV","price":2190.0,"imgUrl":"2.jpg"},
+              {"id":4,"name":"PC Gamer Hera","price":2250.0,"imgUrl":null}
+            ],"totalElements":3,"totalPages":1,"size":20,"number":0,"first":true,"last":true,"empty":false}
+            """;
+
+    @Test
+    public void verifyShouldPassWhenAllChecksHold() {
+        ProductPageStreamMatcher.Result result = ProductPageStreamMatcher.content()
+                .namesWhere("price > 2000", item -> item.price() > 2000, List.of("Smart TV", "PC Gamer Hera"))
+                .everyItem("price > 0", item -> item.price() > 0)
+                .idsAscending()
+                .verify(stream(PAGE));
+
+        Assertions.assertEquals(3, result.items());
+        Assertions.assertEquals(3, result.totalElements());
+    }
+
+    @Test
+    public void verifyShouldReportEveryFailedCheck() {
+        AssertionFailedError error = Assertions.assertThrows(AssertionFailedError.class, () ->
+                ProductPageStreamMatcher.content()
+                        .namesWhere("price > 2000", item -> item.price() > 2000, List.of("Macbook Pro"))
+                        .namesIn(List.of("Smart TV", "PC Gamer Hera"))
+                        .verify(stream(PAGE)));
+
+        Assertions.assertTrue(error.getMessage().startsWith("2 falha(s) em 3 itens"), error.getMessage());
+        Assertions.assertTrue(error.getMessage().contains("[Macbook Pro]"));
+        Assertions.assertTrue(error.getMessage().contains("content[0] (id 1)"));
+    }
+
+    @Test
+    public void verifyShouldStreamLargePagesItemByItem() {
+        // ~130 MB gerados sob demanda: a página nunca existe inteira em memória
+        int items = 1_000_000;
+        ProductPageStreamMatcher.Result result = ProductPageStreamMatcher.content()
+                .everyItem("price > 0", item -> item.price() > 0)
+                .idsAscending()
+                .verify(generatedPage(items));
+
+        Assertions.assertEquals(items, result.items());
+        Assertions.assertEquals(items, result.totalElements());
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static InputStream generatedPage(int items) {
+        String filler = "x".repeat(40);
+        Enumeration<InputStream> parts = new Enumeration<>() {
+            int next = -1;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next <= items;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                int i = next++;
+                if (i < 0) {
+                    return stream("{\"content\":[");
+                }
+                if (i == items) {
+                    return stream("],\"totalElements\":" + items + "}");
+                }
+                return stream((i > 0 ? "," : "") + "{\"id\":" + (i + 1) + ",\"name\":\"Produto " + i
+                        + "\",\"price\":" + (i + 1) + ".5,\"description\":\"" + filler + "\",\"imgUrl\":\"" + i + ".jpg\"}");
+            }
+        };
+        return new SequenceInputStream(parts);
+    }
+}
@@ -0,0 +1,342 @@
+package com.devsuperior.dscommerce.tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Métricas por endpoint de todas as requisições feitas pelos testes RA, pelo TokenUtil e pela carga.
+ * <p>
+ * O endpoint é o método com o caminho como escrito no teste, com as variáveis ainda no lugar
+ * ({@code GET /products/{id}}), para que todas as chamadas ao mesmo recurso caiam na mesma série. O registro não
+ * usa locks no caminho da requisição: latência e tamanho vão para {@link Recorder}s do HdrHistogram e os
+ * contadores são {@link LongAdder}s.
+ * <p>
+ * Ao fim da execução o {@link RequestMetricsListener} grava {@code metrics.prom} (formato texto do Prometheus) e
+ * {@code metrics.json} em {@code -Dra.metrics.dir} (padrão {@code target/ra-metrics}).
+ */
+public final class RequestMetrics {
+
+    public static final String DIR_PROPERTY = "ra.metrics.dir";
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final long HIGHEST_TRACKABLE_BYTES = 1L << 30;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final ConcurrentMap<String, Endpoint> ENDPOINTS = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<ThreadSink> THREAD_SINK = new ThreadLocal<>();
+
+    private static final Filter BUFFERED = new TimingFilter(true);
+    private static final Filter STREAMING = new TimingFilter(false);
+
+    private RequestMetrics() {
+    }
+
+    /**
+     * Filtro para especificações cujo corpo é lido por um filtro seguinte, como o
+     * {@link HttpConnectionPool#releaseConnectionFilter()}: mede a requisição até o fim do corpo e o tamanho dele.
+     */
+    public static Filter filter() {
+        return BUFFERED;
+    }
+
+    /**
+     * Filtro para respostas lidas em streaming: mede até os headers e só conhece o tamanho pelo
+     * {@code Content-Length}.
+     */
+    public static Filter streamingFilter() {
+        return STREAMING;
+    }
+
+    /** Conta uma nova tentativa de {@code method path}, feita por quem repete requisições que falharam. */
+    public static void recordRetry(String method, String path) {
+        endpoint(method, path).retries.increment();
+    }
+
+    /** Recebe cada requisição feita na thread em que foi registrado por {@link #startThreadSamples}. */
+    public interface ThreadSink {
+
+        /**
+         * @param allocatedBytes bytes alocados pela thread durante a requisição, ou -1 se não medidos
+         */
+        void record(long latencyMicros, long allocatedBytes);
+
+        default boolean sampleAllocation() {
+            return false;
+        }
+    }
+
+    /**
+     * Entrega também a {@code sink} as requisições feitas nesta thread, até {@link #stopThreadSamples()}. Usado pelo
+     * {@link PerfBaselineExtension} para separar as amostras de cada teste.
+     */
+    public static void startThreadSamples(ThreadSink sink) {
+        THREAD_SINK.set(sink);
+    }
+
+    public static void stopThreadSamples() {
+        THREAD_SINK.remove();
+    }
+
+    /** Estado atual do registro, ordenado por endpoint. */
+    public static Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshot = new TreeMap<>();
+        ENDPOINTS.forEach((key, endpoint) -> snapshot.put(key, endpoint.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * @param latencyMicros latência de todas as respostas, em microssegundos
+     * @param bytes         tamanho do corpo das respostas em que ele é conhecido
+     * @param statuses      respostas por status HTTP
+     * @param failures      requisições sem resposta (conexão recusada, timeout...)
+     */
+    public record Snapshot(String method, String path, Histogram latencyMicros, Histogram bytes,
+                           Map<Integer, Long> statuses, long failures, long retries) {
+    }
+
+    private static Endpoint endpoint(String method, String path) {
+        String key = method + " " + path;
+        Endpoint endpoint = ENDPOINTS.get(key);
+        return endpoint != null ? endpoint : ENDPOINTS.computeIfAbsent(key, k -> new Endpoint(method, path));
+    }
+
+    /** Bytes já alocados pela thread atual, ou -1 se a JVM não informa. */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private static String templatedPath(String userDefinedPath) {
+        int query = userDefinedPath.indexOf('?');
+        String path = query < 0 ? userDefinedPath : userDefinedPath.substring(0, query);
+        return path.isEmpty() ? "/" : path;
+    }
+
+    private static final class TimingFilter implements Filter {
+
+        private final boolean bodyRead;
+
+        TimingFilter(boolean bodyRead) {
+            this.bodyRead = bodyRead;
+        }
+
+        @Override
+        public Response filter(FilterableRequestSpecification requestSpec,
+                               FilterableResponseSpecification responseSpec, FilterContext ctx) {
+            Endpoint endpoint = endpoint(requestSpec.getMethod(), templatedPath(requestSpec.getUserDefinedPath()));
+            ThreadSink sink = THREAD_SINK.get();
+            long allocatedAtStart = sink != null && sink.sampleAllocation() ? allocatedBytes() : -1;
+            long start = System.nanoTime();
+            Response response;
+            try {
+                response = ctx.next(requestSpec, responseSpec);
+            } catch (RuntimeException e) {
+                endpoint.failures.increment();
+                throw e;
+            }
+            long size = -1;
+            if (bodyRead) {
+                // já lido e guardado pelo filtro seguinte, não faz nova leitura
+                size = response.asByteArray().length;
+            } else if (response.header("Content-Length") != null) {
+                size = Long.parseLong(response.header("Content-Length"));
+            }
+            long micros = (System.nanoTime() - start) / 1000;
+            endpoint.record(micros, size, response.statusCode());
+            if (sink != null) {
+                long allocatedAtEnd = allocatedAtStart < 0 ? -1 : allocatedBytes();
+                sink.record(micros, allocatedAtEnd < 0 ? -1 : allocatedAtEnd - allocatedAtStart);
+            }
+            return response;
+        }
+    }
+
+    private static final class Endpoint {
+        final String method;
+        final String path;
+        final Recorder latency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        final Recorder bytes = new Recorder(HIGHEST_TRACKABLE_BYTES, 2);
+        final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LongAdder failures = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        // acumulado dos intervalos já lidos dos Recorders; só quem lê o registro sincroniza
+        private final Histogram latencyTotal = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Histogram bytesTotal = new Histogram(HIGHEST_TRACKABLE_BYTES, 2);
+
+        Endpoint(String method, String path) {
+            this.method = method;
+            this.path = path;
+        }
+
+        void record(long micros, long size, int status) {
+            latency.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            if (size >= 0) {
+                bytes.recordValue(Math.min(size, HIGHEST_TRACKABLE_BYTES));
+            }
+            LongAdder count = statuses.get(status);
+            if (count == null) {
+                count = statuses.computeIfAbsent(status, s -> new LongAdder());
+            }
+            count.increment();
+        }
+
+        synchronized Snapshot snapshot() {
+            latencyTotal.add(latency.getIntervalHistogram());
+            bytesTotal.add(bytes.getIntervalHistogram());
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return new Snapshot(method, path, latencyTotal.copy(), bytesTotal.copy(), counts, failures.sum(),
+                    retries.sum());
+        }
+    }
+
+    /** Formato texto de exposição do Prometheus. */
+    public static String prometheus(Map<String, Snapshot> snapshot) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# HELP ra_http_request_duration_seconds Latência das requisições dos testes RA\n");
+        sb.append("# TYPE ra_http_request_duration_seconds summary\n");
+        for (Snapshot s : snapshot.values()) {
+            for (double q : QUANTILES) {
+                sb.append(String.format(Locale.ROOT, "ra_http_request_duration_seconds{%s,quantile=\"%s\"} %.6f%n",
+                        labels(s), q, s.latencyMicros().getValueAtPercentile(q * 100) / 1e6));
+            }
+            sb.append(String.format(Locale.ROOT, "ra_http_request_duration_seconds_sum{%s} %.6f%n", labels(s),
+                    s.latencyMicros().getMean() * s.latencyMicros().getTotalCount() / 1e6));
+            sb.append(String.format(Locale.ROOT, "ra_http_request_duration_seconds_count{%s} %d%n", labels(s),
+                    s.latencyMicros().getTotalCount()));
+        }
+        sb.append("# HELP ra_http_response_size_bytes Tamanho do corpo das respostas\n");
+        sb.append("# TYPE ra_http_response_size_bytes summary\n");
+        for (Snapshot s : snapshot.values()) {
+            for (double q : QUANTILES) {
+                sb.append(String.format(Locale.ROOT, "ra_http_response_size_bytes{%s,quantile=\"%s\"} %d%n",
+                        labels(s), q, s.bytes().getValueAtPercentile(q * 100)));
+            }
+            sb.append(String.format(Locale.ROOT, "ra_http_response_size_bytes_sum{%s} %d%n", labels(s),
+                    Math.round(s.bytes().getMean() * s.bytes().getTotalCount())));
+            sb.append(String.format(Locale.ROOT, "ra_http_response_size_bytes_count{%s} %d%n", labels(s),
+                    s.bytes().getTotalCount()));
+        }
+        sb.append("# HELP ra_http_responses_total Respostas por status\n");
+        sb.append("# TYPE ra_http_responses_total counter\n");
+        for (Snapshot s : snapshot.values()) {
+            s.statuses().forEach((status, count) -> sb.append(String.format(Locale.ROOT,
+                    "ra_http_responses_total{%s,status=\"%d\"} %d%n", labels(s), status, count)));
+        }
+        counter(sb, snapshot, "ra_http_request_failures_total", "Requisições sem resposta", Snapshot::failures);
+        counter(sb, snapshot, "ra_http_retries_total", "Novas tentativas após falha", Snapshot::retries);
+        return sb.toString();
+    }
+
+    /**
+     * Relatório JSON, com os histogramas completos codificados (HdrHistogram comprimido em Base64) para comparar
+     * ou somar execuções de builds diferentes.
+     */
+    public static String json(Map<String, Snapshot> snapshot) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Map.Entry<String, Snapshot> entry : snapshot.entrySet()) {
+            Snapshot s = entry.getValue();
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("count", s.latencyMicros().getTotalCount());
+            latency.put("minMs", s.latencyMicros().getMinValue() / 1000.0);
+            for (double q : QUANTILES) {
+                latency.put("p" + format(q * 100) + "Ms", s.latencyMicros().getValueAtPercentile(q * 100) / 1000.0);
+            }
+            latency.put("maxMs", s.latencyMicros().getMaxValue() / 1000.0);
+            latency.put("meanMs", s.latencyMicros().getMean() / 1000.0);
+            latency.put("histogram", encode(s.latencyMicros()));
+
+            Map<String, Object> bytes = new LinkedHashMap<>();
+            bytes.put("count", s.bytes().getTotalCount());
+            bytes.put("total", Math.round(s.bytes().getMean() * s.bytes().getTotalCount()));
+            bytes.put("mean", s.bytes().getMean());
+            bytes.put("max", s.bytes().getMaxValue());
+
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("method", s.method());
+            endpoint.put("path", s.path());
+            endpoint.put("latency", latency);
+            endpoint.put("bytes", bytes);
+            endpoint.put("statuses", s.statuses());
+            endpoint.put("failures", s.failures());
+            endpoint.put("retries", s.retries());
+            endpoints.put(entry.getKey(), endpoint);
+        }
+        try {
+            return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValueAsString(Map.of("endpoints", endpoints));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Grava os dois relatórios em {@code dir}. */
+    public static void writeReports(Path dir) {
+        Map<String, Snapshot> snapshot = snapshot();
+        try {
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve("metrics.prom"), prometheus(snapshot), StandardCharsets.UTF_8);
+            Files.writeString(dir.resolve("metrics.json"), json(snapshot), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar métricas em " + dir, e);
+        }
+    }
+
+    public static Path reportDir() {
+        return Path.of(System.getProperty(DIR_PROPERTY, "target/ra-metrics"));
+    }
+
+    private static void counter(StringBuilder sb, Map<String, Snapshot> snapshot, String name, String help,
+                                ToLongFunction<Snapshot> value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" counter\n");
+        for (Snapshot s : snapshot.values()) {
+            sb.append(String.format(Locale.ROOT, "%s{%s} %d%n", name, labels(s), value.applyAsLong(s)));
+        }
+    }
+
+    private static String labels(Snapshot s) {
+        return "method=\"" + s.method() + "\",path=\"" + s.path().replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile)
+                : String.valueOf(percentile).replace('.', '_');
+    }
+}
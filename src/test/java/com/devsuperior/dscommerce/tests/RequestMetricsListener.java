@@ -0,0 +1,19 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+/**
+ * Grava os relatórios de {@link RequestMetrics} e as medidas do {@link PerfBaseline} ao fim da execução dos testes.
+ * Registrado em {@code META-INF/services/org.junit.platform.launcher.TestExecutionListener}.
+ */
+public class RequestMetricsListener implements TestExecutionListener {
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (!RequestMetrics.snapshot().isEmpty()) {
+            RequestMetrics.writeReports(RequestMetrics.reportDir());
+        }
+        PerfBaseline.writeReports(RequestMetrics.reportDir());
+    }
+}
@@ -0,0 +1,47 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.*;
+
+public class RequestMetricsRA {
+
+    @Test
+    public void filterShouldRecordRequestsUnderTemplatedPath() {
+        long before = count("GET /products/{id}");
+
+        for (long id = 1; id <= 3; id++) {
+            given(RequestSpecs.api()).get("/products/{id}", id).then().statusCode(200);
+        }
+        given(RequestSpecs.api()).get("/products/{id}", 1_000_000L).then().statusCode(404);
+
+        RequestMetrics.Snapshot snapshot = RequestMetrics.snapshot().get("GET /products/{id}");
+        Assertions.assertTrue(snapshot.latencyMicros().getTotalCount() - before >= 4);
+        Assertions.assertTrue(snapshot.statuses().get(200) >= 3);
+        Assertions.assertTrue(snapshot.statuses().get(404) >= 1);
+        Assertions.assertTrue(snapshot.bytes().getMaxValue() > 0);
+    }
+
+    @Test
+    public void filterShouldIgnoreQueryStringAndReportInPrometheusAndJson() {
+        given(RequestSpecs.api()).get("/products?size=1&name=metrics").then().statusCode(200);
+
+        Map<String, RequestMetrics.Snapshot> snapshot = RequestMetrics.snapshot();
+        String prometheus = RequestMetrics.prometheus(snapshot);
+        String json = RequestMetrics.json(snapshot);
+
+        Assertions.assertTrue(snapshot.containsKey("GET /products"));
+        Assertions.assertTrue(prometheus.contains(
+                "ra_http_responses_total{method=\"GET\",path=\"/products\",status=\"200\"}"), prometheus);
+        Assertions.assertTrue(prometheus.contains("ra_http_retries_total{method=\"GET\",path=\"/products\"}"));
+        Assertions.assertTrue(json.contains("\"GET /products\""), json);
+    }
+
+    private static long count(String endpoint) {
+        RequestMetrics.Snapshot snapshot = RequestMetrics.snapshot().get(endpoint);
+        return snapshot == null ? 0 : snapshot.latencyMicros().getTotalCount();
+    }
+}
@@ -0,0 +1,43 @@
+package com.devsuperior.dscommerce.tests;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.specification.RequestSpecification;
+
+/**
+ * Especificações de requisição por teste, no lugar de {@code RestAssured.baseURI} e demais campos estáticos,
+ * para que as classes RA possam rodar em paralelo. Todas usam o {@link HttpConnectionPool} compartilhado e
+ * registram cada requisição em {@link RequestMetrics}.
+ */
+public final class RequestSpecs {
+
+    private RequestSpecs() {
+    }
+
+    public static RequestSpecification api() {
+        return api(ApiServer.baseURI());
+    }
+
+    /** Mesma especificação apontando para outro endereço, como o de um {@link FaultProxy}. */
+    public static RequestSpecification api(String baseUri) {
+        return base(baseUri)
+                .addFilter(RequestMetrics.filter())
+                .addFilter(HttpConnectionPool.releaseConnectionFilter())
+                .build();
+    }
+
+    /**
+     * Especificação que não lê o corpo antecipadamente, para consumir {@code Response.asInputStream()} em
+     * streaming. A conexão volta ao pool quando o stream é lido até o fim ou fechado.
+     */
+    public static RequestSpecification streaming() {
+        return base(ApiServer.baseURI())
+                .addFilter(RequestMetrics.streamingFilter())
+                .build();
+    }
+
+    private static RequestSpecBuilder base(String baseUri) {
+        return new RequestSpecBuilder()
+                .setBaseUri(baseUri)
+                .setConfig(HttpConnectionPool.restAssuredConfig());
+    }
+}
@@ -0,0 +1,18 @@
+package com.devsuperior.dscommerce.tests;
+
+/**
+ * Nomes de recursos compartilhados para {@code @ResourceLock} na execução paralela.
+ */
+public final class Resources {
+
+    /** Catálogo de produtos: leitura de páginas em READ, inserção e deleção em READ_WRITE. */
+    public static final String CATALOG = "dscommerce.catalog";
+
+    /**
+     * Trava global do JUnit: testes que medem latência rodam sem nenhum outro teste em paralelo disputando CPU.
+     */
+    public static final String EXCLUSIVE = org.junit.jupiter.api.parallel.Resources.GLOBAL;
+
+    private Resources() {
+    }
+}
@@ -0,0 +1,176 @@
+package com.devsuperior.dscommerce.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Divide os testes entre JVMs pelo maior primeiro (LPT): os blocos são ordenados pela duração estimada e cada um vai
+ * para a JVM com menos carga até ali, o que deixa o tempo total a no máximo 4/3 do ótimo.
+ * <p>
+ * As restrições de ordem vêm das travas dos testes ({@link Kind}):
+ * <ul>
+ *     <li>os de leitura são blocos de um teste só e rodam primeiro na JVM, vendo o catálogo dos dados iniciais;</li>
+ *     <li>os que alteram o catálogo ficam juntos por classe, na ordem em que o JUnit os rodaria, e rodam em sequência
+ *     depois dos de leitura. Cada JVM sobe o próprio servidor, então classes diferentes não se enxergam;</li>
+ *     <li>contra um servidor compartilhado os que alteram o catálogo viram uma sequência só, fora da divisão, que
+ *     espera os de leitura de todas as JVMs terminarem ({@link Plan#sequencesAfterReads()}): senão uma exclusão ou
+ *     inserção correria junto com a leitura de outra JVM;</li>
+ *     <li>os exclusivos, que medem latência, vão todos para a JVM menos carregada e só rodam quando as demais
+ *     terminaram, sozinhos na máquina. O tempo deles soma ao total em vez de dividir.</li>
+ * </ul>
+ * A estimativa de cada teste vem do histórico do {@link TestDurations}; testes sem histórico valem a mediana dele.
+ */
+public final class ShardPlanner {
+
+    /** Duração assumida quando não há histórico nenhum. */
+    static final double DEFAULT_MILLIS = 200;
+
+    public enum Kind {
+        READ_ONLY, MUTATING, EXCLUSIVE
+    }
+
+    /**
+     * @param className nome completo da classe de teste
+     */
+    public record TestCase(String className, String method, Kind kind) {
+
+        /** Chave do histórico, {@code Classe#método}. */
+        public String key() {
+            return className.substring(className.lastIndexOf('.') + 1) + "#" + method;
+        }
+
+        /** Seletor do JUnit, {@code pacote.Classe#método}. */
+        public String selector() {
+            return className + "#" + method;
+        }
+    }
+
+    /**
+     * @param readOnly       testes de leitura, rodados primeiro e em paralelo
+     * @param mutating       sequências de testes que alteram o catálogo, cada uma na ordem da lista
+     * @param exclusive      testes rodados por último, sozinhos na máquina
+     * @param estimateMillis duração estimada dos testes de leitura e das sequências
+     */
+    public record Shard(int index, List<TestCase> readOnly, List<List<TestCase>> mutating, List<TestCase> exclusive,
+                        double estimateMillis, double exclusiveMillis) {
+
+        public int size() {
+            return readOnly.size() + mutating.stream().mapToInt(List::size).sum() + exclusive.size();
+        }
+    }
+
+    /**
+     * @param makespanMillis      duração estimada da execução: a JVM mais carregada, mais a sequência depois da
+     *                            barreira, se houver, mais os testes exclusivos
+     * @param sequencesAfterReads se as sequências só podem começar depois dos testes de leitura de todas as JVMs
+     */
+    public record Plan(List<Shard> shards, double makespanMillis, boolean sequencesAfterReads) {
+    }
+
+    private record Block(List<TestCase> tests, boolean sequence, double millis) {
+    }
+
+    private final Map<String, Double> historyMillis;
+    private final double defaultMillis;
+
+    public ShardPlanner(Map<String, Double> historyMillis) {
+        this.historyMillis = Map.copyOf(historyMillis);
+        this.defaultMillis = median(historyMillis.values().stream().mapToDouble(Double::doubleValue).sorted()
+                .toArray());
+    }
+
+    public double estimate(TestCase test) {
+        return historyMillis.getOrDefault(test.key(), defaultMillis);
+    }
+
+    /**
+     * @param tests           testes na ordem em que o JUnit os rodaria
+     * @param isolatedServers se cada JVM sobe o próprio servidor
+     */
+    public Plan plan(List<TestCase> tests, int shards, boolean isolatedServers) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Número de shards deve ser positivo");
+        }
+        List<Block> blocks = new ArrayList<>();
+        Map<String, List<TestCase>> sequences = new LinkedHashMap<>();
+        List<TestCase> exclusive = new ArrayList<>();
+        for (TestCase test : tests) {
+            switch (test.kind()) {
+                case READ_ONLY -> blocks.add(new Block(List.of(test), false, estimate(test)));
+                case MUTATING -> sequences.computeIfAbsent(isolatedServers ? test.className() : "",
+                        k -> new ArrayList<>()).add(test);
+                case EXCLUSIVE -> exclusive.add(test);
+            }
+        }
+        List<Block> afterReads = new ArrayList<>();
+        // com servidor compartilhado a sequência única roda depois da barreira, sem dividir a carga com as leituras
+        sequences.values().forEach(sequence -> (isolatedServers ? blocks : afterReads).add(new Block(
+                List.copyOf(sequence), true, sequence.stream().mapToDouble(this::estimate).sum())));
+        // maior primeiro; no empate, a ordem de descoberta, para o plano não mudar entre execuções
+        List<Block> ordered = new ArrayList<>(blocks);
+        ordered.sort(Comparator.comparingDouble(Block::millis).reversed());
+
+        int n = Math.min(shards, Math.max(blocks.size(), 1));
+        List<List<Block>> assigned = new ArrayList<>();
+        double[] loads = new double[n];
+        for (int i = 0; i < n; i++) {
+            assigned.add(new ArrayList<>());
+        }
+        for (Block block : ordered) {
+            int target = lightest(loads);
+            assigned.get(target).add(block);
+            loads[target] += block.millis();
+        }
+
+        // a barreira espera a JVM de leitura mais carregada
+        double maxLoad = Arrays.stream(loads).max().orElse(0);
+        double afterReadsMillis = 0;
+        for (Block block : afterReads) {
+            int target = lightest(loads);
+            assigned.get(target).add(block);
+            loads[target] += block.millis();
+            afterReadsMillis += block.millis();
+        }
+
+        int exclusiveShard = lightest(loads);
+        double exclusiveMillis = exclusive.stream().mapToDouble(this::estimate).sum();
+        List<Shard> result = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            List<TestCase> readOnly = new ArrayList<>();
+            List<List<TestCase>> mutating = new ArrayList<>();
+            for (Block block : assigned.get(i)) {
+                if (block.sequence()) {
+                    mutating.add(block.tests());
+                } else {
+                    readOnly.addAll(block.tests());
+                }
+            }
+            boolean holdsExclusive = i == exclusiveShard;
+            result.add(new Shard(i, readOnly, mutating, holdsExclusive ? List.copyOf(exclusive) : List.of(),
+                    loads[i], holdsExclusive ? exclusiveMillis : 0));
+        }
+        return new Plan(result, maxLoad + afterReadsMillis + exclusiveMillis, !isolatedServers);
+    }
+
+    private static int lightest(double[] loads) {
+        int lightest = 0;
+        for (int i = 1; i < loads.length; i++) {
+            if (loads[i] < loads[lightest]) {
+                lightest = i;
+            }
+        }
+        return lightest;
+    }
+
+    private static double median(double[] sorted) {
+        if (sorted.length == 0) {
+            return DEFAULT_MILLIS;
+        }
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+}
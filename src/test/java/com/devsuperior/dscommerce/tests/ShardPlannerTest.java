@@ -0,0 +1,113 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class ShardPlannerTest {
+
+    private static final String PRODUCTS = "com.example.ProductsRA";
+    private static final String ORDERS = "com.example.OrdersRA";
+
+    @Test
+    public void planShouldBalanceReadOnlyTestsLongestFirst() {
+        List<ShardPlanner.TestCase> tests = List.of(read(PRODUCTS, "a"), read(PRODUCTS, "b"), read(PRODUCTS, "c"),
+                read(PRODUCTS, "d"), read(PRODUCTS, "e"));
+        ShardPlanner planner = new ShardPlanner(Map.of("ProductsRA#a", 700.0, "ProductsRA#b", 500.0,
+                "ProductsRA#c", 400.0, "ProductsRA#d", 300.0, "ProductsRA#e", 100.0));
+
+        ShardPlanner.Plan plan = planner.plan(tests, 2, true);
+
+        // 700 + 300 e 500 + 400 + 100: o maior primeiro chega ao ótimo de 1000
+        Assertions.assertEquals(1000.0, plan.makespanMillis());
+        Assertions.assertEquals(List.of(read(PRODUCTS, "a"), read(PRODUCTS, "d")), plan.shards().get(0).readOnly());
+        Assertions.assertEquals(List.of(read(PRODUCTS, "b"), read(PRODUCTS, "c"), read(PRODUCTS, "e")),
+                plan.shards().get(1).readOnly());
+    }
+
+    @Test
+    public void planShouldKeepMutatingTestsOfClassTogetherInDiscoveryOrder() {
+        List<ShardPlanner.TestCase> tests = List.of(write(PRODUCTS, "insert"), read(PRODUCTS, "find"),
+                write(PRODUCTS, "delete"), write(ORDERS, "insert"), read(ORDERS, "find"), write(ORDERS, "cancel"));
+
+        ShardPlanner.Plan plan = new ShardPlanner(Map.of()).plan(tests, 4, true);
+
+        List<List<ShardPlanner.TestCase>> sequences = plan.shards().stream()
+                .flatMap(shard -> shard.mutating().stream()).toList();
+        Assertions.assertEquals(List.of(
+                List.of(write(PRODUCTS, "insert"), write(PRODUCTS, "delete")),
+                List.of(write(ORDERS, "insert"), write(ORDERS, "cancel"))), sequences);
+        Assertions.assertEquals(tests.size(), plan.shards().stream().mapToInt(ShardPlanner.Shard::size).sum());
+    }
+
+    @Test
+    public void planShouldPutAllMutatingTestsInOneSequenceWhenServerIsShared() {
+        List<ShardPlanner.TestCase> tests = List.of(write(PRODUCTS, "insert"), write(ORDERS, "insert"),
+                write(PRODUCTS, "delete"));
+
+        ShardPlanner.Plan plan = new ShardPlanner(Map.of()).plan(tests, 3, false);
+
+        Assertions.assertEquals(1, plan.shards().size());
+        Assertions.assertEquals(List.of(tests), plan.shards().get(0).mutating());
+    }
+
+    @Test
+    public void planShouldRunSharedServerSequenceAfterAllReads() {
+        List<ShardPlanner.TestCase> tests = List.of(read(PRODUCTS, "a"), write(PRODUCTS, "insert"),
+                read(PRODUCTS, "b"), write(ORDERS, "insert"), read(ORDERS, "c"));
+        ShardPlanner planner = new ShardPlanner(Map.of("ProductsRA#a", 600.0, "ProductsRA#b", 400.0,
+                "OrdersRA#c", 300.0, "ProductsRA#insert", 1000.0, "OrdersRA#insert", 500.0));
+
+        ShardPlanner.Plan plan = planner.plan(tests, 2, false);
+
+        Assertions.assertTrue(plan.sequencesAfterReads());
+        Assertions.assertFalse(planner.plan(tests, 2, true).sequencesAfterReads());
+        // leituras divididas (600 e 400 + 300); a sequência vai para a JVM que termina antes e começa depois da
+        // barreira, na JVM mais carregada: 700 + 1500
+        Assertions.assertEquals(List.of(read(PRODUCTS, "a")), plan.shards().get(0).readOnly());
+        Assertions.assertEquals(List.of(List.of(write(PRODUCTS, "insert"), write(ORDERS, "insert"))),
+                plan.shards().get(0).mutating());
+        Assertions.assertEquals(700.0 + 1500.0, plan.makespanMillis());
+    }
+
+    @Test
+    public void planShouldRunExclusiveTestsOnLightestShardAfterTheOthers() {
+        List<ShardPlanner.TestCase> tests = List.of(read(PRODUCTS, "a"), exclusive(PRODUCTS, "latency"),
+                read(PRODUCTS, "b"), exclusive(ORDERS, "latency"));
+        ShardPlanner planner = new ShardPlanner(Map.of("ProductsRA#a", 900.0, "ProductsRA#b", 300.0,
+                "ProductsRA#latency", 1000.0, "OrdersRA#latency", 500.0));
+
+        ShardPlanner.Plan plan = planner.plan(tests, 2, true);
+
+        ShardPlanner.Shard lightest = plan.shards().get(1);
+        Assertions.assertEquals(List.of(exclusive(PRODUCTS, "latency"), exclusive(ORDERS, "latency")),
+                lightest.exclusive());
+        Assertions.assertTrue(plan.shards().get(0).exclusive().isEmpty());
+        // os exclusivos rodam sozinhos depois da JVM mais carregada
+        Assertions.assertEquals(900.0 + 1500.0, plan.makespanMillis());
+    }
+
+    @Test
+    public void planShouldEstimateUnknownTestsWithHistoryMedianAndSkipEmptyShards() {
+        ShardPlanner planner = new ShardPlanner(Map.of("ProductsRA#a", 100.0, "ProductsRA#b", 300.0,
+                "ProductsRA#c", 900.0));
+
+        Assertions.assertEquals(300.0, planner.estimate(read(ORDERS, "novo")));
+        Assertions.assertEquals(ShardPlanner.DEFAULT_MILLIS, new ShardPlanner(Map.of()).estimate(read(ORDERS, "x")));
+        Assertions.assertEquals(1, planner.plan(List.of(read(PRODUCTS, "a")), 8, true).shards().size());
+    }
+
+    private static ShardPlanner.TestCase read(String className, String method) {
+        return new ShardPlanner.TestCase(className, method, ShardPlanner.Kind.READ_ONLY);
+    }
+
+    private static ShardPlanner.TestCase write(String className, String method) {
+        return new ShardPlanner.TestCase(className, method, ShardPlanner.Kind.MUTATING);
+    }
+
+    private static ShardPlanner.TestCase exclusive(String className, String method) {
+        return new ShardPlanner.TestCase(className, method, ShardPlanner.Kind.EXCLUSIVE);
+    }
+}
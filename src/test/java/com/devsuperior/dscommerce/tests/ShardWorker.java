@@ -0,0 +1,137 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JVM de testes iniciada pelo {@link TestShards}: conecta no coordenador, recebe os seus testes e os roda pelo
+ * Launcher do JUnit, um de cada vez, para que a duração de cada teste seja só dele e as durações do shard se somem
+ * como o {@link ShardPlanner} supõe; o paralelismo vem das várias JVMs. Primeiro os de leitura; depois, quando o
+ * coordenador libera, cada sequência que altera o catálogo, na ordem recebida; e por fim, de novo quando o
+ * coordenador libera, os exclusivos. Cada fase devolve os resultados antes de esperar a próxima. O servidor e o
+ * serviço de autenticação sobem antes dos testes, para que a subida não entre na duração do primeiro.
+ * <p>
+ * Argumentos: porta do coordenador em loopback e número do shard.
+ */
+public final class ShardWorker {
+
+    private static final String PARALLEL_ENABLED = "junit.jupiter.execution.parallel.enabled";
+
+    /** Resultado de cada teste na ordem em que terminou. */
+    private static final class Recorder implements TestExecutionListener {
+
+        private final Map<String, Long> started = new ConcurrentHashMap<>();
+        private final List<TestShards.TestResult> results = new ArrayList<>();
+
+        @Override
+        public void executionStarted(TestIdentifier testIdentifier) {
+            if (testIdentifier.isTest()) {
+                started.put(testIdentifier.getUniqueId(), System.nanoTime());
+            }
+        }
+
+        @Override
+        public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+            Long start = started.remove(testIdentifier.getUniqueId());
+            if (start == null || !(testIdentifier.getSource().orElse(null) instanceof MethodSource method)) {
+                return;
+            }
+            String failure = testExecutionResult.getThrowable().map(ShardWorker::stackTrace).orElse("");
+            synchronized (results) {
+                results.add(new TestShards.TestResult(method.getClassName() + "#" + method.getMethodName(),
+                        testExecutionResult.getStatus().name(), (System.nanoTime() - start) / 1e6, failure));
+            }
+        }
+
+        List<TestShards.TestResult> drain() {
+            synchronized (results) {
+                List<TestShards.TestResult> drained = List.copyOf(results);
+                results.clear();
+                return drained;
+            }
+        }
+    }
+
+    private ShardWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(args[0]);
+        int id = Integer.parseInt(args[1]);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            out.writeInt(id);
+            out.flush();
+            TestShards.Assignment assignment = TestShards.Assignment.read(in);
+
+            long boot = System.nanoTime();
+            ApiServer.baseURI();
+            // a primeira emissão de token sobe o serviço de autenticação (inicialização preguiçosa)
+            TokenUtil.obtainAccesToken("maria@gmail.com", "123456");
+            double bootMillis = (System.nanoTime() - boot) / 1e6;
+
+            Launcher launcher = LauncherFactory.create();
+            Recorder recorder = new Recorder();
+            long start = System.nanoTime();
+            execute(launcher, recorder, assignment.readOnly());
+            out.writeDouble(bootMillis);
+            out.writeDouble((System.nanoTime() - start) / 1e6);
+            TestShards.writeResults(out, recorder.drain());
+
+            in.readBoolean();
+            start = System.nanoTime();
+            for (List<String> sequence : assignment.mutating()) {
+                for (String test : sequence) {
+                    execute(launcher, recorder, List.of(test));
+                }
+            }
+            out.writeDouble((System.nanoTime() - start) / 1e6);
+            TestShards.writeResults(out, recorder.drain());
+
+            if (!assignment.exclusive().isEmpty()) {
+                in.readBoolean();
+                start = System.nanoTime();
+                execute(launcher, recorder, assignment.exclusive());
+                out.writeDouble((System.nanoTime() - start) / 1e6);
+                TestShards.writeResults(out, recorder.drain());
+            }
+            System.out.println("shard " + id + " concluído");
+        }
+        System.exit(0);
+    }
+
+    private static void execute(Launcher launcher, Recorder recorder, List<String> tests) {
+        if (tests.isEmpty()) {
+            return;
+        }
+        launcher.execute(LauncherDiscoveryRequestBuilder.request()
+                .selectors(tests.stream().map(DiscoverySelectors::selectMethod).toList())
+                .configurationParameter(PARALLEL_ENABLED, "false")
+                .build(), recorder);
+    }
+
+    private static String stackTrace(Throwable throwable) {
+        StringWriter writer = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(writer));
+        return writer.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package com.devsuperior.dscommerce.tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Histórico da duração de cada método de teste, usado pelo {@link ShardPlanner} para equilibrar as JVMs.
+ * <p>
+ * O histórico fica versionado em {@code perf/test-durations.json} ({@code -Dtest.durations.file}), em ms por teste
+ * ({@code Classe#método}), contando {@code @BeforeEach} e {@code @AfterEach}. As medidas vêm do {@link TestShards},
+ * cujos workers rodam os testes um de cada vez: no {@code mvn test} os testes correm em paralelo e a duração de um
+ * inclui a espera pelos outros. Com {@code -Dtest.durations=update} as medidas entram no histórico como média móvel
+ * exponencial, com peso {@link #WEIGHT} para a nova, para que uma execução ruidosa não refaça o plano sozinha.
+ */
+public final class TestDurations {
+
+    public static final String MODE_PROPERTY = "test.durations";
+    public static final String FILE_PROPERTY = "test.durations.file";
+
+    static final double WEIGHT = 0.5;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+    public record History(Map<String, Double> tests) {
+
+        public History {
+            tests = new TreeMap<>(tests == null ? Map.of() : tests);
+        }
+    }
+
+    private TestDurations() {
+    }
+
+    public static boolean updating() {
+        return "update".equalsIgnoreCase(System.getProperty(MODE_PROPERTY, "").trim());
+    }
+
+    public static Path file() {
+        return Path.of(System.getProperty(FILE_PROPERTY, "perf/test-durations.json"));
+    }
+
+    /** Histórico com as medidas de {@code current} ponderadas com as anteriores. */
+    static History merge(History old, Map<String, Double> current) {
+        Map<String, Double> tests = new TreeMap<>(old.tests());
+        current.forEach((test, millis) -> tests.merge(test, millis,
+                (previous, latest) -> round(previous * (1 - WEIGHT) + latest * WEIGHT)));
+        return new History(tests);
+    }
+
+    public static History load(Path file) {
+        if (!Files.exists(file)) {
+            return new History(Map.of());
+        }
+        try {
+            return MAPPER.readValue(file.toFile(), History.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Histórico de durações inválido: " + file, e);
+        }
+    }
+
+    public static void write(Path file, History history) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, MAPPER.writeValueAsString(history) + "\n", StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar histórico de durações em " + file, e);
+        }
+    }
+
+    /** Junta {@code durations} ao histórico versionado. */
+    public static void update(Map<String, Double> durations) {
+        write(file(), merge(load(file()), durations));
+    }
+
+    static double round(double millis) {
+        return Math.round(millis * 10) / 10.0;
+    }
+}
@@ -0,0 +1,505 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.junit.jupiter.api.parallel.Isolated;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Roda classes de teste divididas entre várias JVMs locais, pelo plano do {@link ShardPlanner}.
+ * <p>
+ * Os testes são descobertos pelo Launcher do JUnit, na ordem em que ele os rodaria, e classificados pelas travas:
+ * {@code @ResourceLock} de {@link Resources#CATALOG} em {@code READ_WRITE} altera o catálogo, de
+ * {@link Resources#EXCLUSIVE} (ou a classe {@code @Isolated}) precisa da máquina só para si, e o resto é leitura. O
+ * coordenador abre um socket em loopback e inicia um {@link ShardWorker} por shard, cada um com o próprio servidor
+ * em memória (ou o {@link Config#baseUri()} informado) e as métricas em {@code <workDir>/shard-<i>}. Cada worker
+ * recebe os seus testes e os roda um de cada vez, em três fases separadas por barreiras do coordenador: os de
+ * leitura; as sequências, que contra um servidor compartilhado só começam quando todos os workers devolveram as
+ * leituras; e, quando todos terminaram, os exclusivos, no worker que os recebeu. As durações medidas ficam em
+ * {@code <workDir>/test-durations-current.json} e, com {@code -Dtest.durations=update}, entram no histórico do
+ * {@link TestDurations}.
+ */
+public class TestShards {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration RESULT_TIMEOUT = Duration.ofMinutes(30);
+    private static final int MAX_FAILURE_LENGTH = 2000;
+
+    /**
+     * @param classes       nomes completos das classes de teste
+     * @param workerJvmArgs opções extras das JVMs dos workers, como {@code -Xmx512m}
+     * @param baseUri       API compartilhada por todos os workers, ou {@code null} para cada um subir o seu servidor
+     */
+    public record Config(int shards, List<String> classes, List<String> workerJvmArgs, String baseUri) {
+
+        public Config {
+            if (shards <= 0) {
+                throw new IllegalArgumentException("Número de shards deve ser positivo");
+            }
+            classes = List.copyOf(classes);
+            workerJvmArgs = List.copyOf(workerJvmArgs);
+            baseUri = baseUri == null || baseUri.isBlank() ? null : baseUri;
+        }
+
+        public Config(int shards, List<String> classes, List<String> workerJvmArgs) {
+            this(shards, classes, workerJvmArgs, null);
+        }
+
+        public boolean isolatedServers() {
+            return baseUri == null;
+        }
+    }
+
+    /**
+     * @param status  {@code SUCCESSFUL}, {@code FAILED} ou {@code ABORTED}, do JUnit
+     * @param failure mensagem da falha, ou vazia
+     */
+    public record TestResult(String selector, String status, double millis, String failure) {
+
+        public boolean passed() {
+            return status.equals("SUCCESSFUL");
+        }
+
+        /** Testes pulados por uma suposição, como os só do servidor em memória, não contam como falha. */
+        public boolean failed() {
+            return !passed() && !status.equals("ABORTED");
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeUTF(selector);
+            out.writeUTF(status);
+            out.writeDouble(millis);
+            out.writeUTF(failure.length() > MAX_FAILURE_LENGTH ? failure.substring(0, MAX_FAILURE_LENGTH) : failure);
+        }
+
+        static TestResult read(DataInputStream in) throws IOException {
+            return new TestResult(in.readUTF(), in.readUTF(), in.readDouble(), in.readUTF());
+        }
+    }
+
+    /**
+     * @param tests         resultados na ordem em que os testes terminaram
+     * @param bootMillis    subida do servidor no worker, antes dos testes
+     * @param elapsedMillis testes de leitura e sequências, sem a espera na barreira
+     */
+    public record ShardResult(ShardPlanner.Shard shard, List<TestResult> tests, double bootMillis,
+                              double elapsedMillis, double exclusiveMillis) {
+    }
+
+    public record Result(ShardPlanner.Plan plan, List<ShardResult> shards, Duration elapsed) {
+
+        public List<TestResult> tests() {
+            return shards.stream().flatMap(shard -> shard.tests().stream()).toList();
+        }
+
+        public List<TestResult> failures() {
+            return tests().stream().filter(TestResult::failed).toList();
+        }
+    }
+
+    /** Testes de um shard, enviados ao worker. */
+    record Assignment(List<String> readOnly, List<List<String>> mutating, List<String> exclusive) {
+
+        static Assignment of(ShardPlanner.Shard shard) {
+            return new Assignment(selectors(shard.readOnly()),
+                    shard.mutating().stream().map(TestShards::selectors).toList(), selectors(shard.exclusive()));
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            writeList(out, readOnly);
+            out.writeInt(mutating.size());
+            for (List<String> sequence : mutating) {
+                writeList(out, sequence);
+            }
+            writeList(out, exclusive);
+            out.flush();
+        }
+
+        static Assignment read(DataInputStream in) throws IOException {
+            List<String> readOnly = readList(in);
+            int sequences = in.readInt();
+            List<List<String>> mutating = new ArrayList<>();
+            for (int i = 0; i < sequences; i++) {
+                mutating.add(readList(in));
+            }
+            return new Assignment(readOnly, mutating, readList(in));
+        }
+    }
+
+    private final Path workDir;
+
+    /**
+     * @param workDir onde ficam as saídas e as métricas dos workers, {@code shard-<i>.log} e {@code shard-<i>/}
+     */
+    public TestShards(Path workDir) {
+        this.workDir = workDir;
+    }
+
+    /** Testes das classes, na ordem de execução do JUnit, com a classificação pelas travas. */
+    public static List<ShardPlanner.TestCase> discover(List<String> classes) {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+                .selectors(classes.stream().map(DiscoverySelectors::selectClass).toList())
+                .build();
+        TestPlan plan = LauncherFactory.create().discover(request);
+        List<ShardPlanner.TestCase> tests = new ArrayList<>();
+        for (TestIdentifier root : plan.getRoots()) {
+            collect(plan, root, tests);
+        }
+        return tests;
+    }
+
+    private static void collect(TestPlan plan, TestIdentifier identifier, List<ShardPlanner.TestCase> tests) {
+        if (identifier.isTest() && identifier.getSource().orElse(null) instanceof MethodSource source) {
+            tests.add(new ShardPlanner.TestCase(source.getClassName(), source.getMethodName(),
+                    kind(source.getJavaClass(), source.getJavaMethod())));
+        }
+        for (TestIdentifier child : plan.getChildren(identifier)) {
+            collect(plan, child, tests);
+        }
+    }
+
+    static ShardPlanner.Kind kind(Class<?> testClass, Method method) {
+        if (AnnotationSupport.isAnnotated(testClass, Isolated.class)) {
+            return ShardPlanner.Kind.EXCLUSIVE;
+        }
+        List<ResourceLock> locks = new ArrayList<>(AnnotationSupport.findRepeatableAnnotations(testClass,
+                ResourceLock.class));
+        locks.addAll(AnnotationSupport.findRepeatableAnnotations(method, ResourceLock.class));
+        boolean mutating = false;
+        for (ResourceLock lock : locks) {
+            if (lock.value().equals(Resources.EXCLUSIVE)) {
+                return ShardPlanner.Kind.EXCLUSIVE;
+            }
+            mutating |= lock.value().equals(Resources.CATALOG) && lock.mode() == ResourceAccessMode.READ_WRITE;
+        }
+        return mutating ? ShardPlanner.Kind.MUTATING : ShardPlanner.Kind.READ_ONLY;
+    }
+
+    public Result run(Config config) {
+        List<ShardPlanner.TestCase> tests = discover(config.classes());
+        ShardPlanner.Plan plan = new ShardPlanner(TestDurations.load(TestDurations.file()).tests())
+                .plan(tests, config.shards(), config.isolatedServers());
+
+        long start = System.nanoTime();
+        int n = plan.shards().size();
+        List<Process> processes = new ArrayList<>();
+        Socket[] sockets = new Socket[n];
+        try (ServerSocket server = new ServerSocket(0, n, InetAddress.getLoopbackAddress())) {
+            Files.createDirectories(workDir);
+            server.setSoTimeout(1000);
+            for (int i = 0; i < n; i++) {
+                processes.add(startWorker(config, server.getLocalPort(), i));
+            }
+            for (int connected = 0; connected < n; connected++) {
+                Socket socket = accept(server, processes);
+                int id = new DataInputStream(socket.getInputStream()).readInt();
+                sockets[id] = socket;
+                socket.setSoTimeout((int) RESULT_TIMEOUT.toMillis());
+            }
+            for (int i = 0; i < n; i++) {
+                Assignment.of(plan.shards().get(i)).write(new DataOutputStream(sockets[i].getOutputStream()));
+                if (!plan.sequencesAfterReads()) {
+                    // servidores separados: as sequências seguem direto, sem esperar os outros workers
+                    release(sockets[i]);
+                }
+            }
+
+            List<List<TestResult>> results = new ArrayList<>();
+            double[] boot = new double[n];
+            double[] elapsed = new double[n];
+            for (int i = 0; i < n; i++) {
+                try {
+                    DataInputStream in = new DataInputStream(sockets[i].getInputStream());
+                    boot[i] = in.readDouble();
+                    elapsed[i] = in.readDouble();
+                    results.add(new ArrayList<>(readResults(in)));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Shard " + i + " não devolveu as leituras, ver " + log(i), e);
+                }
+            }
+            // servidor compartilhado: nenhuma leitura está em andamento quando as sequências alteram o catálogo
+            for (int i = 0; i < n && plan.sequencesAfterReads(); i++) {
+                release(sockets[i]);
+            }
+            for (int i = 0; i < n; i++) {
+                try {
+                    DataInputStream in = new DataInputStream(sockets[i].getInputStream());
+                    elapsed[i] += in.readDouble();
+                    results.get(i).addAll(readResults(in));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Shard " + i + " não devolveu as sequências, ver " + log(i), e);
+                }
+            }
+            // os demais workers já terminaram: os exclusivos têm a máquina só para si
+            double[] exclusive = new double[n];
+            for (int i = 0; i < n; i++) {
+                if (plan.shards().get(i).exclusive().isEmpty()) {
+                    continue;
+                }
+                try {
+                    release(sockets[i]);
+                    DataInputStream in = new DataInputStream(sockets[i].getInputStream());
+                    exclusive[i] = in.readDouble();
+                    results.get(i).addAll(readResults(in));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Shard " + i + " não devolveu os exclusivos, ver " + log(i), e);
+                }
+            }
+
+            List<ShardResult> shards = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                ShardPlanner.Shard shard = plan.shards().get(i);
+                shards.add(new ShardResult(shard, withMissing(shard, results.get(i), i), boot[i], elapsed[i],
+                        exclusive[i]));
+            }
+            Result result = new Result(plan, shards, Duration.ofNanos(System.nanoTime() - start));
+            recordDurations(tests, result);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (Socket socket : sockets) {
+                closeQuietly(socket);
+            }
+            for (Process process : processes) {
+                stop(process);
+            }
+        }
+    }
+
+    public static String format(Result result) {
+        StringBuilder sb = new StringBuilder();
+        for (ShardResult shard : result.shards()) {
+            ShardPlanner.Shard planned = shard.shard();
+            sb.append(String.format(Locale.ROOT, "shard %d: %d testes (%d de leitura, %d em sequência), "
+                            + "subida %.1f s, previsto %.1f s, medido %.1f s%n", planned.index(),
+                    planned.size() - planned.exclusive().size(), planned.readOnly().size(),
+                    planned.mutating().stream().mapToInt(List::size).sum(), shard.bootMillis() / 1000,
+                    planned.estimateMillis() / 1000, shard.elapsedMillis() / 1000));
+            if (!planned.exclusive().isEmpty()) {
+                sb.append(String.format(Locale.ROOT, "  exclusivos: %d testes, previsto %.1f s, medido %.1f s%n",
+                        planned.exclusive().size(), planned.exclusiveMillis() / 1000,
+                        shard.exclusiveMillis() / 1000));
+            }
+        }
+        for (TestResult failure : result.failures()) {
+            sb.append("  ").append(failure.status()).append(' ').append(failure.selector()).append(": ")
+                    .append(failure.failure().lines().findFirst().orElse("")).append('\n');
+        }
+        sb.append(String.format(Locale.ROOT, "total: %d testes, %d falhas em %.1f s (previsto %.1f s sem a subida "
+                        + "das JVMs)%n", result.tests().size(), result.failures().size(),
+                result.elapsed().toMillis() / 1000.0, result.plan().makespanMillis() / 1000));
+        return sb.toString();
+    }
+
+    /** Testes planejados que o worker não devolveu, como os de uma classe cujo {@code @BeforeAll} falhou. */
+    private static List<TestResult> withMissing(ShardPlanner.Shard shard, List<TestResult> results, int id) {
+        List<String> planned = new ArrayList<>(selectors(shard.readOnly()));
+        shard.mutating().forEach(sequence -> planned.addAll(selectors(sequence)));
+        planned.addAll(selectors(shard.exclusive()));
+        List<TestResult> all = new ArrayList<>(results);
+        for (String selector : planned) {
+            if (results.stream().noneMatch(result -> result.selector().equals(selector))) {
+                all.add(new TestResult(selector, "FAILED", 0, "Não executado no shard " + id));
+            }
+        }
+        return all;
+    }
+
+    /** Grava as durações medidas em {@code test-durations-current.json} e, no modo update, no histórico. */
+    private void recordDurations(List<ShardPlanner.TestCase> tests, Result result) {
+        Map<String, String> keys = new HashMap<>();
+        tests.forEach(test -> keys.put(test.selector(), test.key()));
+        Map<String, Double> durations = new HashMap<>();
+        for (TestResult test : result.tests()) {
+            if (test.passed() && keys.containsKey(test.selector())) {
+                durations.put(keys.get(test.selector()), TestDurations.round(test.millis()));
+            }
+        }
+        TestDurations.write(workDir.resolve("test-durations-current.json"), new TestDurations.History(durations));
+        if (TestDurations.updating()) {
+            TestDurations.update(durations);
+        }
+    }
+
+    /** Libera o worker para a próxima fase. */
+    private static void release(Socket socket) throws IOException {
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeBoolean(true);
+        out.flush();
+    }
+
+    static void writeResults(DataOutputStream out, List<TestResult> results) throws IOException {
+        out.writeInt(results.size());
+        for (TestResult result : results) {
+            result.write(out);
+        }
+        out.flush();
+    }
+
+    private static List<TestResult> readResults(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<TestResult> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(TestResult.read(in));
+        }
+        return results;
+    }
+
+    private static List<String> selectors(List<ShardPlanner.TestCase> tests) {
+        return tests.stream().map(ShardPlanner.TestCase::selector).toList();
+    }
+
+    private static void writeList(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readList(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+
+    private Process startWorker(Config config, int port, int id) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(config.workerJvmArgs());
+        if (!config.isolatedServers()) {
+            command.add("-D" + ApiServer.BASE_URI_PROPERTY + "=" + config.baseUri());
+        }
+        // relatórios do worker fora de target/ra-metrics, que é da JVM que coordena
+        command.add("-D" + RequestMetrics.DIR_PROPERTY + "=" + workDir.resolve("shard-" + id).toAbsolutePath());
+        command.add("-cp");
+        command.add(classPath());
+        command.add(ShardWorker.class.getName());
+        command.add(String.valueOf(port));
+        command.add(String.valueOf(id));
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log(id).toFile()).start();
+    }
+
+    /** Espera a conexão de um worker, falhando logo se algum deles morrer antes de conectar. */
+    private Socket accept(ServerSocket server, List<Process> processes) throws IOException {
+        long deadline = System.nanoTime() + CONNECT_TIMEOUT.toNanos();
+        while (true) {
+            try {
+                return server.accept();
+            } catch (SocketTimeoutException e) {
+                for (int i = 0; i < processes.size(); i++) {
+                    if (!processes.get(i).isAlive()) {
+                        throw new IllegalStateException("Shard " + i + " terminou antes de conectar, ver " + log(i));
+                    }
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Workers não se conectaram em " + CONNECT_TIMEOUT + ", ver "
+                            + workDir.toAbsolutePath(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Classpath desta JVM. No {@code exec:java} as classes de teste vêm de um {@link URLClassLoader} do Maven e não
+     * aparecem em {@code java.class.path}.
+     */
+    private static String classPath() {
+        if (Thread.currentThread().getContextClassLoader() instanceof URLClassLoader loader) {
+            List<String> entries = new ArrayList<>();
+            for (URL url : loader.getURLs()) {
+                try {
+                    entries.add(Path.of(url.toURI()).toString());
+                } catch (URISyntaxException e) {
+                    throw new IllegalStateException("Entrada inválida no classpath: " + url, e);
+                }
+            }
+            return String.join(File.pathSeparator, entries);
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    private Path log(int id) {
+        return workDir.resolve("shard-" + id + ".log");
+    }
+
+    private static void stop(Process process) {
+        try {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // já encerrado pelo worker
+            }
+        }
+    }
+
+    /**
+     * Execução pela linha de comando, por exemplo:
+     * <pre>
+     * mvn test-compile exec:java -Dexec.classpathScope=test \
+     *     -Dexec.mainClass=com.devsuperior.dscommerce.tests.TestShards \
+     *     -Dshards.count=4 -Dtest.durations=update
+     * </pre>
+     * Sai com status 1 se algum teste falhar.
+     */
+    public static void main(String[] args) {
+        String jvmArgs = System.getProperty("shards.workerJvmArgs", "").trim();
+        String classes = System.getProperty("shards.classes",
+                "com.devsuperior.dscommerce.controllers.ProductControllerRA,"
+                        + "com.devsuperior.dscommerce.controllers.OrderControllerRA");
+        Config config = new Config(
+                Integer.getInteger("shards.count", Runtime.getRuntime().availableProcessors()),
+                Arrays.stream(classes.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList(),
+                jvmArgs.isEmpty() ? List.of() : Arrays.asList(jvmArgs.split("\\s+")),
+                System.getProperty(ApiServer.BASE_URI_PROPERTY));
+        Path workDir = Path.of(System.getProperty("shards.workDir", "target/test-shards"));
+        Result result = new TestShards(workDir).run(config);
+        System.out.print(format(result));
+        System.exit(result.failures().isEmpty() ? 0 : 1);
+    }
+}
@@ -0,0 +1,83 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// sobe JVMs de teste: roda sozinho, sem os demais testes disputando CPU
+@Isolated
+public class TestShardsRA {
+
+    private static final List<String> CLASSES = List.of(
+            "com.devsuperior.dscommerce.controllers.ProductControllerRA",
+            "com.devsuperior.dscommerce.controllers.OrderControllerRA");
+    private static final List<String> JVM_ARGS = List.of("-Xshare:auto", "-XX:TieredStopAtLevel=1");
+
+    @Test
+    public void discoverShouldClassifyTestsByResourceLocks() {
+        Map<String, ShardPlanner.Kind> kinds = TestShards.discover(CLASSES).stream()
+                .collect(Collectors.toMap(ShardPlanner.TestCase::key, ShardPlanner.TestCase::kind));
+
+        Assertions.assertEquals(ShardPlanner.Kind.MUTATING,
+                kinds.get("ProductControllerRA#deleteShouldReturnNoContentWhenIdExistsAndAdminLogged204"));
+        Assertions.assertEquals(ShardPlanner.Kind.MUTATING,
+                kinds.get("ProductControllerRA#insertShouldReturnProductCreatedWhenAdminLogged201"));
+        Assertions.assertEquals(ShardPlanner.Kind.READ_ONLY,
+                kinds.get("ProductControllerRA#findAllShouldReturnPageProductsWhenProductNameIsEmpty"));
+        Assertions.assertEquals(ShardPlanner.Kind.EXCLUSIVE,
+                kinds.get("OrderControllerRA#findByIdShouldRespondWithinLatencyBudgetWhenAdminLogged"));
+    }
+
+    // cada worker sobe a aplicação: fora do mvn test, roda com -Ptest-shards
+    @Test
+    @Tag("shards")
+    public void runShouldExecuteEveryTestOnceRespectingSequences() {
+        assertRun(new TestShards.Config(2, CLASSES, JVM_ARGS));
+    }
+
+    @Test
+    @Tag("shards")
+    public void runAgainstSharedServerShouldExecuteEveryTestOnceRespectingSequences() {
+        assertRun(new TestShards.Config(2, CLASSES, JVM_ARGS, ApiServer.baseURI()));
+    }
+
+    private static void assertRun(TestShards.Config config) {
+        List<ShardPlanner.TestCase> discovered = TestShards.discover(CLASSES);
+
+        TestShards.Result result = new TestShards(Path.of("target/test-shards")).run(config);
+
+        System.out.print(TestShards.format(result));
+        Assertions.assertEquals(List.of(), result.failures());
+        Assertions.assertEquals(2, result.shards().size());
+        Assertions.assertEquals(!config.isolatedServers(), result.plan().sequencesAfterReads());
+        Map<String, Long> runs = result.tests().stream()
+                .collect(Collectors.groupingBy(TestShards.TestResult::selector, Collectors.counting()));
+        Assertions.assertEquals(discovered.stream().collect(Collectors.toMap(ShardPlanner.TestCase::selector,
+                test -> 1L)), runs);
+
+        for (TestShards.ShardResult shard : result.shards()) {
+            List<String> order = shard.tests().stream().map(TestShards.TestResult::selector).toList();
+            int lastReadOnly = shard.shard().readOnly().stream()
+                    .mapToInt(test -> order.indexOf(test.selector())).max().orElse(-1);
+            for (List<ShardPlanner.TestCase> sequence : shard.shard().mutating()) {
+                List<Integer> positions = sequence.stream().map(test -> order.indexOf(test.selector())).toList();
+                // depois de todos os de leitura do shard e na ordem da sequência
+                Assertions.assertTrue(positions.get(0) > lastReadOnly, order.toString());
+                Assertions.assertEquals(positions.stream().sorted().toList(), positions, order.toString());
+            }
+        }
+        Map<String, ShardPlanner.Kind> kinds = discovered.stream()
+                .collect(Collectors.toMap(ShardPlanner.TestCase::selector, ShardPlanner.TestCase::kind));
+        Map<Integer, Long> exclusiveByShard = result.shards().stream().collect(Collectors.toMap(
+                shard -> shard.shard().index(), shard -> shard.tests().stream()
+                        .filter(test -> kinds.get(test.selector()) == ShardPlanner.Kind.EXCLUSIVE).count()));
+        // exclusivos numa JVM só, rodados depois das demais
+        Assertions.assertEquals(1, exclusiveByShard.values().stream().filter(count -> count > 0).count());
+    }
+}
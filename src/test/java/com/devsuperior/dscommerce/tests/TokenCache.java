@@ -0,0 +1,240 @@
+package com.devsuperior.dscommerce.tests;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de tokens OAuth2 por (client id, username) e um digest das credenciais: com outra senha ou outro client
+ * secret o token é buscado de novo, e a recusa do servidor chega ao teste.
+ * <p>
+ * Cada token fica em cache pelo tempo informado em {@code expires_in}, ou pelo {@code defaultTtl} quando a resposta
+ * não o traz, e é renovado em segundo plano antes de expirar, enquanto continuar sendo usado. Buscas concorrentes
+ * pela mesma chave aguardam a mesma requisição ao servidor de autorização, em vez de cada uma emitir um novo token.
+ */
+public class TokenCache {
+
+    /** Busca um token novo no servidor de autorização. */
+    @FunctionalInterface
+    public interface TokenFetcher {
+        TokenResponse fetch(String clientId, String clientSecret, String username, String password);
+    }
+
+    /**
+     * @param expiresInSeconds {@code expires_in} da resposta, ou 0 se ela não o informa
+     */
+    public record TokenResponse(String accessToken, long expiresInSeconds) {
+    }
+
+    public record Stats(long hits, long misses, long refreshes, long failures) {
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    private record Key(String clientId, String username, String credentials) {
+
+        static Key of(String clientId, String clientSecret, String username, String password) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(clientSecret.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(password.getBytes(StandardCharsets.UTF_8));
+                return new Key(clientId, username, HexFormat.of().formatHex(digest.digest()));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private static final class Entry {
+        final String accessToken;
+        final Instant issuedAt;
+        final Instant expiresAt;
+        final Instant refreshAt;
+        final AtomicLong lastAccess;
+
+        Entry(String accessToken, Instant issuedAt, Instant expiresAt, Instant refreshAt) {
+            this.accessToken = accessToken;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAt;
+            this.lastAccess = new AtomicLong(issuedAt.toEpochMilli());
+        }
+
+        boolean isValid(Instant now) {
+            return now.isBefore(expiresAt);
+        }
+    }
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+    private final TokenFetcher fetcher;
+    private final Clock clock;
+    private final double refreshRatio;
+    private final Duration defaultTtl;
+    private final ScheduledExecutorService refresher;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public TokenCache(TokenFetcher fetcher) {
+        this(fetcher, DEFAULT_TTL);
+    }
+
+    public TokenCache(TokenFetcher fetcher, Duration defaultTtl) {
+        this(fetcher, Clock.systemUTC(), 0.8, defaultTtl);
+    }
+
+    public TokenCache(TokenFetcher fetcher, Clock clock, double refreshRatio) {
+        this(fetcher, clock, refreshRatio, DEFAULT_TTL);
+    }
+
+    /**
+     * @param refreshRatio fração do tempo de vida do token após a qual ele é renovado em segundo plano
+     * @param defaultTtl   tempo de vida dos tokens cuja resposta não traz {@code expires_in}
+     */
+    public TokenCache(TokenFetcher fetcher, Clock clock, double refreshRatio, Duration defaultTtl) {
+        if (refreshRatio <= 0.0 || refreshRatio >= 1.0) {
+            throw new IllegalArgumentException("refreshRatio deve estar entre 0 e 1");
+        }
+        if (defaultTtl.isNegative() || defaultTtl.isZero()) {
+            throw new IllegalArgumentException("defaultTtl deve ser positivo");
+        }
+        this.fetcher = Objects.requireNonNull(fetcher);
+        this.clock = Objects.requireNonNull(clock);
+        this.refreshRatio = refreshRatio;
+        this.defaultTtl = defaultTtl;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "token-cache-refresher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public String get(String clientId, String clientSecret, String username, String password) {
+        Key key = Key.of(clientId, clientSecret, username, password);
+        Instant now = clock.instant();
+
+        CompletableFuture<Entry> current = entries.get(key);
+        if (isUsable(current, now)) {
+            hits.increment();
+            return touch(current.join(), now);
+        }
+
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        CompletableFuture<Entry> winner = entries.compute(key,
+                (k, existing) -> isUsable(existing, now) || isPending(existing) ? existing : created);
+
+        if (winner != created) {
+            // outra thread já tem o token ou está buscando: aguarda o mesmo resultado, que só é acerto se vier
+            Entry entry = await(winner);
+            hits.increment();
+            return touch(entry, now);
+        }
+
+        misses.increment();
+        try {
+            Entry entry = fetch(clientId, clientSecret, username, password);
+            created.complete(entry);
+            scheduleRefresh(key, entry, clientSecret, password);
+            return entry.accessToken;
+        } catch (RuntimeException e) {
+            failures.increment();
+            entries.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), refreshes.sum(), failures.sum());
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private Entry fetch(String clientId, String clientSecret, String username, String password) {
+        TokenResponse response = fetcher.fetch(clientId, clientSecret, username, password);
+        if (response == null || response.accessToken() == null) {
+            throw new IllegalStateException("Servidor de autorização não retornou access_token para " + username);
+        }
+        Instant now = clock.instant();
+        Duration lifetime = response.expiresInSeconds() > 0 ? Duration.ofSeconds(response.expiresInSeconds())
+                : defaultTtl;
+        Instant refreshAt = now.plusMillis((long) (lifetime.toMillis() * refreshRatio));
+        return new Entry(response.accessToken(), now, now.plus(lifetime), refreshAt);
+    }
+
+    private void scheduleRefresh(Key key, Entry entry, String clientSecret, String password) {
+        long delay = Duration.between(clock.instant(), entry.refreshAt).toMillis();
+        if (delay <= 0) {
+            return;
+        }
+        refresher.schedule(() -> refresh(key, entry, clientSecret, password), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void refresh(Key key, Entry previous, String clientSecret, String password) {
+        CompletableFuture<Entry> current = entries.get(key);
+        if (current == null || !current.isDone() || current.isCompletedExceptionally() || current.join() != previous) {
+            return;
+        }
+        // só renova tokens que foram usados desde a última emissão; os demais expiram naturalmente
+        if (previous.lastAccess.get() <= previous.issuedAt.toEpochMilli()) {
+            return;
+        }
+        try {
+            Entry renewed = fetch(key.clientId(), clientSecret, key.username(), password);
+            if (entries.replace(key, current, CompletableFuture.completedFuture(renewed))) {
+                refreshes.increment();
+                scheduleRefresh(key, renewed, clientSecret, password);
+            }
+        } catch (RuntimeException e) {
+            // mantém o token atual até expirar; a próxima chamada após a expiração busca outro
+            failures.increment();
+        }
+    }
+
+    private static String touch(Entry entry, Instant now) {
+        entry.lastAccess.accumulateAndGet(now.toEpochMilli(), Math::max);
+        return entry.accessToken;
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isPending(CompletableFuture<Entry> future) {
+        return future != null && !future.isDone();
+    }
+
+    private static boolean isUsable(CompletableFuture<Entry> future, Instant now) {
+        return future != null && future.isDone() && !future.isCompletedExceptionally() && future.join().isValid(now);
+    }
+}
@@ -0,0 +1,163 @@
+package com.devsuperior.dscommerce.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TokenCacheTest {
+
+    @Test
+    public void getShouldReuseTokenWhileNotExpired() {
+        AtomicInteger calls = new AtomicInteger();
+        TokenCache cache = new TokenCache((id, secret, user, pass) ->
+                new TokenCache.TokenResponse(user + "-" + calls.incrementAndGet(), 3600));
+
+        String first = cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456");
+        String second = cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456");
+        String other = cache.get("myclientid", "myclientsecret", "alex@gmail.com", "123456");
+
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotEquals(first, other);
+        Assertions.assertEquals(2, calls.get());
+        Assertions.assertEquals(new TokenCache.Stats(1, 2, 0, 0), cache.stats());
+    }
+
+    @Test
+    public void getShouldFetchOnlyOnceWhenCalledConcurrently() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        TokenCache cache = new TokenCache((id, secret, user, pass) -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new TokenCache.TokenResponse("token", 3600);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456")));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                Assertions.assertEquals("token", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals(1, cache.stats().misses());
+        Assertions.assertEquals(7, cache.stats().hits());
+    }
+
+    @Test
+    public void getShouldNotCacheFailedFetch() {
+        AtomicInteger calls = new AtomicInteger();
+        TokenCache cache = new TokenCache((id, secret, user, pass) -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("auth server down");
+            }
+            return new TokenCache.TokenResponse("token", 3600);
+        });
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456"));
+        Assertions.assertEquals("token", cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456"));
+        Assertions.assertEquals(1, cache.stats().failures());
+    }
+
+    @Test
+    public void getShouldFetchAgainWhenPasswordDiffers() {
+        TokenCache cache = new TokenCache((id, secret, user, pass) -> {
+            if (!pass.equals("123456")) {
+                throw new IllegalStateException("credenciais inválidas");
+            }
+            return new TokenCache.TokenResponse("token", 3600);
+        });
+
+        Assertions.assertEquals("token", cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456"));
+        // o token em cache da mesma usuária não esconde a recusa do servidor
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> cache.get("myclientid", "myclientsecret", "maria@gmail.com", "errada"));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> cache.get("myclientid", "outrosecret", "maria@gmail.com", "errada"));
+        Assertions.assertEquals("token", cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456"));
+        Assertions.assertEquals(new TokenCache.Stats(1, 3, 0, 2), cache.stats());
+    }
+
+    @Test
+    public void getShouldUseDefaultTtlWhenExpiresInIsMissing() {
+        AtomicInteger calls = new AtomicInteger();
+        TokenCache cache = new TokenCache((id, secret, user, pass) ->
+                new TokenCache.TokenResponse("token-" + calls.incrementAndGet(), 0), Duration.ofMinutes(1));
+
+        cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456");
+        cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456");
+
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    public void getShouldNotCountWaiterAsHitWhenSharedFetchFails() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TokenCache cache = new TokenCache((id, secret, user, pass) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("auth server down");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456")));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                ExecutionException e = Assertions.assertThrows(ExecutionException.class, result::get);
+                Assertions.assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(new TokenCache.Stats(0, 1, 0, 1), cache.stats());
+    }
+
+    @Test
+    public void usedTokenShouldBeRefreshedBeforeExpiring() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        TokenCache cache = new TokenCache((id, secret, user, pass) ->
+                new TokenCache.TokenResponse("token-" + calls.incrementAndGet(), 1), Clock.systemUTC(), 0.3);
+
+        Assertions.assertEquals("token-1", cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456"));
+        Thread.sleep(50);
+        cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456");
+        Thread.sleep(600);
+
+        Assertions.assertEquals("token-2", cache.get("myclientid", "myclientsecret", "maria@gmail.com", "123456"));
+        Assertions.assertEquals(1, cache.stats().refreshes());
+        Assertions.assertEquals(1, cache.stats().misses());
+    }
+}
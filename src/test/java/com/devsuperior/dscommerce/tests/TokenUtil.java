@@ -2,6 +2,13 @@ package com.devsuperior.dscommerce.tests;
 
 import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
 
 import static io.restassured.RestAssured.*;
 import static io.restassured.matcher.RestAssuredMatchers.*;
@@ -9,22 +16,115 @@ import static org.hamcrest.Matchers.*;
 
 public class TokenUtil {
 
+    private static final String CLIENT_ID = "myclientid"; // dados da api - dados environment no application
+    private static final String CLIENT_SECRET = "myclientsecret";
+
+    private static final String TOKEN_PATH = "/oauth2/token";
+    // respostas de gateway e de servidor sobrecarregado: vale tentar de novo
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(502, 503, 504);
+
+    /**
+     * Tentativas da busca de token. Uma tentativa que falha sem resposta (conexão recusada ou resetada, timeout de
+     * leitura) ou com 502/503/504 é repetida após uma espera exponencial com sorteio, até {@code attempts} no total.
+     *
+     * @param attemptTimeout limite de espera por cada leitura do socket em uma tentativa
+     * @param backoff        espera base antes da segunda tentativa, dobrada a cada nova
+     */
+    public record RetryPolicy(int attempts, Duration attemptTimeout, Duration backoff) {
+
+        public RetryPolicy {
+            if (attempts <= 0) {
+                throw new IllegalArgumentException("Número de tentativas deve ser positivo");
+            }
+        }
+
+        /**
+         * {@code -Dtoken.retry.attempts} (padrão 3), {@code -Dtoken.retry.timeoutMillis} (10000) e
+         * {@code -Dtoken.retry.backoffMillis} (50).
+         */
+        public static RetryPolicy fromSystemProperties() {
+            return new RetryPolicy(Integer.getInteger("token.retry.attempts", 3),
+                    Duration.ofMillis(Long.getLong("token.retry.timeoutMillis", 10_000)),
+                    Duration.ofMillis(Long.getLong("token.retry.backoffMillis", 50)));
+        }
+    }
+
+    private static final RetryPolicy RETRY = RetryPolicy.fromSystemProperties();
+
+    // tokens reaproveitados entre os testes, renovados antes de expirar; sem expires_in valem
+    // -Dtoken.cache.defaultTtlSeconds (padrão 300)
+    private static final TokenCache CACHE = new TokenCache((clientId, clientSecret, username, password) ->
+            fetchToken(RequestSpecs.api(), RETRY, clientId, clientSecret, username, password),
+            Duration.ofSeconds(Long.getLong("token.cache.defaultTtlSeconds", TokenCache.DEFAULT_TTL.toSeconds())));
+
     public static String obtainAccesToken(String usename, String password){
-        Response response = autRequest(usename, password);
-        JsonPath jsonBody = response.jsonPath();
-        return jsonBody.getString("access_token");
+        return CACHE.get(CLIENT_ID, CLIENT_SECRET, usename, password);
+    }
+
+    /**
+     * Token novo, sem passar pelo cache, pedido pela especificação informada (apontando para um
+     * {@link FaultProxy}, por exemplo) e com as tentativas de {@code retry}.
+     */
+    public static String requestAccessToken(RequestSpecification spec, RetryPolicy retry, String username,
+                                            String password) {
+        return fetchToken(spec, retry, CLIENT_ID, CLIENT_SECRET, username, password).accessToken();
+    }
+
+    public static TokenCache.Stats tokenCacheStats() {
+        return CACHE.stats();
+    }
+
+    private static TokenCache.TokenResponse fetchToken(RequestSpecification spec, RetryPolicy retry, String clientId,
+                                                       String clientSecret, String username, String password) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Response response = autRequest(spec, retry.attemptTimeout(), clientId, clientSecret, username,
+                        password);
+                if (attempt < retry.attempts() && RETRYABLE_STATUSES.contains(response.statusCode())) {
+                    backoff(retry, attempt);
+                    continue;
+                }
+                JsonPath jsonBody = response.jsonPath();
+                Number expiresIn = jsonBody.get("expires_in");
+                return new TokenCache.TokenResponse(jsonBody.getString("access_token"), expiresIn == null ? 0 : expiresIn.longValue());
+            } catch (Exception e) {
+                // o RestAssured propaga IOException sem declarar: falhas de rede chegam aqui como Exception
+                if (attempt >= retry.attempts() || !isNetworkFailure(e)) {
+                    throw e;
+                }
+                backoff(retry, attempt);
+            }
+        }
+    }
+
+    private static void backoff(RetryPolicy retry, int attempt) {
+        RequestMetrics.recordRetry("POST", TOKEN_PATH);
+        long max = retry.backoff().toNanos() << Math.min(attempt - 1, 20);
+        // sorteio entre metade e o total, para que tentativas simultâneas não voltem juntas
+        LockSupport.parkNanos(max / 2 + ThreadLocalRandom.current().nextLong(max / 2 + 1));
+    }
+
+    private static boolean isNetworkFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private static Response autRequest(String username, String password) {
+    private static Response autRequest(RequestSpecification spec, Duration timeout, String clientId,
+                                       String clientSecret, String username, String password) {
         return
-                given()
+                given(spec)
+                        .filter(HttpConnectionPool.socketTimeoutFilter(timeout))
                         .auth().preemptive()
-                        .basic("myclientid", "myclientsecret") // dados da api - dados environment no application
+                        .basic(clientId, clientSecret)
                         .contentType("application/x-www-form-urlencoded")
                         .formParam("grant_type", "password")
                         .formParam("username", username)
                         .formParam("password", password)
                         .when()
-                        .post("/oauth2/token");
+                        .post(TOKEN_PATH);
     }
 }